@@ -0,0 +1,14 @@
+// File:        MarieBatch1.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+import MarieSimulator.MarieBatch;
+/******************************************************************************************
+* This console application runs MARIE executable files without the simulator's user       *
+* interface and reports the results of each run.  See MarieBatch.java for details.        *
+******************************************************************************************/
+public class MarieBatch1 {
+  public static void main(String args[]) {
+    MarieBatch.main(args);
+  }
+} // MarieBatch1
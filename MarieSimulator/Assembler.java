@@ -121,6 +121,7 @@ public class Assembler implements Serializable {
   public boolean done;                            // Terminating condition found (e.g.EOF)?
   public ArrayList errorList = new ArrayList();   // Holds text of any errors found.
   public boolean operandReqd = false;             // Does current instruction need an operand?
+  public int fixedOperand = 0;                    // Address field if it needs none.
   public boolean hasLabel = false;                // Is current instruction labeled?
   public int maxSymbolLength = 0;                 // Longest symbol in code (for formatting).
 
@@ -149,12 +150,18 @@ public class Assembler implements Serializable {
     String mnemonic;             // Instruction mnemonic
     byte hexCode;                // Hex code of instruction
     boolean addrReqd;            // Flag to indicate whether an operand is required.
+    int fixedOperand = 0;        // Address field if no operand is given (EI is F001).
 
     Instruction(String mnemonic, byte hexCode, boolean addrReqd) {
       this.mnemonic = mnemonic;
       this.hexCode = hexCode;
       this.addrReqd = addrReqd;
     } // Instruction()
+
+    Instruction(String mnemonic, byte hexCode, boolean addrReqd, int fixedOperand) {
+      this(mnemonic, hexCode, addrReqd);
+      this.fixedOperand = fixedOperand;
+    } // Instruction()
   } // Instruction
 
 /******************************************************************************************
@@ -176,6 +183,10 @@ void loadInstructionSet() {
  instructionSet.put("CLEAR",      new Instruction("CLEAR",      (byte) 10,  false));
  instructionSet.put("ADDI",       new Instruction("ADDI",       (byte) 11,  true));
  instructionSet.put("JUMPI",      new Instruction("JUMPI",      (byte) 12,  true));
+ instructionSet.put("TAS",        new Instruction("TAS",        (byte) 13,  true));
+ instructionSet.put("IRET",       new Instruction("IRET",       (byte) 14,  false));
+ instructionSet.put("EI",         new Instruction("EI",         (byte) 15,  false, 1));
+ instructionSet.put("DI",         new Instruction("DI",         (byte) 15,  false, 0));
  instructionSet.put("DEC",        new Instruction("DEC",        (byte) DEC, true));
  instructionSet.put("OCT",        new Instruction("OCT",        (byte) OCT, true));
  instructionSet.put("HEX",        new Instruction("HEX",        (byte) HEX, true));
@@ -448,6 +459,7 @@ int getOpcode(String stmt) {
   if (instructionSet.containsKey(stmt)) {                     // Try to find stmt value in
      instruction = (Instruction) instructionSet.get(stmt);    // instruction set.
      operandReqd = instruction.addrReqd;
+     fixedOperand = instruction.fixedOperand;
      value = instruction.hexCode;
      if (instruction.hexCode == ORG) {                        // If found and is an
        if (lineNumber > 0) {                                  // ORiGination, return error
@@ -547,6 +559,7 @@ AssembledCodeLine parseCodeLine(String inputLine) {
 /* -- Once we have the opcode, we also know whether an operand is needed.             -- */
 /* --                                                                                 -- */
   operandReqd = true;                                     // Assume operand is needed.
+  fixedOperand = 0;
   if (hasLabel) {                                         // If no label at all,
     if (st.hasMoreTokens()) {                             // get the next token.
        aToken = st.nextToken().toUpperCase();
@@ -605,7 +618,7 @@ AssembledCodeLine parseCodeLine(String inputLine) {
       operand.append("???");
     }
   } // operandReqd
-  else operand.append("000");
+  else operand.append(to3CharHexStr(fixedOperand));
 
 /* --                                                                                 -- */
 /* --  Finish populating the intermediate code object.                                -- */
@@ -0,0 +1,128 @@
+// File:        MarieBankedMemory.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+
+public class MarieBankedMemory implements MarieDevice {
+/******************************************************************************************
+*  A MarieBankedMemory is extra memory on a MarieBus, far more than the 4096 words a      *
+*  MARIE address can reach:  up to MAX_BANKS banks of BANK_SIZE words, 64 megawords in    *
+*  all.  The program sees one bank at a time through a window of BANK_SIZE words, and     *
+*  chooses which with a bank-select register just below the window:                       *
+*                                                                                         *
+*       BANK   (0)          Storing n (taken as unsigned, and wrapping round the number   *
+*                           of banks) selects bank n.  Loading gives the bank selected.   *
+*       WINDOW (1 to 1024)  Register i is word i - 1 of the bank selected.                *
+*                                                                                         *
+*  In the standard place (MarieBus.BANKED_BASE) BANK is at 07FF and the window at 0800 to *
+*  0BFF, so a program's code and variables fit below 07FF and it walks through its data   *
+*  with AddI a bank at a time.  The bank selected goes back to 0 when the machine is      *
+*  reset or the program restarted, but the contents are kept, as they are in main memory. *
+*                                                                                         *
+*  The words are held off the Java heap, in a direct ByteBuffer with a ShortBuffer view   *
+*  of it, so megawords of data cost the garbage collector nothing.  A data image (the     *
+*  same format as a MarieBlockStorage file:  two bytes per word, high byte first) is      *
+*  loaded with loadImage(), which reads the file straight into the buffer in one bulk     *
+*  transfer.                                                                              *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int BANK = 0;                 // Register number; the window
+  public static final int BANK_SIZE = 1024;         // follows it.
+  public static final int MAX_BANKS = 65536;
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  ByteBuffer  bytes;                                // Off-heap store, and the same
+  ShortBuffer words;                                // viewed as words.
+  int         banks;
+  int         bank = 0;                             // Bank selected, and where it
+  int         base = 0;                             // starts in words.
+
+
+  public MarieBankedMemory(int banks) {
+/******************************************************************************************
+*  Allocates banks banks of zeros.  Throws an IllegalArgumentException unless banks is    *
+*  from 1 to MAX_BANKS.                                                                   *
+******************************************************************************************/
+    if ((banks < 1) || (banks > MAX_BANKS))
+      throw new IllegalArgumentException("Number of banks must be from 1 to "
+                                         + MAX_BANKS + ".");
+    this.banks = banks;
+    bytes = ByteBuffer.allocateDirect(banks * BANK_SIZE * 2);
+    words = bytes.asShortBuffer();                  // Big-endian, like the files.
+  } // MarieBankedMemory()
+
+
+  public int getBanks() {
+    return banks;
+  } // getBanks()
+
+
+  public int getWords() {
+    return banks * BANK_SIZE;
+  } // getWords()
+
+
+  public int getSize() {
+    return 1 + BANK_SIZE;
+  } // getSize()
+
+
+  public void attach(MarieBus bus) {
+  } // attach()
+
+
+  public int read(int register) {
+    return (register == BANK) ? bank : words.get(base + register - 1);
+  } // read()
+
+
+  public void write(int register, int value) {
+    if (register == BANK) {
+      bank = (value & 0xFFFF) % banks;
+      base = bank * BANK_SIZE;
+    }
+    else
+      words.put(base + register - 1, (short) value);
+  } // write()
+
+
+  public void tick(long time) {                     // Never schedules anything.
+  } // tick()
+
+
+  public void reset() {
+    bank = 0;
+    base = 0;
+  } // reset()
+
+
+  public int loadImage(String fileName, int firstWord) throws IOException {
+/******************************************************************************************
+*  Reads a data image from fileName into the words from firstWord on, stopping at the end *
+*  of the file or of the banked memory, whichever comes first.  Returns the number of     *
+*  words read.                                                                            *
+******************************************************************************************/
+    if ((firstWord < 0) || (firstWord >= getWords()))
+      throw new IllegalArgumentException("No word " + firstWord + " in banked memory.");
+    FileChannel in = new FileInputStream(fileName).getChannel();
+    try {
+      ByteBuffer target = bytes.duplicate();
+      target.position(firstWord * 2);
+      if (in.size() < target.remaining())
+        target.limit((int) (target.position() + in.size()));
+      while (target.hasRemaining() && (in.read(target) >= 0))
+        ;
+      return (target.position() / 2) - firstWord;
+    }
+    finally {
+      in.close();
+    }
+  } // loadImage()
+} // MarieBankedMemory
@@ -0,0 +1,736 @@
+// File:        MarieBatch.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MarieBatch {
+/******************************************************************************************
+*  MarieBatch runs MARIE executable (.mex) files without any user interface, e.g., to     *
+*  grade a whole class's programs at once.  Each program is run once for each input       *
+*  vector supplied, on its own MarieCore, and one line of results is written to           *
+*  standard output per run:  the program, its input, how it stopped, the exit status      *
+*  (the address field of the HALT instruction), the number of instructions retired, the   *
+*  clock cycles they would take on the MARIE datapath and the cycles per instruction      *
+*  (CPI), the numbers of fetches, memory reads, memory writes and ALU operations, the     *
+*  wall clock time taken and everything the program sent to OUTPUT.                       *
+*                                                                                         *
+*  Usage:  java MarieBatch1 [-json] [-ascii] [-trace] [-profile] [-max n] [-cores n]      *
+*                           [-costs kind=n,...] [-devices] [-storage file]                *
+*                           [-banks n] [-image file]                                      *
+*                           [-input v1,v2,...]... [-stdin] file...                        *
+*                                                                                         *
+*     file       A .mex file, a directory (all of the .mex files in it are run), or a     *
+*                pattern using * and ? in its last component, e.g., lab3/*.mex.           *
+*     -input     An input vector:  the values given to successive INPUT instructions.     *
+*                May be repeated to run every program once per vector.  If a program      *
+*                has a file of the same name ending in .in, each line of that file is     *
+*                used as an input vector instead.  Each run's values are queued for its   *
+*                core (see MarieInputSource), so INPUT never stops the run.               *
+*     -stdin     Reads one more input vector, of decimal values separated by white space  *
+*                or commas, from standard input.                                          *
+*     -max       Maximum number of instructions a run may execute (default 100000000,     *
+*                about two seconds of a runaway program).                                 *
+*     -cores     Runs each program on a multiprocessor of n cores sharing one memory,     *
+*                each core on a host thread of its own (see MarieMulticore).  -max then   *
+*                applies to each core.  The instructions are those of all the cores and   *
+*                the output is core 0's followed by core 1's and so on; the exit status   *
+*                and the cycle counts are core 0's.  To time a program's speedup, run it  *
+*                alone, once with each number of cores.  Multi-core runs are not traced   *
+*                or profiled.                                                             *
+*     -costs     Cycles taken by each kind of microoperation (transfer, read, write or    *
+*                alu), e.g., read=3,write=3 for slow memory.  The default is one cycle    *
+*                each.  See MarieCycleModel.                                              *
+*     -devices   Maps the standard devices (a timer, a console and a random number        *
+*                source) into the top 16 words of each run's memory (see MarieBus).  The  *
+*                console takes the run's input values, and what it sends is part of the   *
+*                run's output.  Runs with devices are not translated, so run slower.      *
+*     -storage   Maps block storage (see MarieBlockStorage) backed by the given file as   *
+*                well, and implies -devices.  Every run opens the file itself, so if the  *
+*                programs write to it they should be run one at a time.                   *
+*     -banks     Gives each run n banks of 1024 words of extra memory, up to 65536 banks  *
+*                (see MarieBankedMemory), seen through a window at 0800 to 0BFF with the  *
+*                bank-select register at 07FF.  The banks are held off the Java heap.     *
+*     -image     Loads a data image (two bytes per word, high byte first) into the banks  *
+*                of each run, from bank 0 on.  Without -banks, there are just enough      *
+*                banks to hold the image.                                                 *
+*     -json      Write results as a JSON array instead of CSV.                            *
+*     -ascii     Show output as characters instead of decimal values.                     *
+*     -trace     Record every instruction of each run in a trace file (see                *
+*                MarieTraceWriter) named after the program, e.g., prog.mtr, or prog-2.mtr *
+*                for the run with its second input vector.  The traces can be replayed    *
+*                in either simulator.  Runs are much slower while they are traced.        *
+*     -profile   Count where each run spends its time (see MarieProfile) and write a      *
+*                hot-spot report for it to a file named as for -trace, e.g., prog.prf.    *
+*                Profiling costs little enough to leave on when grading.                  *
+*                                                                                         *
+*  Runs are independent, so they are spread over one worker thread per processor, each    *
+*  taking the next run as soon as it finishes one.  The results are written in the order  *
+*  the runs were given.                                                                   *
+*  A summary line is written to standard error.                                           *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final long DEFAULT_MAX = 100000000L;
+  public static final String MEX_TYPE = ".mex";    // File extension of machine code file.
+  public static final String  IN_TYPE = ".in";     // File extension for input vectors.
+  public static final String PRF_TYPE = ".prf";    // File extension for profile reports.
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  boolean       json = false;                       // Output format.
+  boolean      ascii = false;                       // Show output as characters.
+  boolean      trace = false;                       // Record a trace of each run.
+  boolean    profile = false;                       // Write a profile of each run.
+  long maxInstructions = DEFAULT_MAX;
+  int        cores = 1;                             // Cores per machine, from -cores.
+  String       costs = "";                          // Microoperation costs from -costs.
+  boolean    devices = false;                       // Map the standard devices.
+  String     storage = null;                        // File for block storage, if any.
+  int          banks = 0;                           // Banks of extra memory, if any,
+  String       image = null;                        // and the data to load into them.
+  Vector<int[]>  inputs = new Vector<int[]>();      // Input vectors from -input.
+  Vector<String>  files = new Vector<String>();     // .mex files to run.
+
+
+  class ProgramLoad implements Runnable {
+/******************************************************************************************
+*  Reads one program and works out the input vectors it is to be run with.                *
+******************************************************************************************/
+    String      fileName;
+    MarieProgram program = null;
+    String         error = null;
+    Vector<int[]> vectors = inputs;
+
+    ProgramLoad(String fileName) {
+      this.fileName = fileName;
+    } // ProgramLoad()
+
+    public void run() {
+      try {
+        program = MarieProgram.load(fileName);
+        if (fileName.endsWith(MEX_TYPE)) {
+          String inFile = fileName.substring(0, fileName.length() - MEX_TYPE.length())
+                          + IN_TYPE;
+          if (new File(inFile).exists())
+            vectors = readInputFile(inFile);
+        }
+      }
+      catch (IOException e) {
+        error = e.getMessage();
+      }
+      catch (RuntimeException e) {                  // Not a program we can read.
+        error = e.toString();
+      } // catch
+    } // run()
+  } // ProgramLoad
+
+
+  class BatchRun implements Runnable {
+/******************************************************************************************
+*  One run of one program with one input vector, and its results.  Whatever goes wrong    *
+*  in a run (even running out of memory for its banks) is reported as that run's error,   *
+*  so the other runs still finish and are written.                                        *
+******************************************************************************************/
+    ProgramLoad      load;
+    int[]           input;
+    String         status = "error";
+    String        message = "";
+    int        exitStatus = 0;
+    long     instructions = 0;
+    MarieCycleModel cycles = new MarieCycleModel(costs);
+    long            nanos = 0;
+    long          started = 0;                      // System.nanoTime() at the start.
+    int[]          output = new int[0];
+    String      traceFile = null;                   // Where to record a trace, if any.
+    String    profileFile = null;                   // Where to write a profile, if any.
+
+    BatchRun(ProgramLoad load, int[] input) {
+      this.load = load;
+      this.input = input;
+    } // BatchRun()
+
+    public void run() {
+      started = System.nanoTime();
+      try {
+        if (cores > 1) {
+          runCores();
+          nanos = System.nanoTime() - started;
+        }
+        else
+          runCore();
+      }
+      catch (RuntimeException e) {
+        failed(e);
+      }
+      catch (Error e) {                             // E.g., OutOfMemoryError.
+        failed(e);
+      } // catch
+    } // run()
+
+    void failed(Throwable e) {
+      status = "error";
+      message = e.toString();
+      nanos = System.nanoTime() - started;
+    } // failed()
+
+    void runCore() {
+/******************************************************************************************
+*  Runs the program on a MarieCore of its own.  The devices and the trace file are        *
+*  closed however the run ends.                                                           *
+******************************************************************************************/
+      MarieCore core = new MarieCore();
+      core.setTranslating(true);
+      load.program.loadInto(core);
+      core.setCycleModel(cycles);
+      core.setInputSource(new MarieInputQueue(input));
+      MarieBus bus = null;
+      MarieTraceWriter tracer = null;
+      MarieProfile counts = null;
+      try {
+        if (devices || (banks > 0))
+          try {
+            bus = devices ? MarieBus.standard(core, storage) : new MarieBus(core);
+            if (banks > 0) {
+              MarieBankedMemory banked = new MarieBankedMemory(banks);
+              if (image != null)
+                banked.loadImage(image, 0);
+              bus.attach(banked, MarieBus.BANKED_BASE);
+            }
+            core.setBus(bus);
+          }
+          catch (IOException e) {
+            message = "Cannot attach devices: " + e.getMessage();
+            return;
+          } // catch
+        if (traceFile != null)
+          try {
+            tracer = new MarieTraceWriter(traceFile, true);
+            core.setTracer(tracer);
+          }
+          catch (IOException e) {
+            message = "Cannot record trace: " + e.getMessage();
+            return;
+          } // catch
+        if (profileFile != null) {
+          counts = new MarieProfile();
+          core.setProfile(counts);
+        }
+        core.run(maxInstructions);                 // INPUT takes values from the queue.
+        stoppedBy(core);
+      }
+      finally {
+        if (bus != null)
+          try {
+            core.setBus(null);
+            bus.close();
+          }
+          catch (IOException e) {
+            status = "error";
+            message = "Cannot close storage: " + e.getMessage();
+          } // catch
+        if (tracer != null)
+          try {
+            tracer.close();
+          }
+          catch (IOException e) {
+            status = "error";
+            message = "Trace is incomplete: " + e.getMessage();
+          } // catch
+        nanos = System.nanoTime() - started;
+      } // finally
+      if (counts != null)
+        try {
+          PrintWriter report = new PrintWriter(new FileWriter(profileFile));
+          report.print(counts.report(load.program.codeLines, MarieCore.MEMORY_SIZE));
+          report.close();
+        }
+        catch (IOException e) {
+          status = "error";
+          message = "Cannot write profile: " + e.getMessage();
+        } // catch
+      exitStatus = core.exitStatus();
+      instructions = core.instructionsRetired;
+      output = core.getOutput();
+    } // runCore()
+
+    void runCores() {
+/******************************************************************************************
+*  Runs the program on a MarieMulticore.  The run's status is that of the first core to   *
+*  have failed, if any did, else to be waiting for input, else to have hit the limit.     *
+******************************************************************************************/
+      MarieMulticore machine = new MarieMulticore(cores);
+      machine.setTranslating(true);
+      machine.load(load.program);
+      machine.getCore(0).setCycleModel(cycles);
+      machine.setInputSource(new MarieInputQueue(input));
+      instructions = machine.run(maxInstructions);
+      MarieCore worst = machine.getCore(0);
+      for (int i = 1; i < machine.getCoreCount(); i++)
+        if (badness(machine.getCore(i)) > badness(worst))
+          worst = machine.getCore(i);
+      stoppedBy(worst);
+      exitStatus = machine.getCore(0).exitStatus();
+      output = machine.getOutput();
+    } // runCores()
+
+    int badness(MarieCore core) {
+      if (core.fatalError)
+        return 3;
+      if (core.machineState == MarieCore.MARIE_BLOCKED_ON_INPUT)
+        return 2;
+      return (core.machineState == MarieCore.MARIE_RUNNING) ? 1 : 0;
+    } // badness()
+
+    void stoppedBy(MarieCore core) {
+      if (core.machineState == MarieCore.MARIE_BLOCKED_ON_INPUT) {
+        status = "input";
+        message = "Waiting for input.";
+      }
+      else if (core.machineState != MarieCore.MARIE_RUNNING) {
+        status = core.fatalError ? "abnormal" : "halted";
+        message = MarieCore.errorMsgs[core.errorCode];
+      }
+      else {
+        status = "limit";
+        message = "Instruction limit reached.";
+      }
+    } // stoppedBy()
+  } // BatchRun
+
+
+  static class JobQueue implements Runnable {
+/******************************************************************************************
+*  Hands out jobs[0], jobs[1] and so on to whichever worker asks next, so that a worker   *
+*  that finishes a short job at once goes on to another while the others are busy.  The   *
+*  first exception a job throws stops the workers and is kept in failure.                 *
+******************************************************************************************/
+    Runnable[] jobs;
+    AtomicInteger next = new AtomicInteger(0);
+    volatile Throwable failure = null;
+
+    JobQueue(Runnable[] jobs) {
+      this.jobs = jobs;
+    } // JobQueue()
+
+    public void run() {
+      try {
+        int i;
+        while ((failure == null) && ((i = next.getAndIncrement()) < jobs.length))
+          jobs[i].run();
+      }
+      catch (RuntimeException e) {
+        failure = e;
+      }
+      catch (Error e) {
+        failure = e;
+      } // catch
+    } // run()
+  } // JobQueue
+
+
+/* --                                                                                 -- */
+/* --  Argument and input file handling.                                              -- */
+/* --                                                                                 -- */
+  static int[] parseVector(String s) throws NumberFormatException {
+/******************************************************************************************
+*  Converts a list of decimal values separated by commas and/or blanks to an array.       *
+******************************************************************************************/
+    StringTokenizer st = new StringTokenizer(s, ", \t");
+    int[] vector = new int[st.countTokens()];
+    for (int i = 0; i < vector.length; i++)
+      vector[i] = Integer.parseInt(st.nextToken());
+    return vector;
+  } // parseVector()
+
+
+  static Vector<int[]> readInputFile(String fileName) throws IOException {
+/******************************************************************************************
+*  Reads an input file, one input vector per line.  Blank lines are ignored.              *
+******************************************************************************************/
+    Vector<int[]> vectors = new Vector<int[]>();
+    BufferedReader in = new BufferedReader(new FileReader(fileName));
+    try {
+      String line;
+      while ((line = in.readLine()) != null)
+        if (line.trim().length() > 0)
+          vectors.add(parseVector(line));
+    }
+    catch (NumberFormatException e) {
+      throw new IOException(fileName + ": invalid input value " + e.getMessage());
+    }
+    finally {
+      in.close();
+    }
+    return vectors;
+  } // readInputFile()
+
+
+  static int[] readStandardInput() {
+/******************************************************************************************
+*  Reads an input vector from standard input, to its end.                                 *
+******************************************************************************************/
+    MarieStreamInput in = new MarieStreamInput(new InputStreamReader(System.in), 10);
+    MarieInputQueue values = new MarieInputQueue();
+    while (in.hasInput())
+      values.add(in.nextInput());
+    if (in.getError() != null) {
+      System.err.println("Standard input: " + in.getError());
+      usage();
+    }
+    int[] vector = new int[values.size()];
+    for (int i = 0; i < vector.length; i++)
+      vector[i] = values.nextInput();
+    return vector;
+  } // readStandardInput()
+
+
+  static boolean matches(String pattern, String name) {
+/******************************************************************************************
+*  Returns true if name matches pattern, where * matches any string and ? any character.  *
+******************************************************************************************/
+    if (pattern.length() == 0)
+      return (name.length() == 0);
+    char c = pattern.charAt(0);
+    if (c == '*')
+      for (int i = 0; i <= name.length(); i++) {
+        if (matches(pattern.substring(1), name.substring(i)))
+          return true;
+      }
+    else if ((name.length() > 0) && ((c == '?') || (c == name.charAt(0))))
+      return matches(pattern.substring(1), name.substring(1));
+    return false;
+  } // matches()
+
+
+  void addFiles(String arg) {
+/******************************************************************************************
+*  Adds the .mex files named by a command line argument to the list of files to run.      *
+******************************************************************************************/
+    File f = new File(arg);
+    String pattern = null;
+    if ((!f.exists())
+         && ((f.getName().indexOf('*') >= 0) || (f.getName().indexOf('?') >= 0))) {
+      pattern = f.getName();
+      f = (f.getParentFile() == null) ? new File(".") : f.getParentFile();
+    }
+    if (f.isDirectory()) {
+      String[] names = f.list();
+      Arrays.sort(names);
+      for (int i = 0; i < names.length; i++)
+        if ((pattern == null) ? names[i].endsWith(MEX_TYPE)
+                              : matches(pattern, names[i]))
+          files.add(new File(f, names[i]).getPath());
+    }
+    else
+      files.add(arg);
+  } // addFiles()
+
+
+/* --                                                                                 -- */
+/* --  Result formatting.                                                             -- */
+/* --                                                                                 -- */
+  static String quote(String s) {                   // JSON string literal.
+    StringBuffer sb = new StringBuffer("\"");
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if ((c == '"') || (c == '\\'))
+        sb.append('\\').append(c);
+      else if (c < ' ')
+        sb.append("\\u").append(Integer.toHexString(0x10000 + c).substring(1));
+      else
+        sb.append(c);
+    }
+    return sb.append('"').toString();
+  } // quote()
+
+
+  static String csvField(String s) {
+    if ((s.indexOf(',') < 0) && (s.indexOf('"') < 0)
+         && (s.indexOf('\n') < 0) && (s.indexOf('\r') < 0))
+      return s;
+    StringBuffer sb = new StringBuffer("\"");
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) == '"')
+        sb.append('"');
+      sb.append(s.charAt(i));
+    }
+    return sb.append('"').toString();
+  } // csvField()
+
+
+  String values(int[] v, boolean characters, String separator) {
+    StringBuffer sb = new StringBuffer();
+    for (int i = 0; i < v.length; i++) {
+      if (characters)
+        sb.append((char) (v[i] & 0x7F));
+      else {
+        if (i > 0)
+          sb.append(separator);
+        sb.append(v[i]);
+      }
+    }
+    return sb.toString();
+  } // values()
+
+
+  String formatRun(BatchRun r) {
+    String ms = Double.toString(r.nanos / 1000 / 1000.0);
+    if (json)
+      return "{\"program\": " + quote(r.load.fileName)
+             + ", \"input\": [" + values(r.input, false, ", ") + "]"
+             + ", \"status\": " + quote(r.status)
+             + ", \"message\": " + quote(r.message)
+             + ", \"exit\": " + r.exitStatus
+             + ", \"instructions\": " + r.instructions
+             + ", \"cycles\": " + r.cycles.getCycles()
+             + ", \"cpi\": " + r.cycles.getCPIString()
+             + ", \"fetches\": " + r.cycles.getFetches()
+             + ", \"memory_reads\": " + r.cycles.getMemoryReads()
+             + ", \"memory_writes\": " + r.cycles.getMemoryWrites()
+             + ", \"alu_ops\": " + r.cycles.getAluOperations()
+             + ", \"wall_ms\": " + ms
+             + ", \"output\": " + (ascii ? quote(values(r.output, true, ""))
+                                        : "[" + values(r.output, false, ", ") + "]")
+             + "}";
+    return csvField(r.load.fileName) + ","
+           + csvField(values(r.input, false, " ")) + ","
+           + r.status + ","
+           + csvField(r.message) + ","
+           + r.exitStatus + ","
+           + r.instructions + ","
+           + r.cycles.getCycles() + ","
+           + r.cycles.getCPIString() + ","
+           + r.cycles.getFetches() + ","
+           + r.cycles.getMemoryReads() + ","
+           + r.cycles.getMemoryWrites() + ","
+           + r.cycles.getAluOperations() + ","
+           + ms + ","
+           + csvField(values(r.output, ascii, " "));
+  } // formatRun()
+
+
+  String formatError(ProgramLoad p) {
+    if (json)
+      return "{\"program\": " + quote(p.fileName) + ", \"status\": \"error\""
+             + ", \"message\": " + quote(p.error) + "}";
+    return csvField(p.fileName) + ",,error," + csvField(p.error) + ",,,,,,,,,,";
+  } // formatError()
+
+
+/* --                                                                                 -- */
+/* --  Mainline.                                                                      -- */
+/* --                                                                                 -- */
+  static String runFileName(String fileName, int n, String type) {
+/******************************************************************************************
+*  Names a file of the given type for run n (from 0) of a program:  prog.mtr for the      *
+*  first run, then prog-2.mtr, prog-3.mtr and so on.                                      *
+******************************************************************************************/
+    if (fileName.endsWith(MEX_TYPE))
+      fileName = fileName.substring(0, fileName.length() - MEX_TYPE.length());
+    return fileName + ((n == 0) ? "" : "-" + (n + 1)) + type;
+  } // runFileName()
+
+
+  static void usage() {
+    System.err.println("Usage: java MarieBatch1 [-json] [-ascii] [-trace] [-profile] "
+                       + "[-max n] [-cores n] [-costs kind=n,...]\n"
+                       + "                          [-devices] [-storage file] "
+                       + "[-banks n] [-image file]\n"
+                       + "                          [-input v1,v2,...]... [-stdin] "
+                       + "file|directory|pattern...");
+    System.exit(1);
+  } // usage()
+
+
+  static void runJobs(Runnable[] jobs, int workers) {
+/******************************************************************************************
+*  Runs the jobs on up to the given number of worker threads and waits for them all,      *
+*  then throws whatever the first failed job threw.                                       *
+******************************************************************************************/
+    JobQueue queue = new JobQueue(jobs);
+    Thread[] threads = new Thread[Math.min(workers, jobs.length)];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(queue, "MarieBatch worker " + i);
+      threads[i].setDaemon(true);
+      threads[i].start();
+    }
+    boolean interrupted = false;
+    for (int i = 0; i < threads.length; i++)
+      while (threads[i].isAlive())
+        try {
+          threads[i].join();
+        }
+        catch (InterruptedException e) {          // Let the jobs finish; they are
+          interrupted = true;                      // never long.
+        } // catch
+    if (interrupted)
+      Thread.currentThread().interrupt();
+    if (queue.failure instanceof RuntimeException)
+      throw (RuntimeException) queue.failure;
+    if (queue.failure instanceof Error)
+      throw (Error) queue.failure;
+  } // runJobs()
+
+
+  public void runAll() {
+/******************************************************************************************
+*  Loads all of the programs, then runs each one with each of its input vectors and       *
+*  writes the results.                                                                    *
+******************************************************************************************/
+    long started = System.nanoTime();
+    int workers = Runtime.getRuntime().availableProcessors();
+    ProgramLoad[] loads = new ProgramLoad[files.size()];
+    for (int i = 0; i < loads.length; i++)
+      loads[i] = new ProgramLoad(files.elementAt(i));
+    runJobs(loads, workers);
+
+    Vector<BatchRun> runVector = new Vector<BatchRun>();
+    for (int i = 0; i < loads.length; i++)
+      if (loads[i].error == null) {
+        int first = runVector.size();
+        if (loads[i].vectors.size() == 0)
+          runVector.add(new BatchRun(loads[i], new int[0]));
+        for (int j = 0; j < loads[i].vectors.size(); j++)
+          runVector.add(new BatchRun(loads[i], loads[i].vectors.elementAt(j)));
+        for (int j = first; j < runVector.size(); j++) {
+          BatchRun run = runVector.elementAt(j);
+          if (trace)
+            run.traceFile = runFileName(loads[i].fileName, j - first,
+                                        MarieTraceWriter.TRACE_TYPE);
+          if (profile)
+            run.profileFile = runFileName(loads[i].fileName, j - first, PRF_TYPE);
+        }
+      }
+    BatchRun[] runs = new BatchRun[runVector.size()];
+    runVector.copyInto(runs);
+    runJobs(runs, workers);
+
+    PrintStream out = System.out;
+    if (json)
+      out.println("[");
+    else
+      out.println("program,input,status,message,exit,instructions,cycles,cpi,fetches,"
+                  + "memory_reads,memory_writes,alu_ops,wall_ms,output");
+    long instructions = 0;
+    int lines = 0;
+    int r = 0;
+    for (int i = 0; i < loads.length; i++) {        // Results in the order given.
+      String line;
+      if (loads[i].error != null) {
+        line = formatError(loads[i]);
+        if (json)
+          out.print((lines++ > 0 ? ",\n" : "") + line);
+        else
+          out.println(line);
+        continue;
+      }
+      while ((r < runs.length) && (runs[r].load == loads[i])) {
+        line = formatRun(runs[r]);
+        if (json)
+          out.print((lines++ > 0 ? ",\n" : "") + line);
+        else
+          out.println(line);
+        instructions += runs[r].instructions;
+        r++;
+      }
+    } // for
+    if (json)
+      out.println(lines > 0 ? "\n]" : "]");
+    out.flush();
+    long elapsed = System.nanoTime() - started;
+    System.err.println(runs.length + " runs of " + loads.length + " programs on "
+                       + workers + " workers: " + instructions
+                       + " instructions in " + (elapsed / 1000000) + " ms ("
+                       + Math.round(instructions * 100000.0 / Math.max(1, elapsed)) / 100.0
+                       + " MIPS).");
+  } // runAll()
+
+
+  public static void main(String args[]) {
+    MarieBatch batch = new MarieBatch();
+    try {
+      for (int i = 0; i < args.length; i++) {
+        if (args[i].equals("-json"))
+          batch.json = true;
+        else if (args[i].equals("-ascii"))
+          batch.ascii = true;
+        else if (args[i].equals("-trace"))
+          batch.trace = true;
+        else if (args[i].equals("-profile"))
+          batch.profile = true;
+        else if (args[i].equals("-max") && (i + 1 < args.length))
+          batch.maxInstructions = Long.parseLong(args[++i]);
+        else if (args[i].equals("-cores") && (i + 1 < args.length))
+          batch.cores = Integer.parseInt(args[++i]);
+        else if (args[i].equals("-costs") && (i + 1 < args.length))
+          batch.costs = args[++i];
+        else if (args[i].equals("-devices"))
+          batch.devices = true;
+        else if (args[i].equals("-storage") && (i + 1 < args.length)) {
+          batch.devices = true;
+          batch.storage = args[++i];
+        }
+        else if (args[i].equals("-banks") && (i + 1 < args.length))
+          batch.banks = Integer.parseInt(args[++i]);
+        else if (args[i].equals("-image") && (i + 1 < args.length))
+          batch.image = args[++i];
+        else if (args[i].equals("-input") && (i + 1 < args.length))
+          batch.inputs.add(parseVector(args[++i]));
+        else if (args[i].equals("-stdin"))
+          batch.inputs.add(readStandardInput());
+        else if (args[i].startsWith("-"))
+          usage();
+        else
+          batch.addFiles(args[i]);
+      } // for
+    }
+    catch (NumberFormatException e) {
+      System.err.println("Invalid number: " + e.getMessage());
+      usage();
+    } // catch
+    if (batch.files.size() == 0)
+      usage();
+    if ((batch.cores < 1) || (batch.cores > MarieMulticore.MAX_CORES)) {
+      System.err.println("Invalid -cores: must be from 1 to " + MarieMulticore.MAX_CORES);
+      usage();
+    }
+    if ((batch.cores > 1) && (batch.trace || batch.profile)) {
+      System.err.println("-trace and -profile cannot be used with -cores.");
+      usage();
+    }
+    if (batch.image != null) {                      // Enough banks for the image.
+      long words = (new File(batch.image).length() + 1) / 2;
+      if (!new File(batch.image).canRead()) {
+        System.err.println("Cannot read image " + batch.image);
+        usage();
+      }
+      if (batch.banks == 0)
+        batch.banks = (int) Math.min(MarieBankedMemory.MAX_BANKS,
+                                     Math.max(1, (words + MarieBankedMemory.BANK_SIZE - 1)
+                                                 / MarieBankedMemory.BANK_SIZE));
+    }
+    if ((batch.banks < 0) || (batch.banks > MarieBankedMemory.MAX_BANKS)) {
+      System.err.println("Invalid -banks: must be from 1 to "
+                         + MarieBankedMemory.MAX_BANKS);
+      usage();
+    }
+    if ((batch.cores > 1) && (batch.devices || (batch.banks > 0))) {
+      System.err.println("-devices, -storage, -banks and -image cannot be used "
+                         + "with -cores.");
+      usage();
+    }
+    try {
+      new MarieCycleModel(batch.costs);
+    }
+    catch (IllegalArgumentException e) {           // Includes a NumberFormatException.
+      System.err.println("Invalid -costs: " + e.getMessage());
+      usage();
+    } // catch
+    batch.runAll();
+  } // main()
+} // MarieBatch
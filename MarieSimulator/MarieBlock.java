@@ -0,0 +1,14 @@
+// File:        MarieBlock.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public interface MarieBlock {
+/******************************************************************************************
+*  A MarieBlock is a straight-line run of MARIE instructions that MarieTranslator has     *
+*  compiled into a JVM class.  Running the block has exactly the same effect on the       *
+*  MarieCore as fetching and executing each of its instructions in turn.                  *
+******************************************************************************************/
+  public void run(MarieCore core);
+} // MarieBlock
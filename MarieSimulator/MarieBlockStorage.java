@@ -0,0 +1,160 @@
+// File:        MarieBlockStorage.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+
+public class MarieBlockStorage implements MarieDevice {
+/******************************************************************************************
+*  A MarieBlockStorage is a disk on a MarieBus, backed by a file on the host.  The disk   *
+*  is an array of blocks of BLOCK_SIZE words, which are moved between the disk and memory *
+*  a whole block at a time by DMA, so a program can read or write 256 words with four     *
+*  stores instead of 256 INPUT or OUTPUT instructions.  It has four registers:            *
+*                                                                                         *
+*       BLOCK   (0)   The block number (taken as unsigned) for the next command.          *
+*       ADDRESS (1)   The memory address of the first word to move; the block wraps       *
+*                     round the end of memory.                                            *
+*       COMMAND (2)   Storing READ (1) or WRITE (2) starts the transfer.  Anything else   *
+*                     sets STATUS to ERROR.                                               *
+*       STATUS  (3)   READY (0), BUSY (1) while a transfer is under way, or ERROR (-1) if *
+*                     the last command failed.  Loading it with Skipcond tests it easily. *
+*                                                                                         *
+*  A transfer takes SEEK_TIME cycles plus one cycle per word, and the words are moved all *
+*  at once at its end; commands stored while the disk is BUSY are ignored.  The program   *
+*  may carry on with other work meanwhile, but must not use the block's memory until      *
+*  STATUS is READY.  The end of each transfer, successful or not, raises the disk's       *
+*  interrupt line, if it was given one.                                                   *
+*                                                                                         *
+*  The file holds each word as two bytes, high byte first.  Blocks past the end of the    *
+*  file read as zeros, and writing one makes the file longer.                             *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int BLOCK   = 0;              // Register numbers.
+  public static final int ADDRESS = 1;
+  public static final int COMMAND = 2;
+  public static final int STATUS  = 3;
+  public static final int READ  = 1;                // Commands.
+  public static final int WRITE = 2;
+  public static final int READY = 0;                // Values of STATUS.
+  public static final int BUSY  = 1;
+  public static final int ERROR = -1;
+  public static final int BLOCK_SIZE = 256;         // In words.
+  public static final int SEEK_TIME  = 100;         // In cycles.
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  MarieBus         bus;
+  RandomAccessFile file;
+  int              line;                            // Interrupt line, or -1 for none.
+  int              block = 0;
+  int              address = 0;
+  int              command = 0;
+  int              status = READY;
+  long             due = MarieBus.NEVER;            // When the transfer finishes.
+  byte[]           bytes = new byte[2 * BLOCK_SIZE];
+
+
+  public MarieBlockStorage(String fileName, int line) throws IOException {
+    file = new RandomAccessFile(fileName, "rw");
+    this.line = line;
+  } // MarieBlockStorage()
+
+
+  public int getSize() {
+    return 4;
+  } // getSize()
+
+
+  public void attach(MarieBus bus) {
+    this.bus = bus;
+  } // attach()
+
+
+  public int read(int register) {
+    switch (register) {
+      case BLOCK:   return block;
+      case ADDRESS: return address;
+      case COMMAND: return command;
+      default:      return status;
+    } // switch
+  } // read()
+
+
+  public void write(int register, int value) {
+    if (status == BUSY)
+      return;
+    switch (register) {
+      case BLOCK:   block = value & 0xFFFF;
+                    break;
+      case ADDRESS: address = value & MarieCore.MAX_MARIE_ADDR;
+                    break;
+      case COMMAND: command = value;
+                    if ((command != READ) && (command != WRITE)) {
+                      status = ERROR;
+                      break;
+                    }
+                    status = BUSY;
+                    due = bus.now() + SEEK_TIME + BLOCK_SIZE;
+                    bus.schedule(this, due);
+                    break;
+      default:      status = value;
+    } // switch
+  } // write()
+
+
+  public void tick(long time) {
+/******************************************************************************************
+*  Finishes the transfer:  moves the whole block between the file and memory.             *
+******************************************************************************************/
+    if ((time != due) || (status != BUSY))
+      return;
+    try {
+      long offset = (long) block * bytes.length;
+      if (command == READ) {
+        java.util.Arrays.fill(bytes, (byte) 0);
+        file.seek(offset);
+        int n = 0;
+        while (n < bytes.length) {                  // Short at the end of the file.
+          int got = file.read(bytes, n, bytes.length - n);
+          if (got < 0)
+            break;
+          n += got;
+        }
+        for (int i = 0; i < BLOCK_SIZE; i++)
+          bus.writeMemory(address + i, (bytes[2 * i] << 8) | (bytes[2 * i + 1] & 0xFF));
+      }
+      else {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+          int word = bus.readMemory(address + i);
+          bytes[2 * i] = (byte) (word >> 8);
+          bytes[2 * i + 1] = (byte) word;
+        }
+        file.seek(offset);
+        file.write(bytes);
+      }
+      status = READY;
+    }
+    catch (IOException e) {
+      status = ERROR;
+    } // catch
+    due = MarieBus.NEVER;
+    bus.raise(line);
+  } // tick()
+
+
+  public void reset() {
+    block = 0;
+    address = 0;
+    command = 0;
+    status = READY;
+    due = MarieBus.NEVER;
+  } // reset()
+
+
+  public void close() throws IOException {
+    file.close();
+  } // close()
+} // MarieBlockStorage
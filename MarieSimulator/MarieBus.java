@@ -0,0 +1,273 @@
+// File:        MarieBus.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+import java.util.*;
+
+public class MarieBus {
+/******************************************************************************************
+*  A MarieBus maps MarieDevices into the address space of a MarieCore (see                *
+*  MarieCore.setBus()).  Each device covers a range of addresses, and the core passes its *
+*  data loads and stores of those addresses to the device instead of memory.              *
+*  Instructions are always fetched from memory, and STORE and JNS do not read the word    *
+*  they store into first, so storing into a device register has no side effects other     *
+*  than the store.                                                                        *
+*                                                                                         *
+*  The bus also schedules the devices.  Time on the bus is counted in cycles, one for     *
+*  each instruction the core retires, so a device keeps the same pace with the program    *
+*  whether it is stepped, run at any speed or run in a batch, and a program sees the same *
+*  timing every time it is run.  A device asks for its tick() to be called at a later     *
+*  cycle with schedule(); the events wait in a priority queue, and after each instruction *
+*  the core need only compare its instruction count with the cycle of the first event to  *
+*  know whether any device has work to do.  Device registers are therefore never polled   *
+*  by the host, only by the program.                                                      *
+*                                                                                         *
+*  The standard layout used by the simulator and MarieBatch (see standard()) puts the     *
+*  devices in the top 16 words of memory, with the interrupt lines they raise (see        *
+*  MarieCore.raiseInterrupt()):                                                           *
+*                                                                                         *
+*       0FF0  Timer    PERIOD, COUNT                    line 0  (see MarieTimer)          *
+*       0FF4  Console  DATA, STATUS                     line 1  (see MarieConsole)        *
+*       0FF8  Random   DATA, SEED                       none    (see MarieRandom)         *
+*       0FFC  Storage  BLOCK, ADDRESS, COMMAND, STATUS  line 2  (see MarieBlockStorage)   *
+*                                                                                         *
+*  Banked memory (see MarieBankedMemory) is not one of the standard devices, since it     *
+*  takes 1025 words; MarieBatch maps it at BANKED_BASE when asked to, with its window at  *
+*  0800 to 0BFF.                                                                          *
+*                                                                                         *
+*  Implementation Note:  The translator is not used while a bus is attached, since its    *
+*  compiled code reads memory directly.  Device registers are not recorded in traces or   *
+*  the undo history, and running backwards does not undo I/O.                             *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int   TIMER_BASE = 0xFF0;     // Addresses of the standard devices.
+  public static final int CONSOLE_BASE = 0xFF4;
+  public static final int  RANDOM_BASE = 0xFF8;
+  public static final int STORAGE_BASE = 0xFFC;
+  public static final int  BANKED_BASE = 0x7FF;     // Bank select, then the window.
+  public static final int   TIMER_LINE = 0;       // Their interrupt lines.
+  public static final int CONSOLE_LINE = 1;
+  public static final int STORAGE_LINE = 2;
+  public static final long     NEVER = Long.MAX_VALUE;
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  MarieCore core;
+  MarieDevice[] deviceAt = new MarieDevice[MarieCore.MEMORY_SIZE];  // Device and its
+  int[]       registerAt = new int[MarieCore.MEMORY_SIZE];          // register, by address
+  Vector<MarieDevice> devices = new Vector<MarieDevice>();   // In the order attached.
+  PriorityQueue<Event> events = new PriorityQueue<Event>();  // Ticks, soonest first.
+  long         nextEvent = NEVER;                   // Cycle of the soonest, for the core.
+  long          sequence = 0;                       // Keeps ticks due together in order.
+
+
+  static class Event implements Comparable<Event> {
+    long        time;                               // Cycle at which it is due.
+    long        order;
+    MarieDevice device;
+
+    Event(long time, long order, MarieDevice device) {
+      this.time = time;
+      this.order = order;
+      this.device = device;
+    } // Event()
+
+    public int compareTo(Event e) {
+      if (time != e.time)
+        return (time < e.time) ? -1 : 1;
+      return (order < e.order) ? -1 : ((order == e.order) ? 0 : 1);
+    } // compareTo()
+  } // Event
+
+
+  public MarieBus(MarieCore core) {
+    this.core = core;
+  } // MarieBus()
+
+
+  public static MarieBus standard(MarieCore core, String storageFile)
+                                  throws IOException {
+/******************************************************************************************
+*  Returns a bus with the standard devices attached at the standard addresses.  The       *
+*  console shares the core's input source with INPUT and sends its output to the core's   *
+*  output, as OUTPUT does.  Block storage is attached only if storageFile is not null;    *
+*  the file is created if it does not exist.  The bus is not yet attached to the core.    *
+******************************************************************************************/
+    MarieBus bus = new MarieBus(core);
+    bus.attach(new MarieTimer(TIMER_LINE), TIMER_BASE);
+    bus.attach(new MarieConsole(null, MarieConsole.DEFAULT_CHARACTER_TIME, CONSOLE_LINE),
+               CONSOLE_BASE);
+    bus.attach(new MarieRandom(MarieRandom.DEFAULT_SEED), RANDOM_BASE);
+    if (storageFile != null)
+      bus.attach(new MarieBlockStorage(storageFile, STORAGE_LINE), STORAGE_BASE);
+    return bus;
+  } // standard()
+
+
+  public void attach(MarieDevice device, int base) {
+/******************************************************************************************
+*  Maps device into the addresses from base up.  Throws an IllegalArgumentException if    *
+*  they run past the end of memory or another device is already there.                    *
+******************************************************************************************/
+    int size = device.getSize();
+    if ((base < 0) || (size < 1) || (base + size > MarieCore.MEMORY_SIZE))
+      throw new IllegalArgumentException("Device does not fit at "
+                                         + Integer.toHexString(base).toUpperCase());
+    for (int i = 0; i < size; i++)
+      if (deviceAt[base + i] != null)
+        throw new IllegalArgumentException("Address "
+                                   + Integer.toHexString(base + i).toUpperCase()
+                                   + " is already mapped to a device.");
+    for (int i = 0; i < size; i++) {
+      deviceAt[base + i] = device;
+      registerAt[base + i] = i;
+    }
+    devices.add(device);
+    device.attach(this);
+  } // attach()
+
+
+  public boolean isMapped(int address) {
+    return deviceAt[address & MarieCore.MAX_MARIE_ADDR] != null;
+  } // isMapped()
+
+
+  public MarieDevice getDevice(int address) {
+    return deviceAt[address & MarieCore.MAX_MARIE_ADDR];
+  } // getDevice()
+
+
+  public MarieCore getCore() {
+    return core;
+  } // getCore()
+
+
+  int read(int address) {                           // The core checks isMapped() first.
+    return (short) deviceAt[address].read(registerAt[address]);
+  } // read()
+
+
+  void write(int address, int value) {
+    deviceAt[address].write(registerAt[address], (short) value);
+  } // write()
+
+
+/* --                                                                                 -- */
+/* --  Scheduling.                                                                    -- */
+/* --                                                                                 -- */
+  public long now() {
+/******************************************************************************************
+*  Returns the current cycle:  the number of instructions the core has retired since it   *
+*  was last restarted.                                                                    *
+******************************************************************************************/
+    return core.instructionsRetired;
+  } // now()
+
+
+  public void schedule(MarieDevice device, long time) {
+/******************************************************************************************
+*  Asks for device.tick(time) to be called once the core has retired time instructions,   *
+*  i.e., at the end of the instruction that reaches that cycle, or at once if it has      *
+*  already passed.  A device that changes its mind cannot take an event back, so it must  *
+*  ignore ticks it no longer wants, e.g., by comparing time with the cycle it now         *
+*  expects.                                                                               *
+******************************************************************************************/
+    events.add(new Event(time, sequence++, device));
+    nextEvent = events.peek().time;
+  } // schedule()
+
+
+  void runEvents() {
+/******************************************************************************************
+*  Ticks every device whose time has come, in the order the ticks fell due.  The core     *
+*  calls this after an instruction when now() has reached nextEvent.                      *
+******************************************************************************************/
+    long now = now();
+    while ((!events.isEmpty()) && (events.peek().time <= now)) {
+      Event e = events.poll();
+      e.device.tick(e.time);
+    }
+    nextEvent = events.isEmpty() ? NEVER : events.peek().time;
+  } // runEvents()
+
+
+  public void reset() {
+/******************************************************************************************
+*  Forgets every scheduled tick and resets every device, as when the machine is reset or  *
+*  the program restarted (which starts the cycle count again from 0).                     *
+******************************************************************************************/
+    events.clear();
+    nextEvent = NEVER;
+    for (int i = 0; i < devices.size(); i++)
+      devices.elementAt(i).reset();
+  } // reset()
+
+
+  public void close() throws IOException {
+/******************************************************************************************
+*  Closes any devices backed by files.  The bus should be detached from its core first.   *
+******************************************************************************************/
+    for (int i = 0; i < devices.size(); i++)
+      if (devices.elementAt(i) instanceof MarieBlockStorage)
+        ((MarieBlockStorage) devices.elementAt(i)).close();
+  } // close()
+
+
+/* --                                                                                 -- */
+/* --  Access to the machine for devices.                                             -- */
+/* --                                                                                 -- */
+  public int readMemory(int address) {
+/******************************************************************************************
+*  Reads a word of memory directly, for a device doing DMA.  A word mapped to a device is *
+*  read from the device, so that, e.g., a disk can write out a bank of banked memory      *
+*  through its window.                                                                    *
+******************************************************************************************/
+    address = address & MarieCore.MAX_MARIE_ADDR;
+    if (deviceAt[address] != null)
+      return read(address);
+    return (short) core.memory[address];
+  } // readMemory()
+
+
+  public void writeMemory(int address, int value) {
+/******************************************************************************************
+*  Writes a word of memory directly, for a device doing DMA.  The word is loaded as a     *
+*  program loader would, then the core's listener, if any, is told, so that the simulator *
+*  shows the change.  A word mapped to a device is written to the device instead.         *
+******************************************************************************************/
+    address = address & MarieCore.MAX_MARIE_ADDR;
+    if (deviceAt[address] != null) {
+      write(address, value);
+      return;
+    }
+    core.loadWord(address, value);
+    if (core.listener != null)
+      core.listener.memoryChanged(address, core.memory[address]);
+  } // writeMemory()
+
+
+  public void raise(int line) {
+/******************************************************************************************
+*  Raises interrupt line on the core, for a device.  A negative line is ignored, so that  *
+*  a device can be plugged in without an interrupt line.                                  *
+******************************************************************************************/
+    if (line >= 0)
+      core.raiseInterrupt(line);
+  } // raise()
+
+
+  public void putOutput(int value) {
+/******************************************************************************************
+*  Sends value to the core's output, for the console.  It is shown in the simulator's     *
+*  output pane just as a value sent by OUTPUT is.                                         *
+******************************************************************************************/
+    core.output = (short) value;
+    core.appendOutput(core.output);
+    if (core.listener != null)
+      core.listener.outputProduced(core.output);
+  } // putOutput()
+} // MarieBus
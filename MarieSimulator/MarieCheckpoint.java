@@ -0,0 +1,242 @@
+// File:        MarieCheckpoint.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+import java.nio.*;
+
+public class MarieCheckpoint {
+/******************************************************************************************
+*  A checkpoint is a snapshot of everything a MarieCore needs to carry on from where it   *
+*  was:  the registers, the machine state, the interrupt state, all of memory, the        *
+*  output so far, the breakpoint and watchpoint addresses, the words TAS has set and any  *
+*  banked memory.  It is written as a compact binary image (about 8K plus two bytes per   *
+*  output value and per word of banked memory), so a machine can be saved part-way        *
+*  through a long run and restored as often as needed, into the same core or any number   *
+*  of other cores, without running the start of the program again.  Restoring a core of   *
+*  a MarieMulticore restores the lock words (and memory) that all of its cores share.     *
+*                                                                                         *
+*  The image is big-endian and laid out as follows:                                       *
+*                                                                                         *
+*      int      MAGIC, short VERSION                                                      *
+*      short    AC, IR, MAR, MBR, PC, INPUT, OUTPUT                                       *
+*      int      machine state, error code, instruction code                               *
+*      byte     fatal error, input ready, interrupts enabled (0 or 1)                     *
+*      short    pending interrupts (bit n for line n)                                     *
+*      long     instructions retired                                                      *
+*      short    memory[0] ... memory[4095]                                                *
+*      int      number of outputs, then that many shorts                                  *
+*      short    number of breakpoints, then their addresses                               *
+*      short    number of watchpoints, then their addresses                               *
+*      short    number of lock words (set by TAS), then their addresses                   *
+*      int      number of banks of banked memory (0 if none), short bank selected         *
+*      short    every word of every bank, from bank 0 on                                  *
+*                                                                                         *
+*  Breakpoint and watchpoint conditions are not saved; restored points are                *
+*  unconditional.  Restoring empties the core's undo history, if it has one.  Banked      *
+*  memory (see MarieBankedMemory) is saved if the core's bus has it at BANKED_BASE, and   *
+*  can only be restored into a core with the same number of banks there.  The state of    *
+*  other devices is not saved.                                                            *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int   MAGIC   = 0x4D434B50;     // "MCKP"
+  public static final short VERSION = 4;
+  static final int FIXED_SIZE = 4 + 2 + 7 * 2 + 3 * 4 + 3 + 2 + 8
+                                + MarieCore.MEMORY_SIZE * 2
+                                + 4 + 2 + 2 + 2 + 4 + 2;
+
+
+  public static byte[] save(MarieCore core) {
+/******************************************************************************************
+*  Returns a checkpoint image of core.                                                    *
+******************************************************************************************/
+    int breaks = core.breakpoints.cardinality();
+    int watches = core.watchpoints.cardinality();
+    int locks = core.lockWords.cardinality();
+    MarieBankedMemory banked = bankedMemory(core);
+    ByteBuffer buf = ByteBuffer.allocate(FIXED_SIZE + 2 * core.outputCount
+                                         + 2 * (breaks + watches + locks)
+                                         + ((banked == null) ? 0 : 2 * banked.getWords()));
+    buf.putInt(MAGIC);
+    buf.putShort(VERSION);
+    buf.putShort(core.ac).putShort(core.ir).putShort(core.mar).putShort(core.mbr);
+    buf.putShort(core.pc).putShort(core.input).putShort(core.output);
+    buf.putInt(core.machineState).putInt(core.errorCode).putInt(core.instructionCode);
+    buf.put((byte) (core.fatalError ? 1 : 0)).put((byte) (core.inputReady ? 1 : 0));
+    buf.put((byte) (core.interruptsEnabled ? 1 : 0));
+    buf.putShort((short) core.pendingInterrupts);
+    buf.putLong(core.instructionsRetired);
+    for (int i = 0; i < MarieCore.MEMORY_SIZE; i++)
+      buf.putShort((short) core.memory[i]);
+    buf.putInt(core.outputCount);
+    for (int i = 0; i < core.outputCount; i++)
+      buf.putShort((short) core.outputBuffer[i]);
+    buf.putShort((short) breaks);
+    for (int a = core.breakpoints.nextSetBit(0); a >= 0;
+             a = core.breakpoints.nextSetBit(a + 1))
+      buf.putShort((short) a);
+    buf.putShort((short) watches);
+    for (int a = core.watchpoints.nextSetBit(0); a >= 0;
+             a = core.watchpoints.nextSetBit(a + 1))
+      buf.putShort((short) a);
+    buf.putShort((short) locks);
+    for (int a = core.lockWords.nextSetBit(0); a >= 0;
+             a = core.lockWords.nextSetBit(a + 1))
+      buf.putShort((short) a);
+    buf.putInt((banked == null) ? 0 : banked.getBanks());
+    buf.putShort((short) ((banked == null) ? 0 : banked.bank));
+    if (banked != null) {                          // One bulk copy from off the heap.
+      ByteBuffer words = banked.bytes.duplicate();
+      words.clear();
+      buf.put(words);
+    }
+    return buf.array();
+  } // save()
+
+
+  public static void restore(MarieCore core, byte[] image) throws IOException {
+/******************************************************************************************
+*  Puts core back in the state recorded in image.  Throws an IOException, leaving core    *
+*  unchanged, if image is not a checkpoint.                                               *
+******************************************************************************************/
+    ByteBuffer buf = ByteBuffer.wrap(image);
+    try {
+      if ((buf.getInt() != MAGIC) || (buf.getShort() != VERSION))
+        throw new IOException("Not a MARIE checkpoint.");
+      short[] regs = new short[7];
+      for (int i = 0; i < regs.length; i++)
+        regs[i] = buf.getShort();
+      int machineState = buf.getInt();
+      int errorCode = buf.getInt();
+      int instructionCode = buf.getInt();
+      boolean fatalError = (buf.get() != 0);
+      boolean inputReady = (buf.get() != 0);
+      boolean interruptsEnabled = (buf.get() != 0);
+      int pendingInterrupts = buf.getShort() & 0xFFFF;
+      long instructionsRetired = buf.getLong();
+      int memoryAt = buf.position();
+      buf.position(memoryAt + 2 * MarieCore.MEMORY_SIZE);
+      int outputs = buf.getInt();
+      if ((outputs < 0) || (outputs > buf.remaining() / 2))
+        throw new IOException("Checkpoint is damaged.");
+      int[] output = new int[Math.max(outputs, 256)];
+      for (int i = 0; i < outputs; i++)
+        output[i] = buf.getShort();
+      short[] breaks = new short[buf.getShort()];
+      for (int i = 0; i < breaks.length; i++)
+        breaks[i] = buf.getShort();
+      short[] watches = new short[buf.getShort()];
+      for (int i = 0; i < watches.length; i++)
+        watches[i] = buf.getShort();
+      short[] locks = new short[buf.getShort()];
+      for (int i = 0; i < locks.length; i++)
+        locks[i] = buf.getShort();
+      int banks = buf.getInt();
+      int bank = buf.getShort() & 0xFFFF;
+      MarieBankedMemory banked = bankedMemory(core);
+      if (banks != ((banked == null) ? 0 : banked.getBanks()))
+        throw new IOException("Checkpoint has " + banks + " banks of memory; the "
+                              + "machine has " + ((banked == null) ? 0 : banked.getBanks())
+                              + ".");
+      ByteBuffer bankWords = buf.slice();
+      bankWords.limit(banks * MarieBankedMemory.BANK_SIZE * 2);   // Underflows if short.
+                                                   // The image is good; change the core.
+      if (core.cycles != null)
+        core.cycles.settle();
+      buf.position(memoryAt);
+      for (int i = 0; i < MarieCore.MEMORY_SIZE; i++)
+        core.memory[i] = buf.getShort();
+      java.util.Arrays.fill(core.decodeCache, MarieCore.UNDECODED);
+      if (core.translator != null)
+        core.translator.clear();
+      if (core.history != null)
+        core.history.clear();
+      core.ac = regs[0];
+      core.ir = regs[1];
+      core.mar = regs[2];
+      core.mbr = regs[3];
+      core.pc = regs[4];
+      core.input = regs[5];
+      core.output = regs[6];
+      core.machineState = machineState;
+      core.errorCode = errorCode;
+      core.instructionCode = instructionCode;
+      core.fatalError = fatalError;
+      core.inputReady = inputReady;
+      core.interruptsEnabled = interruptsEnabled;
+      core.pendingInterrupts = pendingInterrupts;
+      core.instructionsRetired = instructionsRetired;
+      core.outputBuffer = output;
+      core.outputCount = outputs;
+      core.clearBreakpoints();
+      for (int i = 0; i < breaks.length; i++)
+        core.setBreakpoint(breaks[i], null);
+      core.clearWatchpoints();
+      for (int i = 0; i < watches.length; i++)
+        core.setWatchpoint(watches[i], null);
+      core.lockWords.clear();
+      for (int i = 0; i < locks.length; i++)
+        core.lockWords.set(locks[i] & MarieCore.MAX_MARIE_ADDR);
+      if (banked != null) {
+        ByteBuffer words = banked.bytes.duplicate();
+        words.clear();
+        words.put(bankWords);
+        banked.write(MarieBankedMemory.BANK, bank);
+      }
+    }
+    catch (BufferUnderflowException e) {
+      throw new IOException("Checkpoint is damaged.");
+    } // catch
+    catch (IllegalArgumentException e) {         // Includes a negative count.
+      throw new IOException("Checkpoint is damaged.");
+    } // catch
+    catch (NegativeArraySizeException e) {
+      throw new IOException("Checkpoint is damaged.");
+    } // catch
+  } // restore()
+
+
+  static MarieBankedMemory bankedMemory(MarieCore core) {
+/******************************************************************************************
+*  Returns the banked memory on core's bus at BANKED_BASE, or null if it has none.        *
+******************************************************************************************/
+    if (core.bus == null)
+      return null;
+    MarieDevice device = core.bus.getDevice(MarieBus.BANKED_BASE);
+    return (device instanceof MarieBankedMemory) ? (MarieBankedMemory) device : null;
+  } // bankedMemory()
+
+
+  public static void write(MarieCore core, String fileName) throws IOException {
+/******************************************************************************************
+*  Saves a checkpoint of core in the named file.                                          *
+******************************************************************************************/
+    FileOutputStream out = new FileOutputStream(fileName);
+    try {
+      out.write(save(core));
+    }
+    finally {
+      out.close();
+    } // finally
+  } // write()
+
+
+  public static void read(MarieCore core, String fileName) throws IOException {
+/******************************************************************************************
+*  Restores core from the checkpoint in the named file.                                   *
+******************************************************************************************/
+    File file = new File(fileName);
+    byte[] image = new byte[(int) file.length()];
+    DataInputStream in = new DataInputStream(new FileInputStream(file));
+    try {
+      in.readFully(image);
+    }
+    finally {
+      in.close();
+    } // finally
+    restore(core, image);
+  } // read()
+} // MarieCheckpoint
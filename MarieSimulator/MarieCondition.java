@@ -0,0 +1,265 @@
+// File:        MarieCondition.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.util.*;
+
+public abstract class MarieCondition {
+/******************************************************************************************
+*  A MarieCondition is the condition attached to a breakpoint or watchpoint, e.g.,        *
+*                                                                                         *
+*          AC > 100            M[Ctr] == 0            HITS >= 10 && AC != 0               *
+*                                                                                         *
+*  The text is parsed once, by parse(), into a tree of MarieCondition objects, so         *
+*  testing a condition while the program runs is only a few field reads and compares.     *
+*                                                                                         *
+*  A comparison has a value on each side of one of  ==  !=  <  <=  >  >= .  A value is    *
+*  a register (AC, IR, MAR, MBR, PC, IN or OUT), a memory word M[address], HITS (the      *
+*  number of times the breakpoint or watchpoint has been reached, counting this time),    *
+*  or a number.  Numbers are decimal unless they start with 0x; addresses are hex, as     *
+*  they are everywhere else in the simulator, or may be program labels.  Comparisons      *
+*  can be joined with && (and) and || (or); && binds tighter.  Values compare as the      *
+*  signed 16-bit words the machine holds.                                                 *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  static final String[] registerNames = {"AC", "IR", "MAR", "MBR", "PC", "IN", "OUT"};
+  static final String[] comparisons   = {"==", "!=", "<=", ">=", "<", ">"};
+
+  public String text;                          // Condition as the user typed it.
+
+
+  public abstract boolean test(MarieCore core, int hits);
+
+
+  public String toString() {
+    return text;
+  } // toString()
+
+
+/* --                                                                                 -- */
+/* --  Condition tree nodes.                                                          -- */
+/* --                                                                                 -- */
+  static abstract class Value {
+    abstract int get(MarieCore core, int hits);
+  } // Value
+
+
+  static class Constant extends Value {
+    int value;
+    Constant(int value) { this.value = value; }
+    int get(MarieCore core, int hits) { return value; }
+  } // Constant
+
+
+  static class Register extends Value {
+    int which;                                 // Index into registerNames.
+    Register(int which) { this.which = which; }
+    int get(MarieCore core, int hits) {
+      switch (which) {
+        case 0:  return core.ac;
+        case 1:  return core.ir;
+        case 2:  return core.mar;
+        case 3:  return core.mbr;
+        case 4:  return core.pc;
+        case 5:  return core.input;
+        default: return core.output;
+      } // switch
+    }
+  } // Register
+
+
+  static class MemoryWord extends Value {
+    int address;
+    MemoryWord(int address) { this.address = address; }
+    int get(MarieCore core, int hits) { return (short) core.memory[address]; }
+  } // MemoryWord
+
+
+  static class Hits extends Value {
+    int get(MarieCore core, int hits) { return hits; }
+  } // Hits
+
+
+  static class Comparison extends MarieCondition {
+    Value left, right;
+    int   op;                                  // Index into comparisons.
+    Comparison(Value left, int op, Value right) {
+      this.left = left;
+      this.op = op;
+      this.right = right;
+    }
+    public boolean test(MarieCore core, int hits) {
+      int a = left.get(core, hits);
+      int b = right.get(core, hits);
+      switch (op) {
+        case 0:  return a == b;
+        case 1:  return a != b;
+        case 2:  return a <= b;
+        case 3:  return a >= b;
+        case 4:  return a < b;
+        default: return a > b;
+      } // switch
+    }
+  } // Comparison
+
+
+  static class And extends MarieCondition {
+    MarieCondition left, right;
+    And(MarieCondition left, MarieCondition right) {
+      this.left = left;
+      this.right = right;
+    }
+    public boolean test(MarieCore core, int hits) {
+      return left.test(core, hits) && right.test(core, hits);
+    }
+  } // And
+
+
+  static class Or extends MarieCondition {
+    MarieCondition left, right;
+    Or(MarieCondition left, MarieCondition right) {
+      this.left = left;
+      this.right = right;
+    }
+    public boolean test(MarieCore core, int hits) {
+      return left.test(core, hits) || right.test(core, hits);
+    }
+  } // Or
+
+
+/* --                                                                                 -- */
+/* --  Parser.                                                                        -- */
+/* --                                                                                 -- */
+  public static MarieCondition parse(String text, Hashtable<?, ?> symbols) {
+/******************************************************************************************
+*  Compiles text into a condition.  symbols maps program labels to their addresses        *
+*  (Integers) and may be null.  Throws an IllegalArgumentException describing the         *
+*  first problem found if the text is not a valid condition.                              *
+******************************************************************************************/
+    Parser p = new Parser(text, symbols);
+    MarieCondition condition = p.orExpression();
+    p.skipBlanks();
+    if (p.pos < p.text.length())
+      throw new IllegalArgumentException("Unexpected \""+p.text.substring(p.pos)
+                                         +"\" in condition.");
+    condition.text = text.trim();
+    return condition;
+  } // parse()
+
+
+  public static int parseAddress(String token, Hashtable<?, ?> symbols) {
+/******************************************************************************************
+*  Returns the address named by token, which is either a program label or a hex number.   *
+******************************************************************************************/
+    token = token.trim();
+    if ((symbols != null) && symbols.containsKey(token))
+      return ((Integer) symbols.get(token)).intValue();
+    try {
+      int address = Integer.parseInt(token, 16);
+      if ((address >= 0) && (address <= MarieCore.MAX_MARIE_ADDR))
+        return address;
+    }
+    catch (NumberFormatException e) {
+    } // catch
+    throw new IllegalArgumentException("\""+token+"\" is not a label or memory address.");
+  } // parseAddress()
+
+
+  static class Parser {
+    String    text;
+    Hashtable<?, ?> symbols;
+    int       pos = 0;
+
+    Parser(String text, Hashtable<?, ?> symbols) {
+      this.text = text;
+      this.symbols = symbols;
+    }
+
+    void skipBlanks() {
+      while ((pos < text.length()) && Character.isWhitespace(text.charAt(pos)))
+        pos++;
+    }
+
+    boolean accept(String s) {                 // Consumes s (any case) if it is next.
+      skipBlanks();
+      if (text.regionMatches(true, pos, s, 0, s.length())) {
+        pos += s.length();
+        return true;
+      }
+      return false;
+    }
+
+    boolean acceptWord(String s) {             // As accept(), but s must be a whole word.
+      skipBlanks();
+      int end = pos + s.length();
+      if (text.regionMatches(true, pos, s, 0, s.length())
+           && ((end >= text.length()) || !Character.isLetterOrDigit(text.charAt(end)))) {
+        pos = end;
+        return true;
+      }
+      return false;
+    }
+
+    MarieCondition orExpression() {
+      MarieCondition c = andExpression();
+      while (accept("||") || acceptWord("or"))
+        c = new Or(c, andExpression());
+      return c;
+    }
+
+    MarieCondition andExpression() {
+      MarieCondition c = comparison();
+      while (accept("&&") || acceptWord("and"))
+        c = new And(c, comparison());
+      return c;
+    }
+
+    MarieCondition comparison() {
+      if (accept("(")) {
+        MarieCondition c = orExpression();
+        if (!accept(")"))
+          throw new IllegalArgumentException("Missing \")\" in condition.");
+        return c;
+      }
+      Value left = value();
+      for (int op = 0; op < comparisons.length; op++)
+        if (accept(comparisons[op]))
+          return new Comparison(left, op, value());
+      throw new IllegalArgumentException("Expected one of == != < <= > >= in condition.");
+    }
+
+    Value value() {
+      skipBlanks();
+      if (acceptWord("HITS"))
+        return new Hits();
+      if (accept("M[")) {
+        int start = pos;
+        int end = text.indexOf(']', start);
+        if (end < 0)
+          throw new IllegalArgumentException("Missing \"]\" in condition.");
+        pos = end + 1;
+        return new MemoryWord(parseAddress(text.substring(start, end), symbols));
+      }
+      for (int r = 0; r < registerNames.length; r++)
+        if (acceptWord(registerNames[r]))
+          return new Register(r);
+      int start = pos;
+      if ((pos < text.length()) && (text.charAt(pos) == '-'))
+        pos++;
+      while ((pos < text.length()) && Character.isLetterOrDigit(text.charAt(pos)))
+        pos++;
+      String number = text.substring(start, pos);
+      try {
+        if (number.startsWith("0x") || number.startsWith("0X"))
+          return new Constant((short) Integer.parseInt(number.substring(2), 16));
+        return new Constant(Integer.parseInt(number));
+      }
+      catch (NumberFormatException e) {
+        throw new IllegalArgumentException("\""+number+"\" is not a value.");
+      } // catch
+    }
+  } // Parser
+} // MarieCondition
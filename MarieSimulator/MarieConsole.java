@@ -0,0 +1,106 @@
+// File:        MarieConsole.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public class MarieConsole implements MarieDevice {
+/******************************************************************************************
+*  A MarieConsole is a character terminal on a MarieBus.  It has two registers:           *
+*                                                                                         *
+*       DATA   (0)   Loading takes the next input value (0 if none is waiting).  Storing  *
+*                    sends a value to the output, after the ones already being sent.      *
+*       STATUS (1)   Bit 0 (1) is set while input is waiting, bit 1 (2) while output is   *
+*                    still being sent and bit 2 (4) while the output buffer is full.      *
+*                                                                                         *
+*  Input comes from the MarieInputSource given to the constructor or, if that is null,    *
+*  from the core's, which INPUT takes its values from too.  Output goes to the core's     *
+*  output, just as OUTPUT's does, but is not instant:  the console sends one value every  *
+*  characterTime cycles, from a buffer of BUFFER_SIZE values, and a value stored while    *
+*  the buffer is full is lost.  A program therefore either tests STATUS before it stores, *
+*  or lets the buffer take a short burst and gets on with its work while the console      *
+*  sends it.  When the last value in the buffer has been sent, the console raises its     *
+*  interrupt line, if it was given one, so a handler can refill the buffer.               *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int DATA   = 0;               // Register numbers.
+  public static final int STATUS = 1;
+  public static final int INPUT_READY = 1;          // STATUS bits.
+  public static final int SENDING     = 2;
+  public static final int FULL        = 4;
+  public static final int BUFFER_SIZE = 16;
+  public static final int DEFAULT_CHARACTER_TIME = 10;
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  MarieBus         bus;
+  MarieInputSource input;                           // Or null for the core's source.
+  int              characterTime;
+  int              line;                            // Interrupt line, or -1 for none.
+  int[]            buffer = new int[BUFFER_SIZE];   // Circular:  count values waiting
+  int              first = 0;                       // to be sent, from first.
+  int              count = 0;
+  long             due = MarieBus.NEVER;            // When buffer[first] is sent.
+
+
+  public MarieConsole(MarieInputSource input, int characterTime, int line) {
+    this.input = input;
+    this.characterTime = Math.max(1, characterTime);
+    this.line = line;
+  } // MarieConsole()
+
+
+  public int getSize() {
+    return 2;
+  } // getSize()
+
+
+  public void attach(MarieBus bus) {
+    this.bus = bus;
+  } // attach()
+
+
+  public int read(int register) {
+    MarieInputSource source = (input != null) ? input : bus.getCore().getInputSource();
+    boolean waiting = (source != null) && source.hasInput();
+    if (register == DATA)
+      return waiting ? source.nextInput() : 0;
+    return (waiting ? INPUT_READY : 0) | ((count > 0) ? SENDING : 0)
+           | ((count == BUFFER_SIZE) ? FULL : 0);
+  } // read()
+
+
+  public void write(int register, int value) {
+    if ((register != DATA) || (count == BUFFER_SIZE))
+      return;
+    buffer[(first + count++) % BUFFER_SIZE] = value;
+    if (count == 1) {                               // Start sending.
+      due = bus.now() + characterTime;
+      bus.schedule(this, due);
+    }
+  } // write()
+
+
+  public void tick(long time) {
+    if ((time != due) || (count == 0))
+      return;
+    bus.putOutput(buffer[first]);
+    first = (first + 1) % BUFFER_SIZE;
+    count--;
+    if (count > 0) {
+      due = time + characterTime;
+      bus.schedule(this, due);
+    }
+    else
+      bus.raise(line);                              // Everything has been sent.
+  } // tick()
+
+
+  public void reset() {
+    first = 0;
+    count = 0;
+    due = MarieBus.NEVER;
+  } // reset()
+} // MarieConsole
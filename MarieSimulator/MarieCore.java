@@ -0,0 +1,930 @@
+// File:        MarieCore.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public class MarieCore {
+/******************************************************************************************
+*  This class is the MARIE machine itself, without any user interface.  Memory is an      *
+*  array of 4096 integers, each holding one 16-bit word (sign-extended), and the          *
+*  registers are primitive shorts, so executing an instruction costs only a few array     *
+*  references and some integer arithmetic.  Nothing in here touches AWT or Swing, which   *
+*  allows the core to be driven from a batch program as well as from the simulators.      *
+*                                                                                         *
+*  The instruction set semantics are exactly those of the MarieSim simulator:  PC and     *
+*  MAR hold 12-bit addresses that wrap, the other registers hold 16-bit words that        *
+*  overflow silently, and a fatal error (e.g., an illegal opcode) halts the machine       *
+*  abnormally with an error code that indexes errorMsgs.                                  *
+*                                                                                         *
+*  A front end observes the core by reading its public registers after each step and      *
+*  by attaching a MarieCoreListener, which is told about memory writes and output.        *
+*                                                                                         *
+*  Instructions are decoded only once.  The opcode and address field of each word that    *
+*  is fetched are kept together in one int of decodeCache, so a loop that runs the same   *
+*  instructions over and over pays one array reference to decode each one, and a core     *
+*  sharing the cache (see MarieCore(MarieCore)) never sees half a decoded word.  Writing  *
+*  a word invalidates its cache entry, which is why all writes to memory must be made     *
+*  through loadWord() or writeMemory(): a program that modifies its own code (as JNS      *
+*  does when it stores a return address) must see the new instruction.                    *
+*                                                                                         *
+*  Programs that run for a long time can be handed to a MarieTranslator (see              *
+*  setTranslating()), which compiles frequently executed blocks of instructions into      *
+*  JVM code.  The translated code is used by run() only while no listener is attached.    *
+*                                                                                         *
+*  INPUT is handled in two parts, as in the simulators.  If no input value has been       *
+*  supplied when the instruction executes, the machine state becomes BLOCKED_ON_INPUT     *
+*  and the instruction is not counted as retired.  Calling supplyInput() completes the    *
+*  instruction and sets the machine running again.  A core with a MarieInputSource        *
+*  attached takes its input from the source instead and blocks only when it runs dry.     *
+*                                                                                         *
+*  Several cores can share one memory (see MarieMulticore), each with registers of its    *
+*  own.  TAS (test and set) is the one instruction that is atomic between them:  it       *
+*  loads the word at X into AC and sets the word to 1 while holding the lock on memory.   *
+*  A word that TAS has set is a lock word, and later stores into it are made holding the  *
+*  lock too, so that releasing a lock publishes everything stored before it.  See         *
+*  MarieMulticore for the whole memory-ordering model.                                    *
+*                                                                                         *
+*  Devices (a timer, a console, a disk, ...) can be mapped into the address space by      *
+*  attaching a MarieBus (see setBus()).  Loads and stores of device addresses then go to  *
+*  the devices, and after each instruction the core gives the bus's scheduler its turn    *
+*  if a device event has fallen due.  A core with no bus pays one test per fetch.         *
+*                                                                                         *
+*  Devices (or the host) signal the program with interrupts.  raiseInterrupt() sets a     *
+*  line's bit in pendingInterrupts, and while interrupts are enabled (by EI, or IRET) the *
+*  core takes the lowest-numbered pending line at the next instruction boundary:  it      *
+*  stores PC into word RETURN_ADDRESS, disables interrupts and jumps to the address in    *
+*  the line's vector, word VECTORS + line.  The handler saves whatever registers it uses  *
+*  and ends with IRET, which jumps back to the address in word RETURN_ADDRESS and         *
+*  enables interrupts again.  DI disables them.  With nothing pending, the check costs    *
+*  one test of an int per instruction.                                                    *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final String[] errorMsgs = {
+                                         "Program terminated normally.",       //  0
+                                         "Illegal opcode",                     //  1
+                                         "Illegal conditional operand",        //  2
+                                         "Address out of range",               //  3
+                                         "Invalid machine code format",        //  4
+                                         "IO Exception on input file",         //  5
+                                         "Invalid register",                   //  6
+                                         "Illegal numeric value in register",  //  7
+                                         "Maximum program statements reached"  //  8
+                                         };
+  public static final int MAX_MARIE_ADDR  =   4095;
+  public static final int MEMORY_SIZE     = MAX_MARIE_ADDR + 1;
+
+  public static final int MARIE_HALTED_NORMAL     =  0;  // Possible machine states.
+  public static final int MARIE_RUNNING           =  1;  // (These are the same as the
+  public static final int MARIE_BLOCKED_ON_INPUT  =  2;  // values used by MarieSim.)
+  public static final int MARIE_PAUSED            =  3;
+  public static final int MARIE_HALTED_ABNORMAL   = -1;
+  public static final int MARIE_HALTED_BY_USER    = -2;
+  public static final int MARIE_NO_PROGRAM_LOADED = -3;
+  public static final int MARIE_UNINITIALIZED     = 0xDEAD;
+
+  public static final int JNS      =  0;                 // Instruction opcodes.
+  public static final int LOAD     =  1;
+  public static final int STORE    =  2;
+  public static final int ADD      =  3;
+  public static final int SUBT     =  4;
+  public static final int INPUT    =  5;
+  public static final int OUTPUT   =  6;
+  public static final int HALT     =  7;
+  public static final int SKIPCOND =  8;
+  public static final int JUMP     =  9;
+  public static final int CLEAR    = 10;
+  public static final int ADDI     = 11;
+  public static final int JUMPI    = 12;
+  public static final int TAS      = 13;
+  public static final int IRET     = 14;
+  public static final int EI       = 15;                 // EI, or DI if X is 0.
+
+  public static final int RETURN_ADDRESS  = 0;           // Where an interrupt saves PC,
+  public static final int VECTORS         = 1;           // and handler addresses for
+  public static final int INTERRUPT_LINES = 16;          // each line, in low memory.
+
+  static final int UNDECODED = -1;                       // decodeCache entry for a word
+                                                         // that has not been decoded.
+/* --                                                                                 -- */
+/* --  boolean array operandReqd indicates whether an instruction with hexcode        -- */
+/* --  corresponding to the position in the array requires an operand.                -- */
+/* --                                                                                 -- */
+  public static final boolean[] operandReqd = { true,   // JUMPNSTORE
+                                                true,   // LOAD
+                                                true,   // STORE
+                                                true,   // ADD
+                                                true,   // SUBT
+                                                false,  // INPUT
+                                                false,  // OUTPUT
+                                                false,  // HALT
+                                                false,  // SKIPCOND
+                                                false,  // JUMP
+                                                false,  // CLEAR
+                                                true,   // ADDI
+                                                true,   // JUMPI
+                                                true,   // TAS
+                                                false,  // IRET
+                                                false };// EI and DI
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  public final int[] memory;                // Main memory, one word per element.
+  final int[]   decodeCache;                // Decoded instructions, by address:
+                                            // opcode << 16 | address field.
+  final java.util.BitSet lockWords;         // Words TAS has set, shared like memory.
+
+  public short ac     = 0;                  // Accumulator.
+  public short ir     = 0;                  // Instruction register.
+  public short mar    = 0;                  // Memory address register.
+  public short mbr    = 0;                  // Memory buffer register.
+  public short pc     = 0;                  // Program counter.
+  public short input  = 0;                  // Input register.
+  public short output = 0;                  // Output register.
+
+  public int    machineState = MARIE_UNINITIALIZED;
+  public boolean  fatalError = false;       // Fatal error flag, e.g., illegal opcode.
+  public int       errorCode = 0;           // Index into errorMsgs.
+  public int instructionCode = 0;           // Opcode of instruction being run.
+  public long instructionsRetired = 0;      // Instructions completed since restart.
+  public boolean interruptsEnabled = false; // Set by EI and IRET, cleared by DI.
+  public int   pendingInterrupts = 0;       // Bit n set:  line n has been raised.
+  public final java.util.BitSet breakpoints      // Addresses of the instructions to
+                  = new java.util.BitSet(MEMORY_SIZE);   // pause after, in every mode.
+  public final java.util.BitSet watchpoints      // Addresses whose writes pause the
+                  = new java.util.BitSet(MEMORY_SIZE);   // machine.
+  public int      watchAddress = -1;        // Watchpoint that last paused the machine.
+
+  int[]  outputBuffer = new int[256];       // Everything the program has sent to
+  int     outputCount = 0;                  // OUTPUT, in order.
+  boolean inputReady = false;               // Whether input holds an unread value.
+
+  MarieCoreListener listener = null;        // Front end observing the core, if any.
+  MarieTranslator translator = null;        // Compiles hot blocks, if translating.
+
+  MarieCondition[] breakConditions = null;  // Conditions and hit counts of breakpoints
+  MarieCondition[] watchConditions = null;  // and watchpoints, by address; allocated
+  int[]            breakHits = null;        // when the first one is set.
+  int[]            watchHits = null;
+  boolean          watching = false;        // Whether any watchpoints are set.
+  MarieHistory     history = null;          // Undo log, if running backwards is allowed.
+  MarieTraceWriter tracer = null;           // Trace file, if recording one.
+  MarieProfile     profile = null;          // Execution counts, if profiling.
+  MarieCycleModel  cycles = null;           // Cycle counts, if costing the run.
+  MarieInputSource inputSource = null;      // Values for INPUT, if not typed in.
+  MarieBus         bus = null;              // Devices in the address space, if any.
+
+
+  public MarieCore() {
+    memory = new int[MEMORY_SIZE];
+    decodeCache = new int[MEMORY_SIZE];
+    lockWords = new java.util.BitSet(MEMORY_SIZE);
+    java.util.Arrays.fill(decodeCache, UNDECODED);     // Nothing has been decoded yet.
+  } // MarieCore()
+
+
+  public MarieCore(MarieCore shared) {
+/******************************************************************************************
+*  Creates another core on the memory of shared, as in a multiprocessor:  the new core    *
+*  has registers, output, breakpoints and so on of its own, but every word either core    *
+*  stores can be loaded by the other.  The cache of decoded instructions goes with the    *
+*  memory.  Resetting either core clears the memory of both.                              *
+******************************************************************************************/
+    memory = shared.memory;
+    decodeCache = shared.decodeCache;
+    lockWords = shared.lockWords;
+  } // MarieCore()
+
+
+  public void setListener(MarieCoreListener l) {
+/******************************************************************************************
+*  Attaches a front end to the core.  Only one listener is supported; passing null        *
+*  detaches whatever listener was there.                                                  *
+******************************************************************************************/
+    listener = l;
+  } // setListener()
+
+
+  public MarieCoreListener getListener() {
+    return listener;
+  } // getListener()
+
+
+  public void setTranslating(boolean on) {
+/******************************************************************************************
+*  Turns the translation of hot blocks into JVM code on or off.                           *
+******************************************************************************************/
+    if (!on)
+      translator = null;
+    else if (translator == null)
+      translator = new MarieTranslator();
+  } // setTranslating()
+
+
+  public void setHistory(MarieHistory h) {
+/******************************************************************************************
+*  Attaches an undo log so that the core can run backwards, or detaches it (null).        *
+*  Compiled blocks do not record their instructions, so none are run while a history is   *
+*  attached.                                                                              *
+******************************************************************************************/
+    history = h;
+    if (history != null)
+      history.clear();
+  } // setHistory()
+
+
+  public MarieHistory getHistory() {
+    return history;
+  } // getHistory()
+
+
+  public void setTracer(MarieTraceWriter t) {
+/******************************************************************************************
+*  Starts recording every instruction run in a trace, or stops (null).  Closing the       *
+*  trace is up to the caller.  As with the history, compiled blocks are not used while    *
+*  a trace is being recorded.                                                             *
+******************************************************************************************/
+    tracer = t;
+  } // setTracer()
+
+
+  public MarieTraceWriter getTracer() {
+    return tracer;
+  } // getTracer()
+
+
+  public void setProfile(MarieProfile p) {
+/******************************************************************************************
+*  Starts counting where the machine spends its time in p, or stops (null).  The counts   *
+*  start over whenever the program is restarted.  Unlike the history and the tracer, a    *
+*  profile does not keep compiled blocks from being used.                                 *
+******************************************************************************************/
+    profile = p;
+  } // setProfile()
+
+
+  public MarieProfile getProfile() {
+    return profile;
+  } // getProfile()
+
+
+  public void setCycleModel(MarieCycleModel m) {
+/******************************************************************************************
+*  Starts counting the cycles the program takes on the datapath in m, or stops (null).    *
+*  Like a profile, m starts over whenever the program is restarted and does not keep      *
+*  compiled blocks from being used.                                                       *
+******************************************************************************************/
+    cycles = m;
+  } // setCycleModel()
+
+
+  public MarieCycleModel getCycleModel() {
+    return cycles;
+  } // getCycleModel()
+
+
+  public void setInputSource(MarieInputSource s) {
+/******************************************************************************************
+*  Attaches a source from which INPUT instructions take their values without blocking,    *
+*  or detaches it (null).  The source is used only when no value has been supplied with   *
+*  supplyInput(); when it is empty, INPUT blocks as usual.                                *
+******************************************************************************************/
+    inputSource = s;
+  } // setInputSource()
+
+
+  public MarieInputSource getInputSource() {
+    return inputSource;
+  } // getInputSource()
+
+
+  public void setBus(MarieBus b) {
+/******************************************************************************************
+*  Maps the devices on b into the address space, or unmaps them (null).  Compiled blocks  *
+*  read memory directly, so none are run while a bus is attached.                         *
+******************************************************************************************/
+    bus = b;
+    if (bus != null)
+      bus.reset();
+  } // setBus()
+
+
+  public MarieBus getBus() {
+    return bus;
+  } // getBus()
+
+
+  public void reset() {
+/******************************************************************************************
+*  Has the effect of pressing the reset button on a physical machine:  memory, registers  *
+*  and output are cleared, and the machine has no program to run.                         *
+******************************************************************************************/
+    java.util.Arrays.fill(memory, 0);
+    java.util.Arrays.fill(decodeCache, UNDECODED);
+    lockWords.clear();
+    if (translator != null)
+      translator.clear();
+    ac = ir = mar = mbr = pc = input = output = 0;
+    fatalError = false;
+    errorCode = 0;
+    instructionCode = 0;
+    instructionsRetired = 0;
+    interruptsEnabled = false;
+    pendingInterrupts = 0;
+    inputReady = false;
+    clearBreakpoints();
+    clearWatchpoints();
+    if (history != null)
+      history.clear();
+    if (profile != null)
+      profile.clear();
+    if (cycles != null)
+      cycles.clear();
+    if (bus != null)
+      bus.reset();
+    clearOutput();
+    machineState = MARIE_NO_PROGRAM_LOADED;
+  } // reset()
+
+
+  public void restart(int startAddress) {
+/******************************************************************************************
+*  Readies a loaded program to run (again) from startAddress.  Memory is left as the      *
+*  previous run left it, just as it is in the simulators.                                 *
+******************************************************************************************/
+    fatalError = false;
+    errorCode = 0;
+    inputReady = false;
+    instructionsRetired = 0;
+    interruptsEnabled = false;
+    pendingInterrupts = 0;
+    watchAddress = -1;
+    if (history != null)
+      history.clear();
+    if (profile != null)
+      profile.clear();
+    if (cycles != null)
+      cycles.clear();
+    if (bus != null)                          // Device time starts over too.
+      bus.reset();
+    if (breakHits != null) {                  // Hit counts start over with each run.
+      java.util.Arrays.fill(breakHits, 0);
+      java.util.Arrays.fill(watchHits, 0);
+    }
+    pc = (short) (startAddress & MAX_MARIE_ADDR);
+    machineState = MARIE_RUNNING;
+  } // restart()
+
+
+  public void loadWord(int address, int value) {
+/******************************************************************************************
+*  Places a word of a program image into memory.  Loaders use this method; the listener   *
+*  is not notified, because the loader is responsible for its own display.                *
+******************************************************************************************/
+    address = address & MAX_MARIE_ADDR;
+    if ((translator != null) && (translator.covered[address] != 0) && (cycles != null))
+      cycles.settle();                           // Charge compiled runs of the old word.
+    memory[address] = (short) value;
+    decodeCache[address] = UNDECODED;
+    if ((translator != null) && (translator.covered[address] != 0))
+      translator.invalidate(address);
+  } // loadWord()
+
+
+  public void writeMemory(int address, int value) {
+/******************************************************************************************
+*  Stores a word into memory on behalf of the program being run.  Every memory write      *
+*  made by an instruction goes through here so that the listener sees it.  A store into   *
+*  a lock word releases the lock, so it is made holding the lock on memory.  A store      *
+*  into a device register goes to the device instead.                                     *
+******************************************************************************************/
+    address = address & MAX_MARIE_ADDR;
+    if ((bus != null) && (bus.deviceAt[address] != null)) {
+      bus.write(address, value);
+      return;
+    }
+    if (lockWords.get(address) && (!Thread.holdsLock(memory))) {
+      synchronized (memory) {
+        writeMemory(address, value);
+      }
+      return;
+    }
+    if (history != null)
+      history.wroteMemory(address, memory[address]);
+    if (tracer != null)
+      tracer.wroteMemory(address, value);
+    if ((translator != null) && (translator.covered[address] != 0) && (cycles != null))
+      cycles.settle();                           // Charge compiled runs of the old word.
+    memory[address] = (short) value;
+    decodeCache[address] = UNDECODED;
+    if ((translator != null) && (translator.covered[address] != 0))
+      translator.invalidate(address);
+    if (listener != null)
+      listener.memoryChanged(address, memory[address]);
+    if (watching && watchpoints.get(address)) {
+      watchHits[address]++;
+      if ((watchConditions[address] == null)
+           || watchConditions[address].test(this, watchHits[address])) {
+        watchAddress = address;
+        machineState = MARIE_PAUSED;
+      }
+    }
+  } // writeMemory()
+
+
+/* --                                                                                 -- */
+/* --  Breakpoint and watchpoint methods.                                             -- */
+/* --                                                                                 -- */
+  void allocateConditions() {
+    if (breakHits == null) {
+      breakConditions = new MarieCondition[MEMORY_SIZE];
+      watchConditions = new MarieCondition[MEMORY_SIZE];
+      breakHits = new int[MEMORY_SIZE];
+      watchHits = new int[MEMORY_SIZE];
+    }
+  } // allocateConditions()
+
+
+  public void setBreakpoint(int address, MarieCondition condition) {
+/******************************************************************************************
+*  Marks the instruction at address as a breakpoint.  If condition is not null, the       *
+*  breakpoint is taken only when the condition holds.                                     *
+******************************************************************************************/
+    address = address & MAX_MARIE_ADDR;
+    allocateConditions();
+    breakpoints.set(address);
+    breakConditions[address] = condition;
+    breakHits[address] = 0;
+  } // setBreakpoint()
+
+
+  public void clearBreakpoint(int address) {
+    address = address & MAX_MARIE_ADDR;
+    breakpoints.clear(address);
+    if (breakConditions != null)
+      breakConditions[address] = null;
+  } // clearBreakpoint()
+
+
+  public void clearBreakpoints() {
+    breakpoints.clear();
+    if (breakConditions != null)
+      java.util.Arrays.fill(breakConditions, null);
+  } // clearBreakpoints()
+
+
+  public MarieCondition getBreakpointCondition(int address) {
+    return (breakConditions == null) ? null : breakConditions[address & MAX_MARIE_ADDR];
+  } // getBreakpointCondition()
+
+
+  public boolean breakpointHit(int address) {
+/******************************************************************************************
+*  Called by a front end after running the instruction at address, when it is running     *
+*  to a breakpoint.  Returns true if the machine should pause, i.e., address is a         *
+*  breakpoint and its condition (if any) holds.  Only breakpoint addresses pay for        *
+*  counting the hit and testing the condition.                                            *
+******************************************************************************************/
+    if (!breakpoints.get(address))
+      return false;
+    breakHits[address]++;
+    return (breakConditions[address] == null)
+           || breakConditions[address].test(this, breakHits[address]);
+  } // breakpointHit()
+
+
+  public void setWatchpoint(int address, MarieCondition condition) {
+/******************************************************************************************
+*  Pauses the machine (MARIE_PAUSED) whenever an instruction writes to address and        *
+*  condition, if there is one, holds after the write.  Compiled blocks do not check       *
+*  watchpoints, so no blocks are run while any are set.                                   *
+******************************************************************************************/
+    address = address & MAX_MARIE_ADDR;
+    allocateConditions();
+    watchpoints.set(address);
+    watchConditions[address] = condition;
+    watchHits[address] = 0;
+    watching = true;
+  } // setWatchpoint()
+
+
+  public void clearWatchpoints() {
+    watchpoints.clear();
+    if (watchConditions != null)
+      java.util.Arrays.fill(watchConditions, null);
+    watching = false;
+    watchAddress = -1;
+  } // clearWatchpoints()
+
+
+/* --                                                                                 -- */
+/* --  Output buffer methods.                                                         -- */
+/* --                                                                                 -- */
+  public int getOutputCount() {
+    return outputCount;
+  } // getOutputCount()
+
+
+  public int getOutput(int i) {
+    return outputBuffer[i];
+  } // getOutput()
+
+
+  public int[] getOutput() {
+/******************************************************************************************
+*  Returns a copy of everything the program has output since the last clearOutput().      *
+******************************************************************************************/
+    int[] copy = new int[outputCount];
+    System.arraycopy(outputBuffer, 0, copy, 0, outputCount);
+    return copy;
+  } // getOutput()
+
+
+  public void clearOutput() {
+    outputCount = 0;
+  } // clearOutput()
+
+
+  public void putOutput(int value) {
+/******************************************************************************************
+*  Sends value to the output register and the output buffer, as OUTPUT does.              *
+******************************************************************************************/
+    output = (short) value;
+    appendOutput(output);
+    if (history != null)
+      history.putOutput();
+    if (tracer != null)
+      tracer.putOutput();
+    if (listener != null)
+      listener.outputProduced(output);
+  } // putOutput()
+
+
+  void appendOutput(int value) {
+    if (outputCount == outputBuffer.length) {
+      int[] bigger = new int[outputBuffer.length * 2];
+      System.arraycopy(outputBuffer, 0, bigger, 0, outputCount);
+      outputBuffer = bigger;
+    }
+    outputBuffer[outputCount++] = value;
+  } // appendOutput()
+
+
+/* --                                                                                 -- */
+/* --  Marie operational methods.   (MARIE Microcode.)                                -- */
+/* --                                                                                 -- */
+  public boolean fetch() {
+/******************************************************************************************
+*   This method performs the "fetch" part of the "fetch-execute" cycle.  It returns       *
+*   true if there is an instruction ready to execute.                                     *
+*                                                                                         *
+*      Side effects: IR contains instruction,                                             *
+*                    MAR contains operand address (if any)                                *
+*                    MBR contains operand (if any)                                        *
+*                    fatalError set if invalid opcode in instruction.                     *
+*                    Machine state set to MARIE_RUNNING.                                  *
+******************************************************************************************/
+    if (fatalError) {                             // Stop if there has been an error.
+      halt();
+      return false;
+    }
+    if ((pendingInterrupts != 0) && interruptsEnabled)
+      interrupt();                                // Taken between instructions.
+    if (history != null)                          // After the interrupt's own record.
+      history.begin(this);
+    if (tracer != null)
+      tracer.begin(pc);
+    if (profile != null)
+      profile.fetched(pc);
+    if (cycles != null)
+      cycles.fetched(pc);
+    int addr = pc;
+    mar = pc;                                     // Pull instruction from memory into IR.
+    ir = (short) memory[addr];
+    int decoded = decodeCache[addr];              // Decode it if we haven't already.
+    if (decoded == UNDECODED)
+      decoded = decode(addr);
+    instructionCode = decoded >>> 16;
+    if (instructionCode >= operandReqd.length) {  // Make sure we have a valid hexcode.
+      fatalError = true;
+      errorCode = 1;
+      return false;
+    }
+    if (operandReqd[instructionCode]) {           // If instruction needs one, load the
+      mar = (short) (decoded & 0x0FFF);           // operand into MBR using MAR value.
+      if ((bus == null) || (bus.deviceAt[mar] == null))
+        mbr = (short) memory[mar];
+      else if ((instructionCode != STORE) && (instructionCode != JNS)
+                && (instructionCode != TAS))      // Only instructions that load the
+        mbr = (short) bus.read(mar);              // word read a device register.
+    }
+    pc = (short) ((pc + 1) & MAX_MARIE_ADDR);     // Increment PC.
+    machineState = MARIE_RUNNING;
+    return true;
+  } // fetch()
+
+
+  int decode(int addr) {
+/******************************************************************************************
+*   Splits the word at addr into its opcode and address field, caches both and returns    *
+*   them, packed as in decodeCache.  Cores sharing memory may decode the same word at     *
+*   once, so the pair is cached with a single store:  another core finds either the       *
+*   whole of it or UNDECODED.                                                             *
+******************************************************************************************/
+    int word = memory[addr];
+    int decoded = (((word >> 12) & 0x0F) << 16) | (word & 0x0FFF);
+    decodeCache[addr] = decoded;
+    return decoded;
+  } // decode()
+
+
+  public void execute() {
+/******************************************************************************************
+*   This method is the "execute" part of the "fetch-execute" cycle.                       *
+******************************************************************************************/
+    switch (instructionCode) {
+      case JNS:      writeMemory(mar, pc);                    // Store return address and
+                     pc = (short) ((mar + 1) & MAX_MARIE_ADDR);  // jump past it.
+                     break;
+      case LOAD:     ac = mbr;
+                     break;
+      case STORE:    mbr = ac;
+                     writeMemory(mar, mbr);
+                     break;
+      case ADD:      ac = (short) (ac + mbr);
+                     break;
+      case SUBT:     ac = (short) (ac - mbr);
+                     break;
+      case INPUT:    if ((!inputReady) && (inputSource != null)  // Take the value from
+                          && inputSource.hasInput()) {        // the input source, if it
+                       input = (short) inputSource.nextInput();  // has one.
+                       inputReady = true;
+                     }
+                     if (!inputReady) {                       // Nothing to read yet, so
+                       machineState = MARIE_BLOCKED_ON_INPUT; // block until the front end
+                       return;                                // calls supplyInput().
+                     }
+                     inputReady = false;
+                     if (history != null)
+                       history.readInput(input);
+                     if (tracer != null)
+                       tracer.readInput();
+                     ac = input;
+                     break;
+      case OUTPUT:   putOutput(ac);
+                     break;
+      case HALT:     halt();
+                     break;
+      case SKIPCOND: skipCond();
+                     break;
+      case JUMP:     pc = (short) (ir & 0x0FFF);
+                     break;
+      case CLEAR:    ac = 0;
+                     break;
+      case ADDI:     mar = (short) (mbr & 0x0FFF);            // MBR holds the address of
+                     mbr = (short) readData(mar);             // the augend.
+                     ac = (short) (ac + mbr);
+                     break;
+      case JUMPI:    pc = (short) (mbr & 0x0FFF);
+                     break;
+      case IRET:     pc = (short) (memory[RETURN_ADDRESS] & MAX_MARIE_ADDR);
+                     interruptsEnabled = true;
+                     break;
+      case EI:       interruptsEnabled = ((ir & 0x0FFF) != 0);  // EI or DI.
+                     break;
+      case TAS:      synchronized (memory) {                  // Atomic between cores
+                       mbr = (short) readData(mar);           // sharing the memory.
+                       ac = mbr;
+                       lockWords.set(mar);
+                       writeMemory(mar, 1);
+                     }
+                     break;
+      default:
+        fatalError = true;
+        errorCode = 1;
+    } // switch
+    if (!fatalError) {
+      instructionsRetired++;
+      if (tracer != null)
+        tracer.end(this);
+      if (profile != null)
+        profile.retired(this);
+      if (cycles != null)
+        cycles.retired(this);
+    }
+  } // execute()
+
+
+  public void raiseInterrupt(int line) {
+/******************************************************************************************
+*   Marks interrupt line (0 to INTERRUPT_LINES - 1) pending.  It is taken at the next     *
+*   instruction boundary at which interrupts are enabled and no lower line is pending.    *
+*   To be called on the thread running the core, e.g., by a device (see MarieBus).        *
+******************************************************************************************/
+    pendingInterrupts |= 1 << line;
+  } // raiseInterrupt()
+
+
+  void interrupt() {
+/******************************************************************************************
+*   Takes the lowest-numbered pending interrupt:  saves PC in low memory, disables        *
+*   interrupts and jumps to the line's handler.  The history and the trace each get a     *
+*   record of the interrupt apart from the instruction that follows, so that each can be  *
+*   undone or replayed with the return address it wrote.                                  *
+******************************************************************************************/
+    int line = Integer.numberOfTrailingZeros(pendingInterrupts);
+    if (history != null) {
+      history.begin(this);
+      history.tookInterrupt(line);
+    }
+    if (tracer != null)
+      tracer.begin(pc);
+    pendingInterrupts &= ~(1 << line);
+    interruptsEnabled = false;
+    writeMemory(RETURN_ADDRESS, pc);
+    pc = (short) (memory[VECTORS + line] & MAX_MARIE_ADDR);
+    if (tracer != null)
+      tracer.tookInterrupt(this);
+    if (cycles != null)
+      cycles.interrupted();
+  } // interrupt()
+
+
+  int readData(int address) {
+/******************************************************************************************
+*   Loads the word at address, which may be a device register, for execute().             *
+******************************************************************************************/
+    if ((bus != null) && (bus.deviceAt[address] != null))
+      return bus.read(address);
+    return memory[address];
+  } // readData()
+
+
+  void skipCond() {
+/******************************************************************************************
+*   Skips the instruction at PC+1 if the AC compares as requested with the operand.  The  *
+*   high two bits of the address field select the comparison (0 = less than, 1 = equal,   *
+*   2 = greater than) and the low ten bits hold the operand.                              *
+******************************************************************************************/
+    int comparisonOperator = (ir & 0x0c00) >> 10;
+    int operand = ir & 0x03ff;
+    boolean skip = false;
+    switch (comparisonOperator) {
+      case 0:  skip = (ac < operand);
+               break;
+      case 1:  skip = (ac == operand);
+               break;
+      case 2:  skip = (ac > operand);
+               break;
+      default: fatalError = true;
+               errorCode = 2;
+               return;
+    } // switch
+    if (skip)
+      pc = (short) ((pc + 1) & MAX_MARIE_ADDR);
+  } // skipCond()
+
+
+  public void halt() {
+/******************************************************************************************
+*   Changes the machine state from (probably) RUNNING to HALTED using the fatalError      *
+*   boolean to determine which one is which.                                              *
+******************************************************************************************/
+    if (fatalError)
+      machineState = MARIE_HALTED_ABNORMAL;
+    else
+      machineState = MARIE_HALTED_NORMAL;
+  } // halt()
+
+
+  public int exitStatus() {
+/******************************************************************************************
+*   The exit status of a halted program is the address field of the HALT instruction.     *
+******************************************************************************************/
+    return ir & 0x0fff;
+  } // exitStatus()
+
+
+  public void supplyInput(int value) {
+/******************************************************************************************
+*   Provides the value read by an INPUT instruction.  If the machine is blocked waiting   *
+*   for input, the blocked instruction completes and the machine is running again.        *
+*   Otherwise the value is held for the next INPUT instruction.                           *
+******************************************************************************************/
+    input = (short) value;
+    inputReady = true;
+    if (machineState == MARIE_BLOCKED_ON_INPUT) {
+      machineState = MARIE_RUNNING;
+      execute();
+    }
+  } // supplyInput()
+
+
+/* --                                                                                 -- */
+/* --  Marie execution control methods.                                               -- */
+/* --                                                                                 -- */
+  public boolean step() {
+/******************************************************************************************
+*   Runs one complete fetch-execute cycle.  Returns false if the machine did not complete *
+*   an instruction, i.e., it halted, hit a fatal error or is waiting for input.           *
+******************************************************************************************/
+    if (fetch())
+      execute();
+    if (fatalError)
+      halt();
+    else if ((bus != null) && (instructionsRetired >= bus.nextEvent))
+      bus.runEvents();                           // Devices due to do something.
+    return (machineState == MARIE_RUNNING);
+  } // step()
+
+
+  public boolean stepBack() {
+/******************************************************************************************
+*   Undoes the most recent instruction in the history, leaving the machine paused just    *
+*   before it.  Returns false if there is nothing to undo.                                *
+******************************************************************************************/
+    return (undoOne() != -2);
+  } // stepBack()
+
+
+  public long runBackward(long maxInstructions) {
+/******************************************************************************************
+*   Undoes instructions until the next instruction to run is at a breakpoint, the         *
+*   instruction undone wrote to a watchpoint, the history runs out or maxInstructions     *
+*   have been undone.  Returns the number undone.                                         *
+******************************************************************************************/
+    long count = 0;
+    while (count < maxInstructions) {
+      int address = undoOne();
+      if (address == -2)
+        break;
+      count++;
+      if (breakpoints.get(pc) || ((address >= 0) && watchpoints.get(address)))
+        break;
+    }
+    return count;
+  } // runBackward()
+
+
+  int undoOne() {
+/******************************************************************************************
+*   Undoes one instruction, and the interrupt taken just before it if there was one, so   *
+*   that the machine is left where it was before the step that ran the instruction.       *
+*   Returns the address of the memory word put back by the instruction, -1 if none was,   *
+*   or -2 if there was nothing to undo.                                                   *
+******************************************************************************************/
+    if (history == null)
+      return -2;
+    boolean retired = (machineState != MARIE_BLOCKED_ON_INPUT) && (!fatalError);
+    int undoneOutput = outputCount;
+    int address = history.undo(this);
+    if (address == -2)
+      return -2;
+    if (history.interruptNext()) {               // Also put back the return address.
+      history.undo(this);
+      if (listener != null)
+        listener.memoryChanged(RETURN_ADDRESS, memory[RETURN_ADDRESS]);
+    }
+    if (outputCount != undoneOutput)             // Output register shows the output
+      output = (short) ((outputCount > 0) ? outputBuffer[outputCount - 1] : 0);  // before.
+    if (retired && (instructionsRetired > 0))
+      instructionsRetired--;
+    fatalError = false;
+    errorCode = 0;
+    machineState = MARIE_PAUSED;
+    if ((address >= 0) && (listener != null))
+      listener.memoryChanged(address, memory[address]);
+    return address;
+  } // undoOne()
+
+
+  public long run(long maxInstructions) {
+/******************************************************************************************
+*   Runs the program until it halts, blocks for input, is stopped from another thread or  *
+*   has executed maxInstructions instructions.  Returns the number of fetch-execute       *
+*   cycles performed.                                                                     *
+******************************************************************************************/
+    long count = 0;
+    while ((machineState == MARIE_RUNNING) && (count < maxInstructions)) {
+      if ((translator != null) && (listener == null) && (!fatalError) && (!watching)
+           && (history == null) && (tracer == null) && (bus == null)
+           && ((pendingInterrupts == 0) || (!interruptsEnabled))) {
+        int entry = pc;
+        int n = translator.runBlock(this, maxInstructions - count);
+        if (n > 0) {                             // Ran a compiled block.
+          if (profile != null)
+            profile.ranBlock(entry, n, this);
+          if (cycles != null)
+            cycles.ranBlock(entry, n, this);
+          count += n;
+          continue;
+        }
+      }
+      step();
+      count++;
+    }
+    return count;
+  } // run()
+} // MarieCore
@@ -0,0 +1,17 @@
+// File:        MarieCoreListener.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public interface MarieCoreListener {
+/******************************************************************************************
+*  A MarieCoreListener is told about the side effects of each instruction executed by a   *
+*  MarieCore that cannot be seen simply by reading its registers afterwards: words that   *
+*  the program writes into memory and values that it sends to the output register.  The   *
+*  simulator front ends use these notifications to keep their displays in step with the   *
+*  machine.  A core that has no listener attached runs without paying for any of this.    *
+******************************************************************************************/
+  public void memoryChanged(int address, int value);  // Program stored value at address.
+  public void outputProduced(int value);              // Program executed OUTPUT.
+} // MarieCoreListener
@@ -0,0 +1,275 @@
+// File:        MarieCycleModel.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.util.*;
+
+public class MarieCycleModel {
+/******************************************************************************************
+*  A MarieCycleModel works out how many clock cycles a run would take on the MARIE        *
+*  datapath, without animating it.  Each instruction is charged for the microoperations   *
+*  MarieDPath carries out for it, fetch cycle included, and each microoperation is one    *
+*  of four kinds:  a register transfer (which includes incrementing the PC and testing    *
+*  IR bits), a memory read, a memory write or an ALU operation.  By default every         *
+*  microoperation takes one cycle; setCost() changes the cycles taken by one kind, e.g.,  *
+*  to show what slow memory does to a program.  Attach a model to a core with             *
+*  MarieCore.setCycleModel().                                                             *
+*                                                                                         *
+*  While the program runs, only the number of fetches, the number of times each opcode    *
+*  was retired, the number of SKIPCONDs that skipped and the number of interrupts taken   *
+*  are counted.  Cycles, memory reads and writes and ALU operations are worked out from   *
+*  those counts when asked for, so the costs may be changed after a run and the totals    *
+*  will reflect the new costs.                                                            *
+*  As in MarieProfile, a compiled block run is recorded in a difference array by          *
+*  address; those runs are charged to the opcodes at their addresses (settled) when the   *
+*  totals are wanted, or before the core changes a word of compiled code.                 *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int TRANSFER = 0;        // Kinds of microoperation.
+  public static final int READ     = 1;
+  public static final int WRITE    = 2;
+  public static final int ALU      = 3;
+  public static final String[] KIND_NAMES = {"transfer", "read", "write", "alu"};
+
+  static final int[] FETCH = {TRANSFER, READ, TRANSFER};  // MAR <-- PC; IR <-- M[MAR];
+                                                          // PC <-- PC + 1
+  static final int[][] EXECUTE = {             // As in MarieDPath; X = IR[11-0].
+    {TRANSFER, TRANSFER, WRITE, TRANSFER,      // JNS:    MBR <-- PC; MAR <-- X;
+     TRANSFER, ALU, TRANSFER},                 //   M[MAR] <-- MBR; MBR <-- X; AC <-- 1;
+                                               //   AC <-- AC + MBR; PC <-- AC
+    {TRANSFER, READ},                          // LOAD:   MAR <-- X;
+                                               //   MBR <-- M[MAR], AC <-- MBR
+    {TRANSFER, WRITE},                         // STORE:  MAR <-- X;
+                                               //   MBR <-- AC, M[MAR] <-- MBR
+    {TRANSFER, READ, ALU},                     // ADD:    MAR <-- X; MBR <-- M[MAR];
+    {TRANSFER, READ, ALU},                     // SUBT:   AC <-- AC +/- MBR
+    {TRANSFER},                                // INPUT:  AC <-- InREG
+    {TRANSFER},                                // OUTPUT: OutREG <-- AC
+    {},                                        // HALT
+    {TRANSFER, ALU},                           // SKIPCOND: test IR[11-10]; test AC;
+                                               //   PC <-- PC + 1 if it skips (SKIP).
+    {TRANSFER},                                // JUMP:   PC <-- X
+    {TRANSFER},                                // CLEAR:  AC <-- 0
+    {TRANSFER, READ, TRANSFER, READ, ALU},     // ADDI:   MAR <-- X; MBR <-- M[MAR];
+                                               //   MAR <-- MBR; MBR <-- M[MAR];
+                                               //   AC <-- AC + MBR
+    {TRANSFER, READ, TRANSFER},                // JUMPI:  MAR <-- X; MBR <-- M[MAR];
+                                               //   PC <-- MBR
+    {TRANSFER, READ, WRITE},                   // TAS:    MAR <-- X; MBR <-- M[MAR],
+                                               //   AC <-- MBR; M[MAR] <-- 1
+    {TRANSFER, READ, TRANSFER},                // IRET:   MAR <-- 0; MBR <-- M[MAR];
+                                               //   PC <-- MBR, IE <-- 1
+    {TRANSFER}                                 // EI/DI:  IE <-- X != 0
+  };
+  static final int[] INTERRUPT = {TRANSFER, TRANSFER,  // Taking one:  MAR <-- 0;
+                                  WRITE, TRANSFER,     //   MBR <-- PC; M[MAR] <-- MBR,
+                                  READ, TRANSFER};     //   IE <-- 0; MAR <-- 1 + line;
+                                                       //   MBR <-- M[MAR]; PC <-- MBR
+  static final int SKIP = TRANSFER;
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  int[]  cost = {1, 1, 1, 1};                  // Cycles per microoperation, by kind.
+  long   fetches = 0;
+  long[] retired = new long[16];               // Instructions retired, by opcode.
+  long   skipsTaken = 0;
+  long   interrupts = 0;                       // Interrupts taken.
+  int    current = -1;                         // Address of the instruction being run.
+  long[] blockRuns = new long[MarieCore.MEMORY_SIZE + 1]; // Block runs, as differences,
+  MarieCore unsettled = null;                             // not yet charged to opcodes.
+
+
+  public MarieCycleModel() {
+  } // MarieCycleModel()
+
+
+  public MarieCycleModel(String costs) {
+/******************************************************************************************
+*  Creates a model with the costs given as a list of kind=cycles pairs, e.g.,             *
+*  "read=3,write=3".  Kinds not mentioned take one cycle.  Throws an                      *
+*  IllegalArgumentException if the list cannot be understood.                             *
+******************************************************************************************/
+    StringTokenizer pairs = new StringTokenizer(costs, ", ");
+    while (pairs.hasMoreTokens()) {
+      String pair = pairs.nextToken();
+      int equals = pair.indexOf('=');
+      int kind = -1;
+      if (equals > 0)
+        kind = Arrays.asList(KIND_NAMES).indexOf(pair.substring(0, equals));
+      if (kind < 0)
+        throw new IllegalArgumentException("Unknown cost: " + pair);
+      setCost(kind, Integer.parseInt(pair.substring(equals + 1)));
+    }
+  } // MarieCycleModel()
+
+
+  public void setCost(int kind, int cycles) {
+    if (cycles < 0)
+      throw new IllegalArgumentException("Negative cost: " + cycles);
+    cost[kind] = cycles;
+  } // setCost()
+
+
+  public int getCost(int kind) {
+    return cost[kind];
+  } // getCost()
+
+
+  public void clear() {
+    fetches = 0;
+    Arrays.fill(retired, 0);
+    skipsTaken = 0;
+    interrupts = 0;
+    current = -1;
+    Arrays.fill(blockRuns, 0);
+    unsettled = null;
+  } // clear()
+
+
+  void fetched(int address) {
+    fetches++;
+    current = address;
+  } // fetched()
+
+
+  void retired(MarieCore core) {
+/******************************************************************************************
+*  Called when the interpreter has finished the instruction at current.                   *
+******************************************************************************************/
+    retired[core.instructionCode]++;
+    if ((core.instructionCode == MarieCore.SKIPCOND)
+         && (core.pc == ((current + 2) & MarieCore.MAX_MARIE_ADDR)))
+      skipsTaken++;
+  } // retired()
+
+
+  void interrupted() {
+    interrupts++;
+  } // interrupted()
+
+
+  void ranBlock(int entry, int length, MarieCore core) {
+/******************************************************************************************
+*  Called when a compiled block of length instructions starting at entry has run.  Only   *
+*  the block's last instruction can be a SKIPCOND.                                        *
+******************************************************************************************/
+    fetches += length;
+    blockRuns[entry]++;
+    blockRuns[entry + length]--;
+    unsettled = core;
+    int last = entry + length - 1;
+    if ((((core.memory[last] >> 12) & 0x0F) == MarieCore.SKIPCOND)
+         && (core.pc == ((last + 2) & MarieCore.MAX_MARIE_ADDR)))
+      skipsTaken++;
+  } // ranBlock()
+
+
+  void settle() {
+/******************************************************************************************
+*  Charges the compiled block runs recorded so far to the opcodes at their addresses.     *
+*  The core calls this before it changes a word that is part of a compiled block.         *
+******************************************************************************************/
+    if (unsettled == null)
+      return;
+    long inBlocks = 0;
+    for (int addr = 0; addr < MarieCore.MEMORY_SIZE; addr++) {
+      inBlocks += blockRuns[addr];
+      retired[(unsettled.memory[addr] >> 12) & 0x0F] += inBlocks;
+    }
+    Arrays.fill(blockRuns, 0);
+    unsettled = null;
+  } // settle()
+
+
+/* --                                                                                 -- */
+/* --  Totals.                                                                        -- */
+/* --                                                                                 -- */
+  long count(int[] microOps, int kind) {
+/******************************************************************************************
+*  Returns the cycles taken by microOps if kind is negative, otherwise the number of      *
+*  them that are of that kind.                                                            *
+******************************************************************************************/
+    long n = 0;
+    for (int i = 0; i < microOps.length; i++)
+      if (kind < 0)
+        n += cost[microOps[i]];
+      else if (microOps[i] == kind)
+        n++;
+    return n;
+  } // count()
+
+
+  long total(int kind) {
+    settle();
+    long n = fetches * count(FETCH, kind);
+    for (int op = 0; op < EXECUTE.length; op++)
+      n += retired[op] * count(EXECUTE[op], kind);
+    n += interrupts * count(INTERRUPT, kind);
+    return n + skipsTaken * count(new int[] {SKIP}, kind);
+  } // total()
+
+
+  public long getFetches() {
+    return fetches;
+  } // getFetches()
+
+
+  public long getInstructions() {
+    settle();
+    long n = 0;
+    for (int op = 0; op < retired.length; op++)
+      n += retired[op];
+    return n;
+  } // getInstructions()
+
+
+  public long getCycles() {
+    return total(-1);
+  } // getCycles()
+
+
+  public long getMemoryReads() {
+    return total(READ);
+  } // getMemoryReads()
+
+
+  public long getMemoryWrites() {
+    return total(WRITE);
+  } // getMemoryWrites()
+
+
+  public long getAluOperations() {
+    return total(ALU);
+  } // getAluOperations()
+
+
+  public double getCPI() {
+/******************************************************************************************
+*  Returns the average number of cycles per instruction retired, or 0 if none has been.   *
+******************************************************************************************/
+    long n = getInstructions();
+    return (n == 0) ? 0 : (double) getCycles() / n;
+  } // getCPI()
+
+
+  public String getCPIString() {
+/******************************************************************************************
+*  Returns the CPI to two decimal places.                                                 *
+******************************************************************************************/
+    long n = getInstructions();
+    long hundredths = (n == 0) ? 0 : (getCycles() * 100 + n / 2) / n;
+    return (hundredths / 100) + "." + ((hundredths % 100 < 10) ? "0" : "")
+           + (hundredths % 100);
+  } // getCPIString()
+
+
+  public String toString() {
+    return getInstructions() + " instructions in " + getCycles() + " cycles (CPI "
+           + getCPIString() + "):  " + getFetches() + " fetches, " + getMemoryReads()
+           + " memory reads, " + getMemoryWrites() + " memory writes, "
+           + getAluOperations() + " ALU operations.";
+  } // toString()
+} // MarieCycleModel
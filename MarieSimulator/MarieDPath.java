@@ -81,6 +81,9 @@ public class MarieDPath extends JFrame {
   static final int PROGRAM_TABLE_ROW_HEIGHT = 19; // Row height for program instructions.
 
   public static final int MINIMUM_DELAY = 10;     // Min execution delay.
+  static final int DRAW_DATA_PATH = 0;            // What the running program marks
+  static final int DRAW_TRACE     = 1;            // for the MarieRepaintScheduler
+  static final int DRAW_PROGRAM   = 2;            // to draw at the next frame.
   public static final String[] base = {"Hex", "Dec", "ASCII"};  // Radix for input.
 
 /* --                                                                                 -- */
@@ -137,7 +140,8 @@ public class MarieDPath extends JFrame {
   boolean   fastFetch = false;        // Whether fast fetching is enabled.
   
   int   machineState = MARIE_UNINITIALIZED;
-  int[]  memoryArray = new int[4096];
+  MarieCore     core = new MarieCore();  // Holds the machine's memory, which is shared
+  int[]  memoryArray = core.memory;      // with the core so that both see every write.
   boolean errorFound = false;   // Non-fatal error flag, e.g. invalid  user input.
   boolean fatalError = false;   // Fatal error flag, e.g., invalid branch address.
   int      errorCode = 0;
@@ -149,6 +153,7 @@ public class MarieDPath extends JFrame {
   JMenuItem    loadFileItem = new JMenuItem();    //       | load program
   JMenuItem     restartItem = new JMenuItem();    //       | restart from beginning
   JMenuItem       resetItem = new JMenuItem();    //       | reset the simulator  
+  JMenuItem     replayTrace = new JMenuItem();    //       | play back trace file
   JMenuItem    exitFileItem = new JMenuItem();    //       | quit
 
   JButton           runStop = new JButton();      // "Stop" button
@@ -186,10 +191,9 @@ public class MarieDPath extends JFrame {
   ProgramTableModel    ptm = new ProgramTableModel();  // Program monitor table control.
   int      programFocusRow = 0;                        // Current instruction
                                                        //    pointer in monitor.
-  Hashtable codeReference                 // codeReference provides correspondence
-            = new Hashtable(16, (float) 0.75);   // between monitor table and 
-                                                 // instruction addresses.
-                                          // Initial capacity 16, load factor 0.75.
+  int[]     codeReference                 // codeReference gives the monitor table
+            = MarieProgram.rowIndex(null);  // row of each instruction address,
+                                          // or NO_ROW if there is none.
                                           
   JScrollPane tracePane = new JScrollPane();   // Execution trace pane.
   TitledBorder tracePaneBorder = new TitledBorder(BorderFactory.createEtchedBorder(),
@@ -208,6 +212,9 @@ public class MarieDPath extends JFrame {
   JComboBox    inputBase  = new JComboBox(base);        // Radix of input.
   JTextField inputContent = new JTextField();           // Input contents.
   JTextArea traceTextArea = new JTextArea();    // Execution trace area.
+  StringBuffer traceLines = new StringBuffer(); // Trace lines not yet in the area.
+  MarieRepaintScheduler repaints = new MarieRepaintScheduler(); // Draws the changes
+                                                // made by the program, once a frame.
   
   JTextField    msgField = new JTextField(); // Status message field contents.
   
@@ -714,10 +721,11 @@ public class MarieDPath extends JFrame {
                            "  " + to4CharHexStr(regMBR.getValue())    +
                            "  " + to3CharHexStr(regPC.getValue())     + 
                            "  " + to3CharHexStr(regMAR.getValue())    + linefeed;
-      traceTextArea.append(stateString);
-      Document d = traceTextArea.getDocument();
-      traceTextArea.select(d.getLength(), d.getLength());  // Scroll textarea to 
-    } // if                                                // last entry made.
+      synchronized (traceLines) {                          // Added to the trace
+        traceLines.append(stateString);                    // area at the next frame
+      }                                                    // (see drawTrace()).
+      repaints.mark(DRAW_TRACE);
+    } // if
   } // displayValues()
   
    void refresh(Graphics g) {
@@ -976,6 +984,15 @@ public class MarieDPath extends JFrame {
          }
     }); // Listener
 
+    replayTrace.setText("Replay Trace");            // Show a run recorded by the
+    replayTrace.setEnabled(false);                  // MarieSim simulator.
+    replayTrace.setMnemonic('P');
+    replayTrace.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           replayTrace();
+         }
+    }); // Listener
+
     exitFileItem.setText("Exit");                   // Quit the program
     exitFileItem.setMnemonic('X');
     exitFileItem.addActionListener(new ActionListener() {
@@ -987,6 +1004,8 @@ public class MarieDPath extends JFrame {
     fileMenu.add(restartItem);
     fileMenu.add(resetItem);
     fileMenu.addSeparator();
+    fileMenu.add(replayTrace);
+    fileMenu.addSeparator();
     fileMenu.add(exitFileItem);
     
     runStop.setText("Run");                       // Add the "stop" button.
@@ -1226,6 +1245,23 @@ public class MarieDPath extends JFrame {
     msgField.setEditable(false);
     setStatusMessage(" Ready to load program instructions.");
     monitorPanel.add(msgField);
+    repaints.setAction(DRAW_DATA_PATH, new Runnable() {
+      public void run() {
+        dataPathPanel.repaint();
+      }
+    }); // Runnable
+    repaints.setAction(DRAW_TRACE, new Runnable() {
+      public void run() {
+        drawTrace();
+      }
+    }); // Runnable
+    repaints.setAction(DRAW_PROGRAM, new Runnable() {
+      public void run() {
+        Rectangle rect = programTable.getCellRect(programFocusRow, 4, false);
+        programTable.scrollRectToVisible(rect);
+        programTable.repaint();
+      }
+    }); // Runnable
     dataPathPanel.repaint();
   } // DataPath()
 
@@ -1686,7 +1722,7 @@ public class MarieDPath extends JFrame {
       return;                                  // to caller.
     int addr = 0;
     programArray  = new Object[codeLineCount][5];    // Prepare program-specific data 
-    codeReference.clear();                           // structures.
+    codeReference = MarieProgram.rowIndex(codeVector);   // structures.
     Enumeration e = codeVector.elements();
     int lineCount = 0;
 
@@ -1697,7 +1733,6 @@ public class MarieDPath extends JFrame {
       programArray[lineCount][2] = aCodeLine.mnemonic;
       programArray[lineCount][3] = aCodeLine.operandToken;
       programArray[lineCount][4] = " "+aCodeLine.hexCode+aCodeLine.operand; 
-      codeReference.put(aCodeLine.lineNo, new Integer(lineCount));
       lineCount++;
       try {
         addr = Integer.parseInt(aCodeLine.lineNo, 16);      // ... and load memory.
@@ -1705,7 +1740,7 @@ public class MarieDPath extends JFrame {
       catch (NumberFormatException exception) {
         continue;
       } // catch
-       memoryArray[addr] = Integer.parseInt(aCodeLine.hexCode+aCodeLine.operand, 16);
+       core.loadWord(addr, Integer.parseInt(aCodeLine.hexCode+aCodeLine.operand, 16));
     } // while();
     ptm.fireTableStructureChanged();
     String aString = (String) programArray[0][0];
@@ -1727,6 +1762,7 @@ public class MarieDPath extends JFrame {
     runStop.setMnemonic('R');
     step.setEnabled(true);
     restartItem.setEnabled(true); 
+    replayTrace.setEnabled(true);
     machineState = MARIE_HALTED_NORMAL;
   } // loadProgram()
 
@@ -1751,6 +1787,9 @@ public class MarieDPath extends JFrame {
      Rectangle rect = programTable.getCellRect(0, 2, false);
      programFocusRow = 0;
      programTable.scrollRectToVisible(rect);
+     synchronized (traceLines) {
+       traceLines.setLength(0);
+     }
      traceTextArea.setText("  IR   OUT    IN    AC   MBR   PC   MAR" + linefeed);
      traceTextArea.repaint();
      programTable.repaint();
@@ -1770,9 +1809,12 @@ public class MarieDPath extends JFrame {
     regINPUT.setValue(0);
     regOUTPUT.setValue(0);
     inputContent.setText("");
+    synchronized (traceLines) {
+      traceLines.setLength(0);
+    }
     traceTextArea.setText("");
     
-    Arrays.fill(memoryArray, 0);               // Initialize memory.
+    core.reset();                              // Initialize memory.
     if (codeLineCount >=0)                     // If we already loaded a program, clear it.
       for (int i = 0; i < codeLineCount; i++) {
         programArray[i][0] = "  ";
@@ -1785,6 +1827,7 @@ public class MarieDPath extends JFrame {
     machineState = MARIE_NO_PROGRAM_LOADED;
     runStop.setEnabled(false);               // Nothing to run...
     restartItem.setEnabled(false);           // Nothing to restart...
+    replayTrace.setEnabled(false);           // ... or replay...
     step.setEnabled(false);                  // Nothing to step...
     setStatusMessage(" ");
     repaint();
@@ -1827,13 +1870,10 @@ public class MarieDPath extends JFrame {
     }                                            // after we have saved the delay.
     controlBar.repaint();                                          
     
-    String aString = to3CharHexStr(regPC.getValue());           // Move the cursor.
-    if (codeReference.containsKey(aString)) {
-      programFocusRow =((Integer) codeReference.get(aString)).intValue();
-      Rectangle rect = programTable.getCellRect(programFocusRow, 4, false);
-      programTable.scrollRectToVisible(rect);
-    }
-    programTable.repaint();
+    int row = codeReference[regPC.getValue()];                 // Move the cursor.
+    if (row != MarieProgram.NO_ROW)
+      programFocusRow = row;
+    repaints.mark(DRAW_PROGRAM);
                                // First microoperation: MAR <-- PC                   
     controlUnit.setState(false, controlLines, "(Fetch cycle) MAR <-- PC");   
     regPC.setState(true);
@@ -1845,12 +1885,12 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 1; 
     controlLines[5] = 0;     
     controlUnit.setState(true, controlLines, "");   
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
 
     memory.setState(false, true);  // Turn on bus.
     regMAR.setValue(regPC.getValue());          // Place address in MAR.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regPC.setState(false);         // Turn off PC, control lines, and bus.
@@ -1863,7 +1903,7 @@ public class MarieDPath extends JFrame {
     controlLines[5] = 0; 
     controlLines[7] = 0;  
     controlUnit.setState(false, controlLines, ""); 
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                   // End of microop.
     
     memory.setState(true, false);  // Second microoperation: IR <-- M[MAR]
@@ -1876,12 +1916,12 @@ public class MarieDPath extends JFrame {
     controlLines[2] = 1; 
     regIR.setState(true);
     controlUnit.setState(true, controlLines, "");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);    
 
     int instr = memoryArray[regMAR.getValue()];  // Retrieve instruction from
     regIR.setValue(instr);                       // memory and place into IR.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     memory.setState(false, false);      // Turn off bus and control unit.
@@ -1892,17 +1932,17 @@ public class MarieDPath extends JFrame {
     controlLines[7] = 0;
     regIR.setState(false); 
     controlUnit.setState(false, controlLines, "");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                    // End of microop.
    
                                     //  Third microoperation: PC <-- PC + 1. 
     regPC.setState(true);
     controlUnit.setState(false, controlLines, "(Fetch Cycle) PC <-- PC + 1");    
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(briefDelay);
     
     regPC.setValue(regPC.getValue() + 1);  // Increment PC.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);                // End of microop.
         
     regPC.setState(false);       // Turn off everything except IR.
@@ -1943,11 +1983,11 @@ public class MarieDPath extends JFrame {
     controlLines[5] = 0;
     regPC.setState(true);  
     controlUnit.setState(true, controlLines, "");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);      
     memory.setState(false, true);                    // Turn on the bus.
     regMBR.setValue(regPC.getValue()); // Activate MBR and move data from PC.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     memory.setState(false, false);                       
@@ -1963,7 +2003,7 @@ public class MarieDPath extends JFrame {
     regAC.setState(false);
     controlUnit.setState(false, controlLines, "(Decode IR[15-12])");  // End of microop.
     waitABit(delay);
-    dataPathPanel.repaint();    
+    repaints.mark(DRAW_DATA_PATH);    
                                        // Second microoperation: MAR <-- IR[11-0]
     controlUnit.setState(false, controlLines, "MAR <-- IR[11-0]");  
     controlLines[0] = 0;                              // Set control lines to read IR 
@@ -1976,11 +2016,11 @@ public class MarieDPath extends JFrame {
     regMAR.setState(true);                            // Turn on MAR.
     memory.setState(false, true);                     // Turn on bus.
     controlUnit.setState(true, controlLines, "");     // Turn on control unit.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regMAR.setValue(regIR.getValue() & 0x0FFF);       // Get MAR value from IR.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regIR.setState(false);                            // Turn off IR, control lines
@@ -1994,7 +2034,7 @@ public class MarieDPath extends JFrame {
     controlUnit.setState(false, controlLines, "");
     regMAR.setState(false);                           // Turn off MAR.
     waitABit(delay);
-    dataPathPanel.repaint();             // Microop complete.
+    repaints.mark(DRAW_DATA_PATH);             // Microop complete.
     
      
     controlLines[4] = 1;        // Third microop: M[MAR] <-- MBR.            
@@ -2004,11 +2044,11 @@ public class MarieDPath extends JFrame {
     regMAR.setState(true);
     controlUnit.setState(true, controlLines, "M[MAR] <-- MBR");  // Engage control unit.  
     memory.setState(false, true);      // Turn on the bus.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     memory.setState(true, true);       // Turn on memory.
-    memoryArray[regMAR.getValue()] = regMBR.getValue();    // Update memory.
-    dataPathPanel.repaint();
+    core.writeMemory(regMAR.getValue(), regMBR.getValue());  // Update memory.
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);               // Microop complete.
     
     regMAR.setState(false);
@@ -2024,12 +2064,12 @@ public class MarieDPath extends JFrame {
     regIR.setState(true);
     controlUnit.setState(true, controlLines, "MBR <-- IR[11-0]"); 
     memory.setState(false, true);                     // Turn on the bus.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     regMBR.setValue(regIR.getValue() & 0x0FFF);       // Get MBR value from IR.
     controlUnit.setState(false, controlLines, ""); 
     regIR.setState(false);
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);            // End of microop.
     
                             // Fifth microop: AC <-- 1 
@@ -2043,10 +2083,10 @@ public class MarieDPath extends JFrame {
     regMBR.setState(false);  
     memory.setState(false, false);     // Turn off bus.
     controlUnit.setState(true, controlLines, "AC <-- 1");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     regAC.setValue(1);
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);            // End of microop.
     
                             // Sixth microop: AC <-- AC + MBR 
@@ -2059,7 +2099,7 @@ public class MarieDPath extends JFrame {
     controlLines[9] = 1;  
     aLU.setState(true);                 // Engage ALU.          
     controlUnit.setState(false, controlLines, ""); 
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(briefDelay);
     
     regMBR.setState(false);               // Turn off MBR.
@@ -2067,13 +2107,13 @@ public class MarieDPath extends JFrame {
                                           // Add value in MBR to value in AC.
     regAC.setValue(regAC.getValue() + regMBR.getValue());
     controlUnit.setState(false, controlLines, ""); 
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(briefDelay);
     
     aLU.setState(false);
     controlLines[8] = 0;
     controlUnit.setState(false, controlLines, ""); 
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);              // End of microop.
         
                               // Seventh microop: PC <-- AC 
@@ -2086,13 +2126,13 @@ public class MarieDPath extends JFrame {
     controlLines[5] = 0;    
     memory.setState(false, true);     // Turn on bus.
     controlUnit.setState(true, controlLines, "PC <-- AC");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     regPC.setValue(regAC.getValue());
     regAC.setState(false);
     memory.setState(false, false);     // Turn off bus.
     controlUnit.setState(false, controlLines, "");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);            // End of microop.    
         
     regPC.setState(false);        // Turn off everything.
@@ -2103,7 +2143,7 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 0;
     controlLines[5] = 0;
     controlUnit.setState(false, controlLines, " ");  
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
   } // jns()
   
   void load() {
@@ -2125,7 +2165,7 @@ public class MarieDPath extends JFrame {
     regMAR.setState(true);   
     controlUnit.setState(true, controlLines, "");   
     memory.setState(false, true);  // Turn on bus.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regMAR.setValue(regIR.getValue() & 0x0FFF);       // Get MAR value from IR.    
@@ -2138,7 +2178,7 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 0; 
     controlLines[5] = 0; 
     controlUnit.setState(false, controlLines, "(Decode IR[15-12])");   
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                   // End of microop.
     
     controlLines[7] = 1;  
@@ -2148,12 +2188,12 @@ public class MarieDPath extends JFrame {
     controlLines[1] = 1; 
     regMBR.setState(true);  
     controlUnit.setState(true, controlLines, "");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);    
                                                     
     int operand = memoryArray[regMAR.getValue()];  // Retrieve operand from
     regMBR.setValue(operand);                      // memory and place into MBR.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     memory.setState(false, false);      // Turn off bus and control unit.
     
@@ -2164,18 +2204,18 @@ public class MarieDPath extends JFrame {
     controlLines[6] = 1;            //  Second part of second microop: AC <-- MBR. 
     regAC.setState(true);
     controlUnit.setState(false, controlLines, "AC <-- MBR");    
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(briefDelay);
                   
     regAC.setValue(regMBR.getValue());   // Transfer to AC.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                  // End of microop.
         
     regMBR.setState(false);       // Turn off everything.
     regAC.setState(false);
     controlLines[6] = 0;
     controlUnit.setState(false, controlLines, " ");  
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
   } // load()
   
   void store() {
@@ -2198,7 +2238,7 @@ public class MarieDPath extends JFrame {
     regMAR.setState(true);                            // Turn on MAR.    
     controlUnit.setState(true, controlLines, "");     // Turn on bus and control unit.
     memory.setState(false, true);
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regMAR.setValue(regIR.getValue() & 0x0FFF);       // Get MAR value from IR.
@@ -2213,17 +2253,17 @@ public class MarieDPath extends JFrame {
     controlUnit.setState(false, controlLines, "(Decode IR[15-12])");
     regMAR.setState(false);                           // Turn off MAR.
     waitABit(delay);
-    dataPathPanel.repaint();                // Microop complete.
+    repaints.mark(DRAW_DATA_PATH);                // Microop complete.
     
     regAC.setState(true);          // Second microoperation (first part): MBR <-- AC   
     controlLines[6] = 1;                // Activate control line to load MBR from AC
     regMBR.setState(true);              // Activate MBR
     controlUnit.setState(false, controlLines, " MBR <-- AC, M[MAR] <-- MBR");
     waitABit(delay);
-    dataPathPanel.repaint();   
+    repaints.mark(DRAW_DATA_PATH);   
            
     regMBR.setValue(regAC.getValue()); // Activate MBR and move data from AC.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
      
     controlLines[6] = 0;               // Turn off connection between AC and MBR.
@@ -2237,8 +2277,8 @@ public class MarieDPath extends JFrame {
     regMAR.setState(true);
     controlUnit.setState(true, controlLines, "");  // Engage control unit.  
     memory.setState(true, true);       // Turn on memory and bus.
-    memoryArray[regMAR.getValue()] = regMBR.getValue();    // Update memory.
-    dataPathPanel.repaint();
+    core.writeMemory(regMAR.getValue(), regMBR.getValue());  // Update memory.
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);          // Microop complete.
         
     regMBR.setState(false);    // Turn off everything
@@ -2248,7 +2288,7 @@ public class MarieDPath extends JFrame {
     controlLines[5] = 0;
     controlLines[7] = 0;
     controlUnit.setState(false, controlLines, "  ");
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
   } // store()
   
   void add() {
@@ -2271,12 +2311,12 @@ public class MarieDPath extends JFrame {
     regMAR.setState(true); 
     controlUnit.setState(true, controlLines, "");   
     memory.setState(false, true);  // Turn on bus
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regMAR.setValue(regIR.getValue() & 0x0FFF);  // Place address in MAR         
     controlUnit.setState(true, controlLines, "(Decode IR[15-12])");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regIR.setState(false);         // Turn off IR and control lines
@@ -2289,7 +2329,7 @@ public class MarieDPath extends JFrame {
     controlLines[5] = 0; 
     controlLines[7] = 1;  
     controlUnit.setState(false, controlLines, "");   
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                   // End of microop.
     
     memory.setState(true, false);  // Second microoperation: MBR <-- M[MAR]
@@ -2300,11 +2340,11 @@ public class MarieDPath extends JFrame {
     controlLines[2] = 1; 
     regMBR.setState(true);  
     controlUnit.setState(true, controlLines, "");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
                    
     regMBR.setValue(memoryArray[regMAR.getValue()]);  // Load MBR.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     memory.setState(false, false);      // Turn off bus and control unit.
     regMAR.setState(false);
@@ -2312,7 +2352,7 @@ public class MarieDPath extends JFrame {
     controlLines[2] = 0;
     controlLines[7] = 0;
     controlUnit.setState(false, controlLines, "");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                    // End of microop.
    
     controlLines[8] = 1;            //  Third microop: AC <-- AC + MBR. 
@@ -2326,18 +2366,18 @@ public class MarieDPath extends JFrame {
                                           // Add value in MBR to value in AC.
     regAC.setValue(regAC.getValue() + regMBR.getValue());
     controlUnit.setState(false, controlLines, " "); 
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(briefDelay);
     
     aLU.setState(false);
     controlLines[8] = 0;
     controlUnit.setState(false, controlLines, " "); 
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                  // End of microop.
         
     regAC.setState(false);        // Turn off everything.
     controlUnit.setState(false, controlLines, " ");  
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
   } // add()
     
   void subt() {
@@ -2360,12 +2400,12 @@ public class MarieDPath extends JFrame {
     regMAR.setState(true);     
     controlUnit.setState(true, controlLines, "");   
     memory.setState(false, true);  // Turn on bus
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regMAR.setValue(memoryArray[regMAR.getValue()]);   // Place address in MAR
     controlUnit.setState(false, controlLines, "(Decode IR[15-12])");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regIR.setState(false);         // Turn off IR and control lines
@@ -2377,13 +2417,13 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 0; 
     controlLines[5] = 0;   
     controlUnit.setState(false, controlLines, "");   
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                   // End of microop.
     
     memory.setState(true, false);  // Second microoperation: MBR <-- M[MAR]
     controlLines[7] = 1;
     controlUnit.setState(false, controlLines, "MBR <-- M[MAR]"); 
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
         
     memory.setState(true, true);     // Turn on memory and connection to MBR
@@ -2392,18 +2432,18 @@ public class MarieDPath extends JFrame {
     controlLines[7] = 0; 
     regMBR.setState(true);              // Load MBR.
     controlUnit.setState(true, controlLines, "");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
         
     regMBR.setValue(memoryArray[regMAR.getValue()]);
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     memory.setState(false, false);      // Turn off bus and control unit.
     regMAR.setState(false);
     controlLines[1] = 0;
     controlLines[2] = 0;
     controlUnit.setState(false, controlLines, "");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                    // End of microop.
    
     controlLines[8] = 1;            //  Third microop: AC <-- AC - MBR. 
@@ -2411,12 +2451,12 @@ public class MarieDPath extends JFrame {
     aLU.setState(true);                   // Engage ALU.
     regAC.setState(true);                 // Enable AC.          
     controlUnit.setState(false, controlLines, "AC <-- AC - MBR"); 
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(briefDelay);
                                           // ASubtract value in MBR from value in AC.
     regAC.setValue(regAC.getValue() - regMBR.getValue());
     controlUnit.setState(false, controlLines, " "); 
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(briefDelay);
     
     regMBR.setState(false);               // Turn off MBR.
@@ -2424,12 +2464,12 @@ public class MarieDPath extends JFrame {
     aLU.setState(false);
     controlLines[8] = 0;
     controlUnit.setState(false, controlLines, " "); 
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                  // End of microop.
         
     regAC.setState(false);        // Turn off everything.
     controlUnit.setState(false, controlLines, " ");  
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
   } // subt()
  
   void input() {
@@ -2440,7 +2480,7 @@ public class MarieDPath extends JFrame {
     int[] controlLines = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
 
     controlUnit.setState(false, controlLines, "AC <-- InREG");   
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);    
        
     if (machineState == MARIE_RUNNING) {       // First time through???
@@ -2459,7 +2499,7 @@ public class MarieDPath extends JFrame {
        controlLines[4] = 0; 
        controlLines[5] = 1;     
        controlUnit.setState(true, controlLines, "(Decode IR[15-12])");
-       dataPathPanel.repaint();
+       repaints.mark(DRAW_DATA_PATH);
        waitABit(briefDelay);        
        controlUnit.setState(false, controlLines, "Waiting for input. . ."); 
        regINPUT.setState(true);       // Turn on InREG.
@@ -2488,11 +2528,11 @@ public class MarieDPath extends JFrame {
        memory.setState(false, true);  // Turn on bus.
        controlUnit.setState(false, controlLines, "AC <-- InREG");
        regAC.setState(true);          // Transfer to AC.   
-       dataPathPanel.repaint();
+       repaints.mark(DRAW_DATA_PATH);
        waitABit(briefDelay);
     
        regAC.setValue(regINPUT.getValue());
-       dataPathPanel.repaint();
+       repaints.mark(DRAW_DATA_PATH);
        waitABit(briefDelay);
     
        memory.setState(false, false); // Turn off bus, control lines, and InREG.
@@ -2503,7 +2543,7 @@ public class MarieDPath extends JFrame {
        controlLines[3] = 0;
        controlLines[5] = 0; 
        controlUnit.setState(false, controlLines, " ");  
-       dataPathPanel.repaint();
+       repaints.mark(DRAW_DATA_PATH);
        machineState = MARIE_RUNNING;             // Reset the machine state.
        if (stepping)  {                          // Proceed with next instruction
           setStatusMessage(" Press [Step] to continue.");        // or step.
@@ -2529,7 +2569,7 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 0; 
     controlLines[5] = 1;     
     controlUnit.setState(true, controlLines, "OutREG <-- AC");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);   
      
     controlUnit.setState(false, controlLines, "(Decode IR[15-12])"); 
@@ -2537,17 +2577,17 @@ public class MarieDPath extends JFrame {
     regOUTPUT.setState(true);      // Turn on OUTPUT.
     regIR.setState(false);         // Turn off IR.
     memory.setState(false, true);  // Turn on bus.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay); 
     
     controlUnit.setState(false, controlLines, "");   
     regOUTPUT.setValue(regAC.getValue());   // Transfer to OutREG.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     memory.setState(false, false); // Turn off bus, control lines, and AC.
     regAC.setState(false);
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                  // End of microop.
         
     regOUTPUT.setState(false);    // Turn off everything that's on.
@@ -2556,7 +2596,7 @@ public class MarieDPath extends JFrame {
     controlLines[3] = 0;
     controlLines[5] = 0; 
     controlUnit.setState(false, controlLines, " ");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
   } // output()
  
   void halt() { 
@@ -2579,11 +2619,11 @@ public class MarieDPath extends JFrame {
     aLU.setState(false);
     memory.setState(false, false);
     controlUnit.setState(false, controlLines, "");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     controlUnit.setState(false, controlLines, "Halt");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     if (fatalError) {
@@ -2597,7 +2637,7 @@ public class MarieDPath extends JFrame {
        setStatusMessage(" Machine halted normally.");
     }
     step.setEnabled(true);
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
    } // halt()
 
   void skipCond() { 
@@ -2622,7 +2662,7 @@ public class MarieDPath extends JFrame {
     }
     
     controlUnit.setState(false, controlLines, "(Decode IR[15-12])");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     controlLines[3] = 1; 
@@ -2633,7 +2673,7 @@ public class MarieDPath extends JFrame {
     switch (cond) {
       case 0:           // Accumulator negative?
         controlUnit.setState(true, controlLines, "IR[11-10] = 00");   
-        dataPathPanel.repaint();    // Display interrogation of IR, tho' we've 
+        repaints.mark(DRAW_DATA_PATH);    // Display interrogation of IR, tho' we've 
         waitABit(briefDelay);       // already checked it.
         controlLines[3] = 1;  
         controlLines[4] = 0;   
@@ -2643,7 +2683,7 @@ public class MarieDPath extends JFrame {
         controlLines[8] = 1;    // Engage ALU.
         aLU.setState(true);  
         controlUnit.setState(true, controlLines, "AC < 0?");
-        dataPathPanel.repaint();
+        repaints.mark(DRAW_DATA_PATH);
         waitABit(briefDelay); 
         if (accumulator < 0) {
           controlLines[0] = 0;  // Set contol lines to write to PC.
@@ -2657,7 +2697,7 @@ public class MarieDPath extends JFrame {
           regAC.setState(false);
           aLU.setState(false);  
           controlUnit.setState(true, controlLines, "PC <-- PC + 1");
-          dataPathPanel.repaint();
+          repaints.mark(DRAW_DATA_PATH);
           waitABit(briefDelay);
           regPC.setValue(regPC.getValue()+1);   // Increment PC.
         } // if
@@ -2667,7 +2707,7 @@ public class MarieDPath extends JFrame {
         break;
       case 1:  // Accumulator zero?
         controlUnit.setState(true, controlLines, "IR[11-10] = 01");   
-        dataPathPanel.repaint();    // Display interrogation of IR, tho' we've 
+        repaints.mark(DRAW_DATA_PATH);    // Display interrogation of IR, tho' we've 
         waitABit(briefDelay);       // already checked it.
         controlLines[3] = 1;  
         controlLines[4] = 0;   
@@ -2677,7 +2717,7 @@ public class MarieDPath extends JFrame {
         controlLines[8] = 1;    // Engage ALU.
         aLU.setState(true);  
         controlUnit.setState(true, controlLines, "AC = 0?");
-        dataPathPanel.repaint();
+        repaints.mark(DRAW_DATA_PATH);
         waitABit(delay); 
         if (accumulator == 0) {
           controlLines[0] = 0;  // Set contol lines to write to PC.
@@ -2691,7 +2731,7 @@ public class MarieDPath extends JFrame {
           regAC.setState(false);
           aLU.setState(false);  
           controlUnit.setState(true, controlLines, "PC <-- PC + 1");
-          dataPathPanel.repaint();
+          repaints.mark(DRAW_DATA_PATH);
           waitABit(briefDelay);
           regPC.setValue(regPC.getValue()+1);   // Increment PC.
         } // if  
@@ -2701,7 +2741,7 @@ public class MarieDPath extends JFrame {
         break;
       case 2:  // Accumulator positive?
         controlUnit.setState(true, controlLines, "IR[11-10] = 10");   
-        dataPathPanel.repaint();         // Display interrogation of IR, tho' we've 
+        repaints.mark(DRAW_DATA_PATH);         // Display interrogation of IR, tho' we've 
         waitABit(briefDelay);       // already checked it.
         controlLines[3] = 1;  
         controlLines[4] = 0;   
@@ -2711,7 +2751,7 @@ public class MarieDPath extends JFrame {
         controlLines[8] = 1;    // Engage ALU.
         aLU.setState(true);  
         controlUnit.setState(true, controlLines, "AC > 0?");
-        dataPathPanel.repaint();
+        repaints.mark(DRAW_DATA_PATH);
         waitABit(briefDelay); 
         if (accumulator > 0) {
           controlLines[0] = 0;  // Set contol lines to write to PC.
@@ -2725,7 +2765,7 @@ public class MarieDPath extends JFrame {
           regAC.setState(false);
           aLU.setState(false);  
           controlUnit.setState(true, controlLines, "PC <-- PC + 1");
-          dataPathPanel.repaint();
+          repaints.mark(DRAW_DATA_PATH);
           waitABit(briefDelay);
           regPC.setValue(regPC.getValue()+1);   // Increment PC.
         } // if  
@@ -2735,7 +2775,7 @@ public class MarieDPath extends JFrame {
      default:  // Should never get here.
         break;
     } // switch
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);
     controlLines[0] = 0;  // Turn everything off that we might have turned on.
     controlLines[1] = 0;
@@ -2748,7 +2788,7 @@ public class MarieDPath extends JFrame {
     aLU.setState(false);
     regPC.setState(false);  
     controlUnit.setState(false, controlLines, " ");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
   } // skipCond()
 
   void jump() { 
@@ -2760,7 +2800,7 @@ public class MarieDPath extends JFrame {
      int[] controlLines = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
      
      controlUnit.setState(false, controlLines, "(Decode IR[15-12])");
-     dataPathPanel.repaint();
+     repaints.mark(DRAW_DATA_PATH);
      waitABit(briefDelay);
      
      controlLines[0] = 0;         // Set contol lines to write to the PC...
@@ -2772,7 +2812,7 @@ public class MarieDPath extends JFrame {
      controlLines[5] = 1;
      controlUnit.setState(true, controlLines, "PC <-- IR[11 - 0]");
      memory.setState(false, true);  // Turn on the bus.
-     dataPathPanel.repaint();
+     repaints.mark(DRAW_DATA_PATH);
      waitABit(briefDelay);
 
      int addr = regIR.getValue();
@@ -2790,7 +2830,7 @@ public class MarieDPath extends JFrame {
      regPC.setState(false);  
      memory.setState(false, false);  // Turn on the bus.
      controlUnit.setState(false, controlLines, " ");
-     dataPathPanel.repaint();    
+     repaints.mark(DRAW_DATA_PATH);    
    } // jump()
    
   void clear() {
@@ -2800,7 +2840,7 @@ public class MarieDPath extends JFrame {
     int[] controlLines = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
     
     controlUnit.setState(false, controlLines, "(Decode IR[15-12])");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     controlLines[0] = 1;         // Set control lines to write to AC
@@ -2809,19 +2849,19 @@ public class MarieDPath extends JFrame {
     controlUnit.setState(true, controlLines, "AC <--- 0000");   
     
     regAC.setState(true);    // Activate AC
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);   
      
     regAC.setValue(0);
     controlUnit.setState(false, controlLines, "");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                  // End of microop.
         
     regAC.setState(false);        // Turn off everything that's on.
     regIR.setState(false);  
     controlLines[0] = 0;
     controlUnit.setState(false, controlLines, " ");  
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
   } // clear()
    
@@ -2834,7 +2874,7 @@ public class MarieDPath extends JFrame {
     
     regIR.setState(true);    
     controlUnit.setState(false, controlLines, "MAR <-- IR[11-0]");   
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     controlLines[0] = 0;         // Set control lines to read IR and write to MAR.
@@ -2846,13 +2886,13 @@ public class MarieDPath extends JFrame {
     regMAR.setState(true);             // Place address in MAR. 
     controlUnit.setState(true, controlLines, "");   
     memory.setState(false, true);      // Turn on bus.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
            
     int addr = regIR.getValue() & 0x0FFF;  // Strip address from instruction.
     regMAR.setValue(addr);  
     controlUnit.setState(false, controlLines, "");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regIR.setState(false);             // Turn off IR, control lines, and bus.
@@ -2864,7 +2904,7 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 0; 
     controlLines[5] = 0; 
     controlUnit.setState(false, controlLines, "(Decode IR[15-12])");   
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                   // End of microop.
     
                                    // Second microoperation: MBR <-- M[MAR]
@@ -2875,11 +2915,11 @@ public class MarieDPath extends JFrame {
     controlLines[2] = 1; 
     controlUnit.setState(true, controlLines, "");          
     regMBR.setState(true);           // Load MBR.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay); 
     addr = memoryArray[regMAR.getValue()];          // Retrieve operand's address from
     regMBR.setValue(addr);                          // memory and place into MBR.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                   // End of microop.
     
                                     // Third microop: MAR <-- MBR.
@@ -2892,12 +2932,12 @@ public class MarieDPath extends JFrame {
     controlLines[5] = 1;
     controlLines[7] = 0; 
     controlUnit.setState(true, controlLines, "MAR <-- MBR");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay); 
     
     regMAR.setValue(regMBR.getValue()); // Update the MAR.
     regMBR.setState(false);
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(delay);                 // End of microop.        
          
                                 // Fourth microoperation: MBR <-- M[MAR]
@@ -2912,11 +2952,11 @@ public class MarieDPath extends JFrame {
     controlLines[7] = 1; 
     controlUnit.setState(true, controlLines, "");          
     regMBR.setState(true);           // Load MBR.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay); 
     int operand = memoryArray[regMAR.getValue()];          // Retrieve operand from
     regMBR.setValue(operand);                              // memory and place into MBR.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                // End of microop.        
      
     controlLines[7] = 0;        //  Fifth microop: AC <-- AC + MBR. 
@@ -2928,7 +2968,7 @@ public class MarieDPath extends JFrame {
     controlUnit.setState(false, controlLines, "AC <-- AC + MBR"); 
     regMAR.setState(false);               // Turn off MAR, memory and bus.
     memory.setState(false, false); 
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(briefDelay);  
     regMBR.setState(false);               // Turn off MBR.
     controlLines[1] = 0;
@@ -2937,13 +2977,13 @@ public class MarieDPath extends JFrame {
                                           // Add value in MBR to value in AC.
     regAC.setValue(regAC.getValue() + regMBR.getValue());
     controlUnit.setState(false, controlLines, " "); 
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(briefDelay);
     
     aLU.setState(false);
     controlLines[8] = 0;
     controlUnit.setState(false, controlLines, " "); 
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                  // End of microop.
         
     regAC.setState(false);        // Turn off everything.
@@ -2955,7 +2995,7 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 0; 
     controlLines[5] = 0; 
     controlUnit.setState(false, controlLines, " ");  
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
   } // addI()
    
 
@@ -2978,14 +3018,14 @@ public class MarieDPath extends JFrame {
     regMAR.setState(true);             // Place address in MAR.
     controlUnit.setState(true, controlLines, "");   
     memory.setState(false, true);      // Turn on bus.
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     controlLines[7] = 1;          
     int addr = regIR.getValue() & 0x0FFF;  // Strip address from instruction.
     regMAR.setValue(addr);  
     controlUnit.setState(true, controlLines, "(Decode IR[15-12])");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay);
     
     regIR.setState(false);             // Turn off IR, control lines, and bus.
@@ -2997,7 +3037,7 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 0; 
     controlLines[5] = 0; 
     controlUnit.setState(false, controlLines, "");   
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                   // End of microop.
     
                                    // Second microoperation: MBR <-- M[MAR]
@@ -3007,14 +3047,14 @@ public class MarieDPath extends JFrame {
     controlLines[2] = 1; 
     regMBR.setState(true);           // Load MBR.
     controlUnit.setState(true, controlLines, "");          
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay); 
     
     addr = memoryArray[regMAR.getValue()];          // Retrieve target address from
     regMBR.setValue(addr);                          // memory and place into MBR.
     regMAR.setState(false);
     controlLines[7] = 0;
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(delay);                   // End of microop.
     
                                     // Third microop: PC <-- MBR.
@@ -3027,13 +3067,13 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 1;
     controlLines[5] = 1;
     controlUnit.setState(true, controlLines, "PC <-- MBR");
-    dataPathPanel.repaint();
+    repaints.mark(DRAW_DATA_PATH);
     waitABit(briefDelay); 
 
     regPC.setValue(regMBR.getValue()); // Update the PC.
     regMBR.setState(false);
     memory.setState(false, false);  
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
     waitABit(delay);                 // End of microop.        
       
     regPC.setState(false);        // Turn off everything.
@@ -3044,7 +3084,7 @@ public class MarieDPath extends JFrame {
     controlLines[4] = 0; 
     controlLines[5] = 0; 
     controlUnit.setState(false, controlLines, " ");  
-    dataPathPanel.repaint(); 
+    repaints.mark(DRAW_DATA_PATH); 
   } // jumpI()
    
    void execute () {
@@ -3132,6 +3172,113 @@ public class MarieDPath extends JFrame {
    runThread.start();
   } // runProgram()
   
+  void replayTrace() {
+/******************************************************************************************
+*   Plays back the trace file (see MarieTraceWriter) recorded for this program by the     *
+*   MarieSim simulator.  The program is reloaded, and then each recorded instruction is   *
+*   shown by setting the registers and memory to the values it left behind, one           *
+*   instruction per delay period, so the trace pane fills just as if the program were     *
+*   running.  The datapath itself is not animated.  As in a run, the replay thread only   *
+*   marks what has changed for the repaint scheduler, and hands the controls back to the  *
+*   event dispatching thread when it ends.  [Stop] ends the replay; the machine can then  *
+*   be stepped or run from where the replay left off.                                     *
+******************************************************************************************/
+    if (machineState == MARIE_RUNNING) {
+      setStatusMessage(" Stop the program before replaying a trace.");
+      return;
+    }
+    final MarieTraceReader reader;
+    try {
+      reader = new MarieTraceReader(mexFile+MarieTraceWriter.TRACE_TYPE);
+    }
+    catch (IOException e) {
+      setStatusMessage(" Cannot replay trace: "+e.getMessage());
+      return;
+    } // catch
+    loadProgram();
+    restart();
+    Runnable replayIt = new Runnable() {
+      public void run() {
+        String message = null;
+        try {
+          while ((machineState == MARIE_RUNNING) && reader.next()) {
+            regIR.value = reader.ir;                     // Set the registers quietly,
+            regAC.value = reader.ac;                     // then once through setValue()
+            regMBR.value = reader.mbr;                   // for a single line of trace.
+            regMAR.value = (short) (reader.mar & 0x0FFF);
+            if ((reader.flags & MarieTraceWriter.READ_INPUT) != 0)
+              regINPUT.value = reader.ac;
+            if ((reader.flags & MarieTraceWriter.PUT_OUTPUT) != 0)
+              regOUTPUT.value = reader.ac;
+            if ((reader.flags & MarieTraceWriter.WROTE_MEMORY) != 0)
+              core.loadWord(reader.writeAddress, reader.writeValue);
+            regPC.setValue(reader.pc);
+            int row = codeReference[reader.pc & 0x0FFF];  // Move the cursor at the
+            if (row != MarieProgram.NO_ROW)                // next frame.
+              programFocusRow = row;
+            repaints.mark(DRAW_PROGRAM);
+            repaints.mark(DRAW_DATA_PATH);
+            waitABit(delay);
+          } // while
+          message = " Replayed "+reader.getInstructionCount()+" instructions.";
+        }
+        catch (IOException e) {
+          message = " Replay stopped: "+e.getMessage();
+        } // catch
+        try {
+          reader.close();
+        }
+        catch (IOException e) {
+        } // catch
+        final String ending;                             // Null if [Stop] ended it.
+        if (machineState == MARIE_RUNNING) {
+          if (((regIR.getValue() >> 12) & 0x0F) == MarieCore.HALT)
+            machineState = MARIE_HALTED_NORMAL;
+          else
+            machineState = MARIE_PAUSED;
+          ending = message;
+        }
+        else
+          ending = null;
+        SwingUtilities.invokeLater(new Runnable() {      // The controls belong to the
+          public void run() {                            // event dispatching thread.
+            if (ending != null)
+              setStatusMessage(ending);
+            runStop.setText("Run");
+            runStop.setMnemonic('R');
+            step.setEnabled(true);
+          }
+        }); // Runnable
+      } // run()
+    }; // replayIt
+    restartItem.setEnabled(true);
+    step.setEnabled(false);
+    runStop.setText("Stop");
+    runStop.setMnemonic('T');
+    machineState = MARIE_RUNNING;
+    setStatusMessage(" Replaying trace.");
+    Thread replayThread = new Thread(replayIt);
+    replayThread.start();
+  } // replayTrace()
+
+  void drawTrace() {
+/******************************************************************************************
+*  Adds the trace lines written since the last frame to the trace area, in one piece,     *
+*  and scrolls to the last of them.  Run by the MarieRepaintScheduler on the event        *
+*  dispatching thread.                                                                    *
+******************************************************************************************/
+    String lines;
+    synchronized (traceLines) {
+      lines = traceLines.toString();
+      traceLines.setLength(0);
+    }
+    if (lines.length() == 0)
+      return;
+    traceTextArea.append(lines);
+    Document d = traceTextArea.getDocument();
+    traceTextArea.select(d.getLength(), d.getLength());  // Scroll to last entry made.
+  } // drawTrace()
+
   void waitABit(int howLong) {
    if (machineState == MARIE_RUNNING)
       try { 
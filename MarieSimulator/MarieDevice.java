@@ -0,0 +1,26 @@
+// File:        MarieDevice.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public interface MarieDevice {
+/******************************************************************************************
+*  A MarieDevice is a peripheral plugged into a MarieBus.  It occupies getSize()          *
+*  consecutive words of the address space, its registers:  LOAD, ADD, SUBT, ADDI, JUMPI   *
+*  and TAS of one of those words call read() instead of reading memory, and STORE and JNS *
+*  call write() instead of writing it.  Registers are numbered from 0 within the device.  *
+*                                                                                         *
+*  A device that does something over time (a transfer, a timer running down) asks the bus *
+*  to call tick() at some later cycle, with MarieBus.schedule(), rather than keeping a    *
+*  thread or a clock of its own, and may tell the program that it is done by raising an   *
+*  interrupt with MarieBus.raise().  Every method is called on the thread running the     *
+*  core.                                                                                  *
+******************************************************************************************/
+  public int  getSize();                         // Number of registers, in words.
+  public void attach(MarieBus bus);              // Plugged in (once, before use).
+  public int  read(int register);                // Program loaded a register.
+  public void write(int register, int value);    // Program stored into a register.
+  public void tick(long time);                   // The cycle asked for has come.
+  public void reset();                           // Machine reset or restarted.
+} // MarieDevice
@@ -0,0 +1,147 @@
+// File:        MarieGovernor.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public class MarieGovernor {
+/******************************************************************************************
+*  A MarieGovernor holds a running program to a chosen number of instructions per         *
+*  second.  The thread running the program calls pace() before each instruction.  Rather  *
+*  than sleeping a fixed time per instruction, the governor works out from                *
+*  System.nanoTime() how many instructions are due by now and lets that many run as a     *
+*  batch (the first at once, the nth at (n - 1) / rate seconds), sleeping only when the   *
+*  program has got ahead of the clock.  Rounding errors in the sleeps therefore do not    *
+*  add up, any rate from 1 up can be had, and at UNLIMITED the program never sleeps at    *
+*  all.                                                                                   *
+*                                                                                         *
+*  The governor also measures the rate actually achieved, over the last half second or    *
+*  so, for the simulator to show.                                                         *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final long UNLIMITED = 0;
+  static final int  MAX_BATCH = 1000;          // Instructions between looks at the clock.
+  static final long SECOND = 1000000000L;      // In nanoseconds.
+  static final long WINDOW = SECOND / 2;       // Time over which the rate is measured.
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  long rate;                                   // Instructions per second, or UNLIMITED.
+  long start;                                  // When pacing (re)started, and the
+  long executed;                               // instructions run since then.
+  int  batch = 0;                              // Instructions in this batch, and
+  int  allowance = 0;                          // those of them left to run.
+  long windowStart;                            // Start of this measuring window, and
+  long windowCount;                            // the instructions run in it.
+  long achieved = 0;                           // Rate measured in the last window.
+
+
+  public MarieGovernor(long rate) {
+    setRate(rate);
+  } // MarieGovernor()
+
+
+  public synchronized void setRate(long rate) {
+    if (rate < 0)
+      throw new IllegalArgumentException("Negative rate: " + rate);
+    this.rate = rate;
+    restart();
+  } // setRate()
+
+
+  public long getRate() {
+    return rate;
+  } // getRate()
+
+
+  public synchronized void restart() {
+/******************************************************************************************
+*  Starts pacing afresh.  Call this when a run starts, or resumes after waiting (e.g.,    *
+*  for input), so that the program does not race to make up the time it lost.             *
+******************************************************************************************/
+    start = System.nanoTime();
+    executed = 0;
+    batch = 0;
+    allowance = 0;
+    windowStart = start;
+    windowCount = 0;
+  } // restart()
+
+
+  public void pace() {
+/******************************************************************************************
+*  Returns when the next instruction may be run.                                          *
+******************************************************************************************/
+    if (allowance > 0) {
+      allowance--;
+      return;
+    }
+    nextBatch();
+  } // pace()
+
+
+  synchronized void nextBatch() {
+/******************************************************************************************
+*  Works out the next batch, sleeping until at least one instruction of it is due.  If    *
+*  the program has fallen more than a second behind, we start again from now rather       *
+*  than let it run flat out to catch up.                                                  *
+******************************************************************************************/
+    long now = System.nanoTime();
+    if (rate == UNLIMITED) {
+      batch = MAX_BATCH;
+      allowance = batch - 1;
+      executed += batch;
+      measure(now);
+      return;
+    }
+    long due = (long) ((double) (now - start) * rate / SECOND) + 1 - executed;
+    if (due > rate) {
+      start = now;
+      executed = 0;
+      due = 0;
+    }
+    if (due <= 0) {                             // Ahead of the clock:  wait for the
+      long wait = (long) ((double) executed * SECOND / rate) - (now - start);
+      if (wait > 0)                             // next instruction to fall due.
+        try {
+          Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+        }
+        catch (InterruptedException e) {
+        } // catch
+      due = 1;
+    }
+    batch = (int) Math.min(due, MAX_BATCH);
+    allowance = batch - 1;
+    executed += batch;
+    measure(System.nanoTime());
+  } // nextBatch()
+
+
+  void measure(long now) {
+/******************************************************************************************
+*  Adds the batch just let go (at now) to the count for this window and, once the window  *
+*  is long enough, works out the rate achieved in it.                                     *
+******************************************************************************************/
+    if (executed == batch) {                    // The first batch starts the window.
+      windowStart = now;
+      windowCount = 0;
+      return;
+    }
+    windowCount += batch;
+    if (now - windowStart >= WINDOW) {
+      achieved = Math.round((double) windowCount * SECOND / (now - windowStart));
+      windowStart = now;
+      windowCount = 0;
+    }
+  } // measure()
+
+
+  public long getAchievedRate() {
+/******************************************************************************************
+*  Returns the instructions run per second, as last measured.                             *
+******************************************************************************************/
+    return achieved;
+  } // getAchievedRate()
+} // MarieGovernor
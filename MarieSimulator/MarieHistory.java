@@ -0,0 +1,193 @@
+// File:        MarieHistory.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public class MarieHistory {
+/******************************************************************************************
+*  A MarieHistory is the undo log that lets a MarieCore run backwards.  Each time the     *
+*  core fetches an instruction it records what the instruction may change:  PC, AC,       *
+*  MAR, MBR, IR and the opcode, plus the old value of the memory word it writes (if it    *
+*  writes one), whether it read input or produced output and whether interrupts were      *
+*  enabled.  Taking an interrupt gets a record of its own, holding the PC interrupted,    *
+*  the line taken and the old return address in word 0.  Undoing an instruction is just   *
+*  putting those values back, so stepping back costs the same no matter how long the      *
+*  program has been running.                                                              *
+*                                                                                         *
+*  Each instruction takes two longs (16 bytes) in a ring buffer:                          *
+*                                                                                         *
+*      first:   PC (12 bits) | MAR (12) | AC (16) | MBR (16) | flags (8)                  *
+*      second:  IR (16) | opcode (4) | address written (12) | its old word (16) | input   *
+*               (or, for an interrupt, the line taken)                                    *
+*                                                                                         *
+*  The buffer starts small and doubles as needed up to the byte limit given to the        *
+*  constructor; after that the oldest instructions are forgotten.  A 64MB limit holds     *
+*  over four million instructions.                                                        *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final long DEFAULT_LIMIT = 64L * 1024 * 1024;   // Bytes.
+  static final int INITIAL_SIZE = 1 << 14;     // Longs allocated at first.
+
+  static final int WROTE_MEMORY = 1;           // Flags.
+  static final int PUT_OUTPUT   = 2;
+  static final int READ_INPUT   = 4;
+  static final int ENABLED      = 8;           // Interrupts were enabled.
+  static final int INTERRUPT    = 16;          // Record is of an interrupt taken.
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  long[] log = new long[INITIAL_SIZE];
+  int    maxLongs;                             // Size the log may grow to.
+  int    head = 0;                             // Index of the next record to write.
+  int    count = 0;                            // Records held.
+  int    current = -1;                         // Index of the instruction being run.
+
+
+  public MarieHistory(long limit) {
+/******************************************************************************************
+*  Creates an empty history that will use at most limit bytes.                            *
+******************************************************************************************/
+    long longs = Math.max(limit / 8, 2);
+    maxLongs = (int) Math.min(longs & ~1L, Integer.MAX_VALUE - 1);
+    if (log.length > maxLongs)
+      log = new long[maxLongs];
+  } // MarieHistory()
+
+
+  public int size() {
+    return count;
+  } // size()
+
+
+  public long getLimit() {
+    return 8L * maxLongs;
+  } // getLimit()
+
+
+  public void clear() {
+    head = 0;
+    count = 0;
+    current = -1;
+  } // clear()
+
+
+  void begin(MarieCore core) {
+/******************************************************************************************
+*  Records the machine as it is before the core fetches an instruction.                   *
+******************************************************************************************/
+    if ((count * 2 == log.length) && (log.length < maxLongs))
+      grow();
+    current = head;
+    log[head]     = ((long) (core.pc & 0xFFF) << 52)
+                    | ((long) (core.mar & 0xFFF) << 40)
+                    | ((long) (core.ac & 0xFFFF) << 24)
+                    | ((long) (core.mbr & 0xFFFF) << 8)
+                    | (core.interruptsEnabled ? ENABLED : 0);
+    log[head + 1] = ((long) (core.ir & 0xFFFF) << 48)
+                    | ((long) (core.instructionCode & 0xF) << 44);
+    head += 2;
+    if (head == log.length)
+      head = 0;
+    if (count * 2 < log.length)
+      count++;
+  } // begin()
+
+
+  void grow() {
+/******************************************************************************************
+*  Doubles the log (up to its limit), unwrapping the ring so the oldest record is first.  *
+******************************************************************************************/
+    long[] bigger = new long[(int) Math.min(2L * log.length, maxLongs)];
+    int oldest = head;                           // The log is full, so the oldest record
+    int n = log.length - oldest;                 // is the one we would overwrite next.
+    System.arraycopy(log, oldest, bigger, 0, n);
+    System.arraycopy(log, 0, bigger, n, oldest);
+    head = log.length;
+    if (current >= 0)
+      current = (current >= oldest) ? current - oldest : current + n;
+    log = bigger;
+  } // grow()
+
+
+  void wroteMemory(int address, int oldValue) {
+    if (current < 0)
+      return;
+    log[current] |= WROTE_MEMORY;
+    log[current + 1] |= ((long) (address & 0xFFF) << 32)
+                        | ((long) (oldValue & 0xFFFF) << 16);
+  } // wroteMemory()
+
+
+  void tookInterrupt(int line) {
+    if (current < 0)
+      return;
+    log[current] |= INTERRUPT;
+    log[current + 1] |= line;
+  } // tookInterrupt()
+
+
+  boolean interruptNext() {
+/******************************************************************************************
+*  Tells whether the record undo() would undo next is of an interrupt taken.              *
+******************************************************************************************/
+    if (count == 0)
+      return false;
+    int last = (head == 0) ? log.length - 2 : head - 2;
+    return (log[last] & INTERRUPT) != 0;
+  } // interruptNext()
+
+
+  void putOutput() {
+    if (current >= 0)
+      log[current] |= PUT_OUTPUT;
+  } // putOutput()
+
+
+  void readInput(int value) {
+    if (current < 0)
+      return;
+    log[current] |= READ_INPUT;
+    log[current + 1] |= (value & 0xFFFF);
+  } // readInput()
+
+
+  int undo(MarieCore core) {
+/******************************************************************************************
+*  Puts back the machine as it was before the most recent instruction (or interrupt)      *
+*  still in the history.  Returns the address of the memory word restored, -1 if the      *
+*  instruction did not write memory, or -2 if the history is empty.                       *
+******************************************************************************************/
+    if (count == 0)
+      return -2;
+    head = (head == 0) ? log.length - 2 : head - 2;
+    count--;
+    current = -1;
+    long first = log[head];
+    long second = log[head + 1];
+    core.pc  = (short) ((first >>> 52) & 0xFFF);
+    core.mar = (short) ((first >>> 40) & 0xFFF);
+    core.ac  = (short) ((first >>> 24) & 0xFFFF);
+    core.mbr = (short) ((first >>> 8) & 0xFFFF);
+    core.ir  = (short) ((second >>> 48) & 0xFFFF);
+    core.instructionCode = (int) ((second >>> 44) & 0xF);
+    int flags = (int) (first & 0xFF);
+    core.interruptsEnabled = ((flags & ENABLED) != 0);
+    if ((flags & INTERRUPT) != 0)                // The interrupt will be taken again.
+      core.pendingInterrupts |= 1 << (int) (second & 0xF);
+    if ((flags & PUT_OUTPUT) != 0)
+      core.outputCount = Math.max(0, core.outputCount - 1);
+    if ((flags & READ_INPUT) != 0) {             // The value read will be read again.
+      core.input = (short) (second & 0xFFFF);
+      core.inputReady = true;
+    }
+    if ((flags & WROTE_MEMORY) != 0) {
+      int address = (int) ((second >>> 32) & 0xFFF);
+      core.loadWord(address, (short) ((second >>> 16) & 0xFFFF));
+      return address;
+    }
+    return -1;
+  } // undo()
+} // MarieHistory
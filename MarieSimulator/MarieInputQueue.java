@@ -0,0 +1,78 @@
+// File:        MarieInputQueue.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public class MarieInputQueue implements MarieInputSource {
+/******************************************************************************************
+*  A MarieInputQueue is a MarieInputSource holding a list of values, taken in the order   *
+*  they were added.  Values may be added while a program is running (e.g., by the         *
+*  simulator's event thread while a run thread takes them), so the methods are            *
+*  synchronized.  The values are kept in a growable ring of ints.                         *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  int[] values = new int[16];
+  int   head = 0;                              // Index of the next value to take.
+  int   count = 0;                             // Values held.
+
+
+  public MarieInputQueue() {
+  } // MarieInputQueue()
+
+
+  public MarieInputQueue(int[] v) {
+    add(v);
+  } // MarieInputQueue()
+
+
+  public synchronized void add(int value) {
+    if (count == values.length) {              // Full:  double it, oldest value first.
+      int[] bigger = new int[2 * values.length];
+      int n = values.length - head;
+      System.arraycopy(values, head, bigger, 0, n);
+      System.arraycopy(values, 0, bigger, n, head);
+      values = bigger;
+      head = 0;
+    }
+    values[(head + count) % values.length] = value;
+    count++;
+  } // add()
+
+
+  public synchronized void add(int[] v) {
+    for (int i = 0; i < v.length; i++)
+      add(v[i]);
+  } // add()
+
+
+  public synchronized void clear() {
+    head = 0;
+    count = 0;
+  } // clear()
+
+
+  public synchronized int size() {
+    return count;
+  } // size()
+
+
+  public synchronized boolean hasInput() {
+    return count > 0;
+  } // hasInput()
+
+
+  public synchronized int nextInput() {
+/******************************************************************************************
+*  Takes the oldest value.  Throws a java.util.NoSuchElementException if there is none.   *
+******************************************************************************************/
+    if (count == 0)
+      throw new java.util.NoSuchElementException("Input queue is empty.");
+    int value = values[head];
+    head = (head + 1) % values.length;
+    count--;
+    return value;
+  } // nextInput()
+} // MarieInputQueue
@@ -0,0 +1,21 @@
+// File:        MarieInputSource.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public interface MarieInputSource {
+/******************************************************************************************
+*  A MarieInputSource supplies the values read by INPUT instructions, so that a           *
+*  MarieCore can run an input-heavy program without stopping to ask anyone.  When an      *
+*  INPUT instruction executes and no value has been supplied with supplyInput(), the      *
+*  core takes the next value from its source, if it has one attached and the source has   *
+*  a value, and carries on.  Only when the source is empty does the core block on the     *
+*  instruction, as it would with no source at all.  MarieInputQueue holds a list of       *
+*  values; MarieStreamInput reads them from a file or from standard input.                *
+*                                                                                         *
+*  The core calls these methods from whichever thread is running it.                      *
+******************************************************************************************/
+  public boolean hasInput();                          // Whether a value can be taken.
+  public int nextInput();                             // Takes the next value.
+} // MarieInputSource
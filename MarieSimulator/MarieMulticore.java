@@ -0,0 +1,195 @@
+// File:        MarieMulticore.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public class MarieMulticore {
+/******************************************************************************************
+*  A MarieMulticore is a MARIE multiprocessor:  a number of MarieCores, each with an AC,  *
+*  PC, IR, MAR and MBR of its own, sharing one 4096-word memory.  Each core is run on a   *
+*  host thread of its own, so a program that divides its work among the cores really      *
+*  does finish sooner on a host with more than one processor.                             *
+*                                                                                         *
+*  Every core runs the same program from its start address, and each starts with its      *
+*  own number (0 for the first core) in AC.  A program usually tests AC to send each      *
+*  core to code and variables of its own; cores must not share variables they store       *
+*  into except under a lock, and must not share code that is modified while they run      *
+*  (which includes the return address JNS stores), since each core keeps its own          *
+*  translated blocks.                                                                     *
+*                                                                                         *
+*  The memory-ordering model is that of a weakly ordered machine with locks:              *
+*                                                                                         *
+*     - Loading or storing a word is atomic.  No core sees half of another's store.       *
+*     - TAS X is atomic:  no other core's TAS, or store into X, comes between its load    *
+*       of X and its store of 1.  A core that takes a lock by looping until TAS loads 0   *
+*       then sees everything that the cores which held the lock before it had stored      *
+*       before they released it.                                                          *
+*     - A store into a word that TAS has set (a lock word) releases the lock:  every      *
+*       store the core made before it is seen by the next core to take the lock.          *
+*     - Any other store is seen by the other cores eventually (by the time each core has  *
+*       run SYNC_INTERVAL more instructions, or has stopped), but not necessarily at once *
+*       or in the order the stores were made.  A flag that one core stores and another    *
+*       loads in a loop does work, but the data the flag guards should be under a lock.   *
+*                                                                                         *
+*  Implementation Note:  TAS and stores into lock words are made holding the lock on      *
+*                        the memory array, and each core's thread takes and drops that    *
+*                        lock every SYNC_INTERVAL instructions, which is what makes       *
+*                        stores visible to the other threads.  Everything else runs       *
+*                        without locking, through the translator, so the cores scale.     *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int MAX_CORES = 64;
+  public static final int SYNC_INTERVAL = 1000;    // Instructions between publications.
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  MarieCore[] cores;
+  volatile boolean stopping = false;               // stop() has been called.
+
+
+  public MarieMulticore(int coreCount) {
+    if ((coreCount < 1) || (coreCount > MAX_CORES))
+      throw new IllegalArgumentException("Number of cores must be from 1 to "
+                                         + MAX_CORES + ".");
+    cores = new MarieCore[coreCount];
+    cores[0] = new MarieCore();
+    for (int i = 1; i < coreCount; i++)
+      cores[i] = new MarieCore(cores[0]);
+  } // MarieMulticore()
+
+
+  public int getCoreCount() {
+    return cores.length;
+  } // getCoreCount()
+
+
+  public MarieCore getCore(int i) {
+    return cores[i];
+  } // getCore()
+
+
+  public void setTranslating(boolean on) {
+    for (int i = 0; i < cores.length; i++)
+      cores[i].setTranslating(on);
+  } // setTranslating()
+
+
+  public void setInputSource(MarieInputSource s) {
+/******************************************************************************************
+*  Has every core's INPUT instructions take values from s, in whatever order the cores    *
+*  come to them.                                                                          *
+******************************************************************************************/
+    for (int i = 0; i < cores.length; i++)
+      cores[i].setInputSource(s);
+  } // setInputSource()
+
+
+  public void load(MarieProgram program) {
+/******************************************************************************************
+*  Resets every core, places the program in memory and readies every core to run it.      *
+*  Each core's translated blocks, breakpoints, history and counts go with the old         *
+*  program.  Core 0 is reset last, by loadInto(), since resetting any core clears the     *
+*  memory they share.                                                                     *
+******************************************************************************************/
+    for (int i = 1; i < cores.length; i++)
+      cores[i].reset();
+    program.loadInto(cores[0]);
+    restart(program.startAddress);
+  } // load()
+
+
+  public void restart(int startAddress) {
+/******************************************************************************************
+*  Readies every core to run from startAddress, with its number in AC.                    *
+******************************************************************************************/
+    for (int i = 0; i < cores.length; i++) {
+      cores[i].restart(startAddress);
+      cores[i].ac = (short) i;
+    }
+  } // restart()
+
+
+  public long run(final long maxInstructions) {
+/******************************************************************************************
+*  Runs the cores, each on a thread of its own, until every one of them has halted,       *
+*  blocked for input, been stopped or run maxInstructions instructions.  Returns the      *
+*  number of instructions all of them ran.                                                *
+******************************************************************************************/
+    stopping = false;
+    final long[] counts = new long[cores.length];
+    Thread[] threads = new Thread[cores.length];
+    for (int i = 0; i < cores.length; i++) {
+      final int n = i;
+      threads[i] = new Thread(new Runnable() {
+        public void run() {
+          counts[n] = runCore(cores[n], maxInstructions);
+        }
+      }, "MARIE core " + i);
+      threads[i].start();
+    }
+    boolean interrupted = false;
+    for (int i = 0; i < threads.length; i++)
+      while (threads[i].isAlive())
+        try {
+          threads[i].join();
+        }
+        catch (InterruptedException e) {          // Stop the cores, then carry on
+          interrupted = true;                      // waiting for them.
+          stop();
+        } // catch
+    if (interrupted)
+      Thread.currentThread().interrupt();
+    long total = 0;
+    for (int i = 0; i < counts.length; i++)
+      total += counts[i];
+    return total;
+  } // run()
+
+
+  long runCore(MarieCore core, long maxInstructions) {
+/******************************************************************************************
+*  The body of each core's thread.  Between runs of SYNC_INTERVAL instructions it takes   *
+*  the lock on memory, which publishes its own stores and lets it see the others'.        *
+******************************************************************************************/
+    long count = 0;
+    while ((core.machineState == MarieCore.MARIE_RUNNING) && (count < maxInstructions)) {
+      count += core.run(Math.min(SYNC_INTERVAL, maxInstructions - count));
+      synchronized (core.memory) {
+        if (stopping)
+          core.machineState = MarieCore.MARIE_HALTED_BY_USER;
+      }
+    }
+    return count;
+  } // runCore()
+
+
+  public void stop() {
+/******************************************************************************************
+*  Stops every core, within SYNC_INTERVAL instructions, as MARIE_HALTED_BY_USER.  May be  *
+*  called from any thread.                                                                *
+******************************************************************************************/
+    stopping = true;
+  } // stop()
+
+
+  public int[] getOutput() {
+/******************************************************************************************
+*  Returns everything the cores sent to OUTPUT:  core 0's output, then core 1's, and so   *
+*  on.                                                                                    *
+******************************************************************************************/
+    int length = 0;
+    for (int i = 0; i < cores.length; i++)
+      length += cores[i].getOutputCount();
+    int[] all = new int[length];
+    int n = 0;
+    for (int i = 0; i < cores.length; i++) {
+      int[] some = cores[i].getOutput();
+      System.arraycopy(some, 0, all, n, some.length);
+      n += some.length;
+    }
+    return all;
+  } // getOutput()
+} // MarieMulticore
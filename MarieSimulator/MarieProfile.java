@@ -0,0 +1,194 @@
+// File:        MarieProfile.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.util.*;
+
+public class MarieProfile {
+/******************************************************************************************
+*  A MarieProfile counts where a MarieCore spends its time:  how many times the           *
+*  instruction at each address was run, how often each SKIPCOND skipped and how often     *
+*  it did not, and how many times each address was reached by a backward JUMP or JUMPI    *
+*  (the head of a loop).  Attach one with MarieCore.setProfile().                         *
+*                                                                                         *
+*  The counters are plain arrays of longs indexed by address, so profiling costs a few    *
+*  array increments per instruction and can be left on for batch runs.  Compiled blocks   *
+*  are not given up while profiling:  a block covers a run of consecutive addresses,      *
+*  every one of which is run each time the block is, so a block run is recorded as two    *
+*  entries in a difference array (plus one at the block's entry, minus one just past      *
+*  its end) and the per-address counts are summed out only when someone asks for them.    *
+*  Only a block's last instruction can be a SKIPCOND or a jump, and where it went is      *
+*  read from the PC after the block has run.                                              *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  long[] interpreted = new long[MarieCore.MEMORY_SIZE];     // Runs by the interpreter.
+  long[] blockRuns   = new long[MarieCore.MEMORY_SIZE + 1]; // Block runs, as differences.
+  long[] skipsTaken  = new long[MarieCore.MEMORY_SIZE];     // SKIPCOND outcomes.
+  long[] skipsNotTaken = new long[MarieCore.MEMORY_SIZE];
+  long[] loopEntries = new long[MarieCore.MEMORY_SIZE];     // Backward jumps arriving.
+  int    current = -1;                         // Address of the instruction being run.
+
+
+  public void clear() {
+    Arrays.fill(interpreted, 0);
+    Arrays.fill(blockRuns, 0);
+    Arrays.fill(skipsTaken, 0);
+    Arrays.fill(skipsNotTaken, 0);
+    Arrays.fill(loopEntries, 0);
+    current = -1;
+  } // clear()
+
+
+  void fetched(int address) {
+    interpreted[address]++;
+    current = address;
+  } // fetched()
+
+
+  void retired(MarieCore core) {
+/******************************************************************************************
+*  Called when the interpreter has finished the instruction at current.                   *
+******************************************************************************************/
+    if (current >= 0)
+      branched(current, core.instructionCode, core.pc);
+  } // retired()
+
+
+  void ranBlock(int entry, int length, MarieCore core) {
+/******************************************************************************************
+*  Called when a compiled block of length instructions starting at entry has run.         *
+******************************************************************************************/
+    blockRuns[entry]++;
+    blockRuns[entry + length]--;
+    branched(entry + length - 1, core.instructionCode, core.pc);
+  } // ranBlock()
+
+
+  void branched(int address, int opcode, int pc) {
+/******************************************************************************************
+*  Records where the instruction at address sent the machine, if it is a SKIPCOND or a    *
+*  jump.  pc is the address of the next instruction to be run.                            *
+******************************************************************************************/
+    if (opcode == MarieCore.SKIPCOND) {          // Kept small (no switch) so that the
+      if (pc == ((address + 2) & MarieCore.MAX_MARIE_ADDR))   // JVM will inline it.
+        skipsTaken[address]++;
+      else
+        skipsNotTaken[address]++;
+    }
+    else if ((pc <= address)
+              && ((opcode == MarieCore.JUMP) || (opcode == MarieCore.JUMPI)))
+      loopEntries[pc]++;
+  } // branched()
+
+
+  public long[] getCounts() {
+/******************************************************************************************
+*  Returns the number of times the instruction at each address has been run.              *
+******************************************************************************************/
+    long[] counts = new long[MarieCore.MEMORY_SIZE];
+    long inBlocks = 0;
+    for (int addr = 0; addr < counts.length; addr++) {
+      inBlocks += blockRuns[addr];
+      counts[addr] = interpreted[addr] + inBlocks;
+    }
+    return counts;
+  } // getCounts()
+
+
+  public long getSkipsTaken(int address) {
+    return skipsTaken[address & MarieCore.MAX_MARIE_ADDR];
+  } // getSkipsTaken()
+
+
+  public long getSkipsNotTaken(int address) {
+    return skipsNotTaken[address & MarieCore.MAX_MARIE_ADDR];
+  } // getSkipsNotTaken()
+
+
+  public long getLoopEntries(int address) {
+    return loopEntries[address & MarieCore.MAX_MARIE_ADDR];
+  } // getLoopEntries()
+
+
+  public String report(AssembledCodeLine[] codeLines, int limit) {
+/******************************************************************************************
+*  Returns a hot-spot report listing the (at most) limit addresses run most often,        *
+*  busiest first.  Each line gives the address, the program statement there and its row   *
+*  in the program monitor (found through codeLines, the program's lines in load order,    *
+*  which may be null), how many times it ran and its share of all instructions run, what  *
+*  each SKIPCOND did and how many times the address was entered by a backward jump.       *
+*  Addresses never run are left out.                                                      *
+******************************************************************************************/
+    final long[] counts = getCounts();
+    int[] row = MarieProgram.rowIndex((codeLines == null) ? null
+                                                          : Arrays.asList(codeLines));
+    long total = 0;
+    Vector<Integer> hot = new Vector<Integer>();
+    for (int addr = 0; addr < counts.length; addr++)
+      if (counts[addr] > 0) {
+        total += counts[addr];
+        hot.add(Integer.valueOf(addr));
+      }
+    Collections.sort(hot, new Comparator<Integer>() {
+      public int compare(Integer a, Integer b) {
+        long ca = counts[a.intValue()];
+        long cb = counts[b.intValue()];
+        return (ca > cb) ? -1 : ((ca < cb) ? 1 : 0);
+      }
+    }); // Comparator
+    StringBuffer out = new StringBuffer();
+    out.append(total+" instructions run at "+hot.size()+" addresses.\n\n");
+    out.append(reportLine(new String[] {"Rank", "Addr", "Row", "Statement", "Count", "%",
+                                        "Skipped", "Not skipped", "Loop entries"}));
+    for (int i = 0; (i < hot.size()) && (i < limit); i++) {
+      int addr = hot.elementAt(i).intValue();
+      String text = "";
+      if (row[addr] != MarieProgram.NO_ROW) {
+        AssembledCodeLine line = codeLines[row[addr]];
+        text = ((line.stmtLabel.trim().length() > 0) ? line.stmtLabel.trim()+", " : "")
+               +line.mnemonic.trim()+" "+line.operandToken.trim();
+      }
+      long tenths = (counts[addr] * 1000 + total / 2) / total;
+      boolean isSkip = (skipsTaken[addr] + skipsNotTaken[addr] > 0);
+      out.append(reportLine(new String[] {
+                   Integer.toString(i + 1),
+                   Integer.toHexString(0x1000 | addr).substring(1).toUpperCase(),
+                   (row[addr] == MarieProgram.NO_ROW) ? ""
+                                                      : Integer.toString(row[addr] + 1),
+                   text,
+                   Long.toString(counts[addr]),
+                   (tenths / 10)+"."+(tenths % 10),
+                   isSkip ? Long.toString(skipsTaken[addr]) : "",
+                   isSkip ? Long.toString(skipsNotTaken[addr]) : "",
+                   (loopEntries[addr] > 0) ? Long.toString(loopEntries[addr]) : ""}));
+    } // for
+    return out.toString();
+  } // report()
+
+
+  static final int[] columnWidths = {5, 6, 6, -30, 13, 7, 12, 12, 14};  // Negative:
+                                                                        // left-justified.
+  static String reportLine(String[] cells) {
+    StringBuffer line = new StringBuffer();
+    for (int c = 0; c < cells.length; c++) {
+      int width = Math.abs(columnWidths[c]);
+      if (columnWidths[c] < 0)
+        line.append("  ");
+      for (int n = cells[c].length(); n < width; n++)
+        if (columnWidths[c] > 0)
+          line.append(' ');
+      line.append(cells[c]);
+      if (columnWidths[c] < 0)
+        for (int n = cells[c].length(); n < width; n++)
+          line.append(' ');
+    } // for
+    int end = line.length();
+    while ((end > 0) && (line.charAt(end - 1) == ' '))
+      end--;
+    line.setLength(end);
+    return line.append('\n').toString();
+  } // reportLine()
+} // MarieProfile
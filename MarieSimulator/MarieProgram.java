@@ -0,0 +1,117 @@
+// File:        MarieProgram.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+import java.util.*;
+
+public class MarieProgram {
+/******************************************************************************************
+*  A MarieProgram is an assembled program read from a MARIE executable (.mex) file,       *
+*  ready to be loaded into a MarieCore.  The file is read exactly as the simulators       *
+*  read it:  it holds serialized AssembledCodeLine objects, and lines without a memory    *
+*  address (e.g., ORG and END directives) are skipped.  The first line with an address    *
+*  is where the program starts.                                                           *
+*                                                                                         *
+*  Reading a program does not touch a MarieCore, so one MarieProgram can be loaded into   *
+*  any number of cores.                                                                   *
+******************************************************************************************/
+  public String                name;          // File the program was read from.
+  public AssembledCodeLine[]   codeLines;     // Lines that have an address, in order.
+  public int[]                 addresses;     // Memory address and machine word of
+  public int[]                 words;         // each of the codeLines.
+  public int                   startAddress;  // Address of first instruction.
+
+  public static final int NO_ROW = -1;        // rowIndex() entry for an address that has
+                                              // no program statement.
+
+
+  public static int[] rowIndex(List<?> codeVector) {
+/******************************************************************************************
+*  Builds the table the simulators and profile reports use to find the monitor row of     *
+*  the instruction at an address:  element addr holds the position in codeVector of the   *
+*  AssembledCodeLine for addr, or NO_ROW.  Passing null gives a table with no rows.       *
+******************************************************************************************/
+    int[] index = new int[MarieCore.MEMORY_SIZE];
+    Arrays.fill(index, NO_ROW);
+    if (codeVector == null)
+      return index;
+    for (int row = 0; row < codeVector.size(); row++) {
+      AssembledCodeLine aCodeLine = (AssembledCodeLine) codeVector.get(row);
+      try {
+        int addr = Integer.parseInt(aCodeLine.lineNo.trim(), 16);
+        if ((addr >= 0) && (addr < index.length))
+          index[addr] = row;
+      }
+      catch (NumberFormatException e) {
+        continue;
+      } // catch
+    } // for
+    return index;
+  } // rowIndex()
+
+
+  public static MarieProgram load(String fileName) throws IOException {
+/******************************************************************************************
+*  Reads the named .mex file.  Throws an IOException if the file cannot be read or does   *
+*  not hold a MARIE program.                                                              *
+******************************************************************************************/
+    ObjectInputStream objFileIn = new ObjectInputStream(new FileInputStream(fileName));
+    Vector<AssembledCodeLine> codeVector = new Vector<AssembledCodeLine>();
+    try {
+      while (true) {
+        AssembledCodeLine aCodeLine = (AssembledCodeLine) objFileIn.readObject();
+        if (aCodeLine == null)
+          break;
+        if (aCodeLine.lineNo.charAt(0) != ' ')
+          codeVector.add(aCodeLine);
+        if (codeVector.size() > MarieCore.MAX_MARIE_ADDR)
+          throw new IOException(fileName + ": " + MarieCore.errorMsgs[8]);
+      } // while
+    } // try
+    catch (EOFException e) {                     // At EOF, we're done.
+    } // catch
+    catch (ClassNotFoundException e) {
+      throw new IOException(fileName + ": " + MarieCore.errorMsgs[4]);
+    } // catch
+    catch (ClassCastException e) {
+      throw new IOException(fileName + ": " + MarieCore.errorMsgs[4]);
+    } // catch
+    finally {
+      objFileIn.close();
+    } // finally
+    if (codeVector.size() == 0)
+      throw new IOException(fileName + ": no program statements.");
+    MarieProgram program = new MarieProgram();
+    program.name = fileName;
+    int count = codeVector.size();
+    program.codeLines = new AssembledCodeLine[count];
+    program.addresses = new int[count];
+    program.words = new int[count];
+    for (int i = 0; i < count; i++) {
+      AssembledCodeLine aCodeLine = codeVector.elementAt(i);
+      program.codeLines[i] = aCodeLine;
+      try {
+        program.addresses[i] = Integer.parseInt(aCodeLine.lineNo, 16);
+        program.words[i] = Integer.parseInt(aCodeLine.hexCode+aCodeLine.operand, 16);
+      }
+      catch (NumberFormatException e) {
+        throw new IOException(fileName + ": " + MarieCore.errorMsgs[4]);
+      } // catch
+    } // for
+    program.startAddress = program.addresses[0];
+    return program;
+  } // load()
+
+
+  public void loadInto(MarieCore core) {
+/******************************************************************************************
+*  Resets core, places the program in its memory and readies it to run.                   *
+******************************************************************************************/
+    core.reset();
+    for (int i = 0; i < words.length; i++)
+      core.loadWord(addresses[i], words[i]);
+    core.restart(startAddress);
+  } // loadInto()
+} // MarieProgram
@@ -0,0 +1,71 @@
+// File:        MarieRandom.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.util.Random;
+
+public class MarieRandom implements MarieDevice {
+/******************************************************************************************
+*  A MarieRandom is a source of pseudo-random numbers on a MarieBus.  It has two          *
+*  registers:                                                                             *
+*                                                                                         *
+*       DATA (0)   Loading gives the next number, from 0 to 32767.                        *
+*       SEED (1)   Storing a value restarts the sequence from that seed.  Loading gives   *
+*                  the seed last used.                                                    *
+*                                                                                         *
+*  The sequence starts from the same seed each time the machine is reset or the program   *
+*  restarted, so that a run can be repeated exactly; a program that wants different       *
+*  numbers each run can store something that varies (e.g., a count of input it waited     *
+*  for) into SEED.                                                                        *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int DATA = 0;                 // Register numbers.
+  public static final int SEED = 1;
+  public static final int DEFAULT_SEED = 1;
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  int    initialSeed;
+  int    seed;
+  Random random;
+
+
+  public MarieRandom(int seed) {
+    initialSeed = seed;
+    reset();
+  } // MarieRandom()
+
+
+  public int getSize() {
+    return 2;
+  } // getSize()
+
+
+  public void attach(MarieBus bus) {
+  } // attach()
+
+
+  public int read(int register) {
+    return (register == DATA) ? random.nextInt(Short.MAX_VALUE + 1) : seed;
+  } // read()
+
+
+  public void write(int register, int value) {
+    if (register == SEED) {
+      seed = value;
+      random = new Random(seed);
+    }
+  } // write()
+
+
+  public void tick(long time) {                     // Never schedules anything.
+  } // tick()
+
+
+  public void reset() {
+    write(SEED, initialSeed);
+  } // reset()
+} // MarieRandom
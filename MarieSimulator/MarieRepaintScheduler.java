@@ -0,0 +1,97 @@
+// File:        MarieRepaintScheduler.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.awt.event.*;
+
+public class MarieRepaintScheduler implements ActionListener {
+/******************************************************************************************
+*  A MarieRepaintScheduler brings a simulator's display up to date with the machine at    *
+*  no more than a fixed number of frames per second.  The thread running the program      *
+*  does not touch Swing components itself:  it marks what has changed (the registers,     *
+*  the data path, the program cursor, ...) by number, and at the next frame the action    *
+*  registered for each marked number is run, once, on the event dispatching thread.       *
+*  However many times something is marked between frames, it is drawn only once, so       *
+*  lowering the delay between instructions cannot flood the screen with paint requests.   *
+*                                                                                         *
+*  The frame rate may be changed with setFrameRate(); it starts at the value of the       *
+*  marie.frameRate system property, or DEFAULT_FRAME_RATE if that is not set.  Call       *
+*  flush() on the event dispatching thread to draw everything marked at once.             *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int DEFAULT_FRAME_RATE = 30;     // Frames per second.
+  public static final int MAX_FRAME_RATE     = 100;
+  public static final int MAX_ACTIONS        = 32;     // One bit of dirty for each.
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  Runnable[] actions = new Runnable[MAX_ACTIONS];
+  int        dirty = 0;                        // Bit n set:  run actions[n] next frame.
+  int        frameRate;
+  javax.swing.Timer timer;                     // Started by the first mark in a frame.
+
+
+  public MarieRepaintScheduler() {
+    timer = new javax.swing.Timer(1000, this);
+    timer.setRepeats(false);
+    setFrameRate(Integer.getInteger("marie.frameRate", DEFAULT_FRAME_RATE).intValue());
+  } // MarieRepaintScheduler()
+
+
+  public void setAction(int what, Runnable action) {
+    actions[what] = action;
+  } // setAction()
+
+
+  public void setFrameRate(int framesPerSecond) {
+/******************************************************************************************
+*  Sets the number of frames drawn per second, at most.  Throws an                        *
+*  IllegalArgumentException if it is not between 1 and MAX_FRAME_RATE.                    *
+******************************************************************************************/
+    if ((framesPerSecond < 1) || (framesPerSecond > MAX_FRAME_RATE))
+      throw new IllegalArgumentException("Frame rate must be from 1 to "
+                                         +MAX_FRAME_RATE+".");
+    frameRate = framesPerSecond;
+    timer.setInitialDelay(1000 / framesPerSecond);
+  } // setFrameRate()
+
+
+  public int getFrameRate() {
+    return frameRate;
+  } // getFrameRate()
+
+
+  public synchronized void mark(int what) {
+/******************************************************************************************
+*  Asks for the action registered for what to be run at the next frame.  May be called    *
+*  from any thread.                                                                       *
+******************************************************************************************/
+    if (dirty == 0)
+      timer.start();
+    dirty |= 1 << what;
+  } // mark()
+
+
+  public void flush() {
+/******************************************************************************************
+*  Runs the actions for everything marked since the last frame.  Only to be called on     *
+*  the event dispatching thread.                                                          *
+******************************************************************************************/
+    int marked;
+    synchronized (this) {
+      marked = dirty;
+      dirty = 0;
+    }
+    for (int what = 0; marked != 0; what++, marked >>>= 1)
+      if (((marked & 1) != 0) && (actions[what] != null))
+        actions[what].run();
+  } // flush()
+
+
+  public void actionPerformed(ActionEvent e) {          // The timer has fired.
+    flush();
+  } // actionPerformed()
+} // MarieRepaintScheduler
@@ -0,0 +1,279 @@
+// File:        MarieRunner.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.IOException;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+public class MarieRunner implements Runnable {
+/******************************************************************************************
+*  A MarieRunner owns the one thread that runs a MarieCore.  Other threads never run      *
+*  instructions themselves; they send the runner commands:  start() runs the program in   *
+*  one of the modes below (or just one instruction, for STEP), replay() plays a trace     *
+*  back into it, and stop() and pause() end the command in hand.  A command is a single   *
+*  atomic int, so sending one never blocks and two starts can never race each other into  *
+*  running two interpreters over the same machine:  the second start() (or replay())      *
+*  finds the runner busy and returns false.                                               *
+*                                                                                         *
+*  While it runs, the runner publishes MarieSnapshots of the registers whenever one has   *
+*  been asked for (see requestSnapshot()), and one last snapshot when each command ends,  *
+*  passing them to its MarieRunnerListener.  Instructions are run holding the lock on     *
+*  the core, so a front end may still lock the core to read its memory between them.      *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int RUN               = 1;   // Commands:  run at the governor's
+  public static final int RUN_TO_BREAKPOINT = 2;   // pace (pausing at breakpoints), run
+  public static final int TURBO             = 3;   // flat out, or run one instruction.
+  public static final int STEP              = 4;
+  public static final int REPLAY            = 5;   // Commanded only by replay().
+  public static final int BATCH = 10000;           // Turbo instructions per lock.
+  static final int IDLE  = 0;
+  static final int MODE  = 0x0f;                   // Bits of command holding the mode.
+  static final int STOP  = 0x10;                   // Signals, or'ed into the command.
+  static final int PAUSE = 0x20;
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  MarieCore           core;
+  MarieGovernor       governor;
+  MarieRunnerListener listener;
+  AtomicInteger command = new AtomicInteger(IDLE);
+  AtomicBoolean snapshotWanted = new AtomicBoolean(false);
+  AtomicReference<MarieTraceReader> replayReader       // Handed over by replay().
+                                 = new AtomicReference<MarieTraceReader>(null);
+  volatile IOException replayError = null;         // Why the last replay failed.
+  volatile MarieSnapshot snapshot = null;          // Latest published.
+  int    lastAddress = -1;                         // Owned by thread, like the core.
+  Thread thread;
+
+
+  public MarieRunner(MarieCore core, MarieGovernor governor,
+                     MarieRunnerListener listener) {
+    this.core = core;
+    this.governor = governor;
+    this.listener = listener;
+    thread = new Thread(this, "MARIE runner");
+    thread.setDaemon(true);
+    thread.start();
+  } // MarieRunner()
+
+
+  public boolean start(int mode) {
+/******************************************************************************************
+*  Starts the runner on a command, unless it is already busy with one, in which case      *
+*  nothing happens and false is returned.  The caller should have the machine ready to    *
+*  run (e.g., restarted, or resumed after input):  the runner does not change its state   *
+*  before running.                                                                        *
+******************************************************************************************/
+    if (!command.compareAndSet(IDLE, mode))
+      return false;
+    LockSupport.unpark(thread);
+    return true;
+  } // start()
+
+
+  public boolean replay(MarieTraceReader reader) {
+/******************************************************************************************
+*  Starts the runner applying the records of reader to the machine at full speed, unless  *
+*  it is busy, in which case false is returned.  The replay pauses the machine after a    *
+*  breakpoint instruction and otherwise leaves it running where the trace runs out.       *
+*  The runner closes reader when it is done with it; if the trace could not be read,      *
+*  getReplayError() says why.  As with start(), the machine should be ready to run.       *
+******************************************************************************************/
+    if (!replayReader.compareAndSet(null, reader))
+      return false;                                // Another replay is starting.
+    if (start(REPLAY))
+      return true;
+    replayReader.set(null);
+    return false;
+  } // replay()
+
+
+  public IOException getReplayError() {
+    return replayError;
+  } // getReplayError()
+
+
+  public boolean stop() {
+/******************************************************************************************
+*  Ends the command in hand with the machine MARIE_HALTED_BY_USER.  If the runner is      *
+*  idle (e.g., the machine is waiting for input), it is given a command that does         *
+*  nothing but halt the machine, so that only the runner changes the machine and the      *
+*  listener hears of it in the usual way.  Returns false if the runner was idle.          *
+******************************************************************************************/
+    if (signal(STOP))
+      return true;
+    if (command.compareAndSet(IDLE, STOP))
+      LockSupport.unpark(thread);
+    return false;
+  } // stop()
+
+
+  public boolean pause() {
+/******************************************************************************************
+*  Ends the command in hand with the machine MARIE_PAUSED, so that it can be resumed by   *
+*  starting it again.  Returns false if the runner was idle.                              *
+******************************************************************************************/
+    return signal(PAUSE);
+  } // pause()
+
+
+  boolean signal(int bit) {
+    while (true) {
+      int c = command.get();
+      if (c == IDLE)
+        return false;
+      if (command.compareAndSet(c, c | bit))
+        return true;
+    }
+  } // signal()
+
+
+  public boolean isBusy() {
+    return command.get() != IDLE;
+  } // isBusy()
+
+
+  public void requestSnapshot() {
+/******************************************************************************************
+*  Asks for a snapshot to be published after the next instruction (or turbo batch).       *
+******************************************************************************************/
+    snapshotWanted.set(true);
+  } // requestSnapshot()
+
+
+  public MarieSnapshot getSnapshot() {
+/******************************************************************************************
+*  Returns the machine as last published or, when the runner is idle, as it is now.       *
+******************************************************************************************/
+    if (isBusy())
+      return snapshot;
+    synchronized (core) {
+      return new MarieSnapshot(core, lastAddress);
+    }
+  } // getSnapshot()
+
+
+  public void run() {
+/******************************************************************************************
+*  The runner's thread:  waits for a command, carries it out and reports the result,      *
+*  for as long as the program does.                                                       *
+******************************************************************************************/
+    while (true) {
+      int c = command.get();
+      if (c == IDLE) {
+        LockSupport.park(this);
+        continue;
+      }
+      runCommand(c & MODE);
+      synchronized (core) {
+        c = command.getAndSet(IDLE);               // Idle before the listener hears, so
+        if ((c & STOP) != 0)                       // it may start the runner again.  A
+          core.machineState = MarieCore.MARIE_HALTED_BY_USER;  // later signal finds the
+        else if ((c & PAUSE) != 0)                             // runner idle.
+          if (core.machineState == MarieCore.MARIE_RUNNING)
+            core.machineState = MarieCore.MARIE_PAUSED;
+        snapshot = new MarieSnapshot(core, lastAddress);
+      }
+      snapshotWanted.set(false);
+      if (listener != null)
+        listener.runEnded(snapshot);
+    } // while
+  } // run()
+
+
+  void runCommand(int mode) {
+/******************************************************************************************
+*  Runs the machine in the given mode until it stops running or a signal arrives.  The    *
+*  signals are checked after every instruction, or every BATCH instructions in turbo      *
+*  mode, which only the translator can make quick enough to matter.                       *
+******************************************************************************************/
+    if (mode == STEP) {
+      synchronized (core) {
+        stepOne();
+      }
+      return;
+    }
+    if (mode == REPLAY) {
+      replayTrace();
+      return;
+    }
+    if (mode == IDLE)                              // Nothing to do but STOP.
+      return;
+    if (mode != TURBO)
+      governor.restart();
+    while (command.get() == mode) {                // No signal yet.
+      synchronized (core) {
+        if (core.machineState != MarieCore.MARIE_RUNNING)
+          return;
+        if (mode == TURBO)
+          core.run(BATCH);
+        else {
+          stepOne();
+          if ((mode == RUN_TO_BREAKPOINT)
+               && (core.machineState == MarieCore.MARIE_RUNNING)
+               && (core.breakpointHit(lastAddress)))
+            core.machineState = MarieCore.MARIE_PAUSED;
+        }
+        if (snapshotWanted.get()) {
+          snapshotWanted.set(false);
+          snapshot = new MarieSnapshot(core, lastAddress);
+          if (listener != null)
+            listener.snapshotTaken(snapshot);
+        }
+      }
+      if (mode != TURBO)
+        governor.pace();                           // Wait until the next is due.
+    } // while
+  } // runCommand()
+
+
+  void replayTrace() {
+/******************************************************************************************
+*  Applies the trace being replayed to the machine, BATCH records to a lock, until it     *
+*  runs out, the machine stops running, a breakpoint instruction is replayed or a         *
+*  signal arrives.                                                                        *
+******************************************************************************************/
+    MarieTraceReader reader = replayReader.getAndSet(null);
+    replayError = null;
+    try {
+      boolean more = true;
+      while (more && (command.get() == REPLAY)) {
+        synchronized (core) {
+          for (int i = 0; (i < BATCH) && more; i++) {
+            more = reader.next() && (core.machineState == MarieCore.MARIE_RUNNING);
+            if (more) {
+              reader.applyTo(core);
+              if (reader.isInterrupt())          // No instruction ran.
+                continue;
+              core.instructionsRetired++;
+              lastAddress = reader.address;
+              if (core.breakpointHit(reader.address)) {
+                core.machineState = MarieCore.MARIE_PAUSED;
+                more = false;
+              }
+            }
+          } // for
+        }
+      } // while
+    }
+    catch (IOException e) {
+      replayError = e;
+    } // catch
+    try {
+      reader.close();
+    }
+    catch (IOException e) {
+    } // catch
+  } // replayTrace()
+
+
+  void stepOne() {
+    lastAddress = core.pc;
+    core.step();
+  } // stepOne()
+} // MarieRunner
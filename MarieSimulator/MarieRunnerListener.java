@@ -0,0 +1,15 @@
+// File:        MarieRunnerListener.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public interface MarieRunnerListener {
+/******************************************************************************************
+*  A MarieRunnerListener is told what the thread running a MarieRunner's machine has      *
+*  published.  Both methods are called on that thread, so a front end should do no more   *
+*  than copy what it needs and hand the drawing to its own thread.                        *
+******************************************************************************************/
+  public void snapshotTaken(MarieSnapshot s);       // Published on request while running.
+  public void runEnded(MarieSnapshot s);            // Command finished; s is the result.
+} // MarieRunnerListener
@@ -0,0 +1,176 @@
+// File:        MarieSession.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class MarieSession implements Runnable {
+/******************************************************************************************
+*  A MarieSession is one interactive run of a MARIE program, hosted by a                  *
+*  MarieSessionExecutor.  The session does not own a thread.  Whenever it has work to do  *
+*  it is handed to the executor, which runs up to SLICE instructions on one of its        *
+*  threads and then either hands it back (if the program is still running) or lets it     *
+*  rest.  A session waiting for input, or one that has halted, uses no thread at all,     *
+*  so one executor with a few threads can host a very large number of sessions.  Each     *
+*  session costs about 50K of memory, mostly its MarieCore.  Sessions are interpreted     *
+*  rather than translated, since compiled blocks would cost far more per session than     *
+*  they save on short interactive programs.                                               *
+*                                                                                         *
+*  Input is given to a session through input(), which places the value on the             *
+*  session's input queue and wakes the session if it is waiting.  The program reads the   *
+*  queue in order, one value per INPUT instruction.  Output is collected with             *
+*  takeOutput().  All of these methods may be called from any thread.                     *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int SLICE = 10000;       // Instructions run each time the session
+                                               // is given a thread.
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  MarieSessionExecutor executor;
+  MarieCore core = new MarieCore();            // Guarded by itself.
+  ConcurrentLinkedQueue<Integer> inputQueue = new ConcurrentLinkedQueue<Integer>();
+  AtomicBoolean scheduled = new AtomicBoolean(false);   // Queued or running on executor.
+  int outputTaken = 0;                         // Output already returned by takeOutput().
+
+
+  MarieSession(MarieSessionExecutor executor, MarieProgram program) {
+    this.executor = executor;
+    program.loadInto(core);
+  } // MarieSession()
+
+
+  void schedule() {
+/******************************************************************************************
+*  Hands the session to the executor unless it is already queued or running there.        *
+******************************************************************************************/
+    if (scheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(this);
+      }
+      catch (RejectedExecutionException e) {   // Executor has been shut down.
+        scheduled.set(false);
+      } // catch
+    }
+  } // schedule()
+
+
+  public void run() {
+/******************************************************************************************
+*  Runs one slice of the program on an executor thread.  Queued input is given to the     *
+*  core whenever it is blocked on an INPUT instruction.                                   *
+******************************************************************************************/
+    boolean more;
+    synchronized (core) {
+      long remaining = SLICE;
+      while (remaining > 0) {
+        if (core.machineState == MarieCore.MARIE_BLOCKED_ON_INPUT) {
+          Integer value = inputQueue.poll();
+          if (value == null)
+            break;                             // Park until input() is called.
+          core.supplyInput(value.intValue());
+        }
+        if (core.machineState != MarieCore.MARIE_RUNNING)
+          break;
+        remaining -= core.run(remaining);
+      } // while
+      more = (core.machineState == MarieCore.MARIE_RUNNING);
+      if (!more)
+        core.notifyAll();                      // Wake anyone in waitUntilIdle().
+    }
+    scheduled.set(false);
+    if (more || ((core.machineState == MarieCore.MARIE_BLOCKED_ON_INPUT)
+                  && (!inputQueue.isEmpty())))   // Input may have arrived while we
+      schedule();                                // were finishing up.
+  } // run()
+
+
+  public void input(int value) {
+/******************************************************************************************
+*  Queues a value for the program's INPUT instructions.                                   *
+******************************************************************************************/
+    inputQueue.add(Integer.valueOf(value));
+    schedule();
+  } // input()
+
+
+  public void stop() {
+/******************************************************************************************
+*  Halts the program as the [Stop] button does in the simulator.                          *
+******************************************************************************************/
+    synchronized (core) {
+      if ((core.machineState == MarieCore.MARIE_RUNNING)
+           || (core.machineState == MarieCore.MARIE_BLOCKED_ON_INPUT))
+        core.machineState = MarieCore.MARIE_HALTED_BY_USER;
+      core.notifyAll();
+    }
+  } // stop()
+
+
+  public int getState() {
+    synchronized (core) {
+      return core.machineState;
+    }
+  } // getState()
+
+
+  public boolean isHalted() {
+    int state = getState();
+    return ((state != MarieCore.MARIE_RUNNING)
+             && (state != MarieCore.MARIE_BLOCKED_ON_INPUT));
+  } // isHalted()
+
+
+  public int getExitStatus() {
+    synchronized (core) {
+      return core.exitStatus();
+    }
+  } // getExitStatus()
+
+
+  public long getInstructionsRetired() {
+    synchronized (core) {
+      return core.instructionsRetired;
+    }
+  } // getInstructionsRetired()
+
+
+  public int[] takeOutput() {
+/******************************************************************************************
+*  Returns the output produced since the last call.                                       *
+******************************************************************************************/
+    synchronized (core) {
+      int[] output = new int[core.getOutputCount() - outputTaken];
+      for (int i = 0; i < output.length; i++)
+        output[i] = core.getOutput(outputTaken + i);
+      outputTaken += output.length;
+      return output;
+    }
+  } // takeOutput()
+
+
+  public boolean waitUntilIdle(long millis) throws InterruptedException {
+/******************************************************************************************
+*  Waits up to millis milliseconds (0 = forever) for the program to halt or to need       *
+*  input that has not been queued yet.  Returns true if it did.                           *
+******************************************************************************************/
+    long deadline = System.currentTimeMillis() + millis;
+    synchronized (core) {
+      while (true) {
+        boolean idle = (core.machineState != MarieCore.MARIE_RUNNING)
+                       && ((core.machineState != MarieCore.MARIE_BLOCKED_ON_INPUT)
+                            || inputQueue.isEmpty());
+        if (idle)
+          return true;
+        long wait = (millis == 0) ? 0 : deadline - System.currentTimeMillis();
+        if ((millis != 0) && (wait <= 0))
+          return false;
+        core.wait(wait);
+      } // while
+    }
+  } // waitUntilIdle()
+} // MarieSession
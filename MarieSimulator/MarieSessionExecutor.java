@@ -0,0 +1,80 @@
+// File:        MarieSessionExecutor.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class MarieSessionExecutor {
+/******************************************************************************************
+*  A MarieSessionExecutor hosts many MarieSessions on a small, fixed set of threads.      *
+*  Sessions take turns:  a running session gets a slice of MarieSession.SLICE             *
+*  instructions and then goes to the back of the line.  A session blocked on INPUT        *
+*  leaves the line altogether until input is queued for it, so sessions waiting on a      *
+*  person cost only their memory, not a thread each.                                      *
+*                                                                                         *
+*  Typical use:                                                                           *
+*                                                                                         *
+*      MarieSessionExecutor executor = new MarieSessionExecutor(0);                       *
+*      MarieSession session = executor.open(MarieProgram.load("Add.mex"));                *
+*      session.input(5);                                                                  *
+*      session.input(7);                                                                  *
+*      session.waitUntilIdle(0);                                                          *
+*      int[] output = session.takeOutput();                                               *
+*      ...                                                                                *
+*      executor.shutdown();                                                               *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  ExecutorService pool;
+  AtomicLong sessionsOpened = new AtomicLong(0);
+
+
+  public MarieSessionExecutor(int threads) {
+/******************************************************************************************
+*  Creates an executor with the given number of threads, or one per processor if          *
+*  threads is zero.  The threads are daemons, so they do not keep the JVM alive.          *
+******************************************************************************************/
+    if (threads <= 0)
+      threads = Runtime.getRuntime().availableProcessors();
+    pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                       AtomicInteger count = new AtomicInteger(0);
+                       public Thread newThread(Runnable r) {
+                         Thread t = new Thread(r, "MarieSession-" + count.incrementAndGet());
+                         t.setDaemon(true);
+                         return t;
+                       }
+                     });
+  } // MarieSessionExecutor()
+
+
+  public MarieSession open(MarieProgram program) {
+/******************************************************************************************
+*  Loads program into a new session and starts it running.                                *
+******************************************************************************************/
+    MarieSession session = new MarieSession(this, program);
+    sessionsOpened.incrementAndGet();
+    session.schedule();
+    return session;
+  } // open()
+
+
+  void execute(MarieSession session) {
+    pool.execute(session);
+  } // execute()
+
+
+  public long getSessionsOpened() {
+    return sessionsOpened.get();
+  } // getSessionsOpened()
+
+
+  public void shutdown() {
+/******************************************************************************************
+*  Stops the threads.  Sessions that have not halted stay where they are.                 *
+******************************************************************************************/
+    pool.shutdownNow();
+  } // shutdown()
+} // MarieSessionExecutor
@@ -33,9 +33,8 @@ public class MarieSim extends JFrame {
 *  termination.                                                                           *
 *                                                                                         *
 *  Overall control of the simulator is determined by the state of the machine, kept in    *
-*  the instance variable machineState, the values of which are given below.  The state    *
-*  of the machine determines what operations are allowable and which step can be taken    *
-*  next.                                                                                  *
+*  core.machineState, the values of which are given below.  The state of the machine      *
+*  determines what operations are allowable and which step can be taken next.             *
 ******************************************************************************************/
 /* --                                                                                 -- */
 /* --  Class fields and attributes.                                                   -- */
@@ -46,6 +45,8 @@ public class MarieSim extends JFrame {
   public static final String  MAP_TYPE = ".map";  // File extension of symbol table.
   public static final String  SRC_TYPE = ".mas";  // File extension for source code.
   public static final String  DMP_TYPE = ".dmp";  // File extension for core dump.
+  public static final String  CKP_TYPE = ".mck";  // File extension for checkpoint.
+  public static final String  PRF_TYPE = ".prf";  // File extension for profile report.
 
   public static final String      linefeed = System.getProperty("line.separator");
   public static final String      formfeed = "\014";
@@ -56,17 +57,7 @@ public class MarieSim extends JFrame {
   public static final JFileChooser exeFileChooser =
                                    new JFileChooser(System.getProperty("user.dir"));
 
-  public static final String[] errorMsgs = {
-                                         "Program terminated normally.",       //  0
-                                         "Illegal opcode",                     //  1
-                                         "Illegal conditional operand",        //  2
-                                         "Address out of range",               //  3
-                                         "Invalid machine code format",        //  4
-                                         "IO Exception on input file",         //  5
-                                         "Invalid register",                   //  6
-                                         "Illegal numeric value in register",  //  7
-                                         "Maximum program statements reached"  //  8
-                                         };
+  public static final String[] errorMsgs = MarieCore.errorMsgs;   // Indexed by errorCode.
 /* --                                                                                 -- */
 /* --  boolean array operandReqd indicates whether an instruction with hexcode        -- */
 /* --  corresponding to the position in the array requires an operand.                -- */
@@ -84,7 +75,10 @@ public class MarieSim extends JFrame {
                                                 false,  // JUMP
                                                 false,  // CLEAR
                                                 true,   // ADDI
-                                                true }; // JUMPI
+                                                true,   // JUMPI
+                                                true,   // TAS
+                                                false,  // IRET
+                                                false };// EI and DI
 /* --                                                                                 -- */
 /* --  System constants.                                                              -- */
 /* --                                                                                 -- */
@@ -117,7 +111,13 @@ public class MarieSim extends JFrame {
   static final int PROGRAM_TABLE_ROW_HEIGHT = 19; // Give us a bit larger row for
                                                   // the program instructions.
 
-  public static final int MINIMUM_DELAY = 10;
+  public static final int DEFAULT_SPEED = 100;    // Instructions per second.
+  public static final int SNAPSHOT_RATE = 33;     // Milliseconds between turbo displays.
+  public static final int OUTPUT_RATE   = 50;     // Longest wait before output shows.
+  static final int SHOW_REGISTERS = 0;              // What the program may change on
+  static final int SHOW_PROGRAM   = 1;              // the screen, as marked for our
+  static final int SHOW_MEMORY    = 2;              // MarieRepaintScheduler.
+  static final int SHOW_SPEED     = 3;
   public static final String[] base = {"Hex", "Dec", "ASCII"};
   public static final String[] outputControl = {"Control", "Use Linefeeds", "No Linefeeds",
                                                 "Clear output", "Print"};
@@ -131,20 +131,37 @@ public class MarieSim extends JFrame {
 /* --                                                                                 -- */
 /* --  Instance variables.                                                            -- */
 /* --                                                                                 -- */
-  int  instructionCode = 0;            // Machine code of instruction being run.
+  MarieCore       core = new MarieCore();  // The machine that runs the program.
+  MarieCoreListener coreListener;          // Keeps the display in step with the core.
+  MarieHistory   history = new MarieHistory(MarieHistory.DEFAULT_LIMIT);   // Lets us run
+                                           // backwards; null if the user turns it off.
+  MarieProfile   profile = new MarieProfile(); // Counts where the program spends its time.
+  AssembledCodeLine[] programLines = new AssembledCodeLine[0];   // As loaded, for reports.
+  MarieInputQueue inputQueue = new MarieInputQueue();   // Values queued for INPUT.
+  boolean devicesOn = false;               // Standard devices attached, with a disk
+  String  storageFile = null;              // backed by this file if not null.
+  MarieBankedMemory banked = null;         // Extra memory at BANKED_BASE, if any.
+  MarieStreamInput inputStream = null;     // File or console INPUT reads from, if any.
+  MarieStreamInput consoleInput = null;    // Standard input, once it has been chosen.
   int    codeLineCount = 0;            // Number of lines in the program
   boolean     stepping = false;        // Whether executing one instruction at a time.
   boolean breakpointOn = false;        // Whether executing to a breakpoint.
-  int            delay = 10;           // Delay between instruction executions;
+  boolean        turbo = false;        // Whether running at full speed.
+  MarieTraceReader replaying = null;   // Trace the runner is replaying, if any.
+  int[]     shownMemory = new int[MAX_MARIE_ADDR + 1];   // Memory as the table shows it.
+  int       outputShown = 0;           // Number of core outputs put on the screen.
+  javax.swing.Timer snapshotTimer;     // Refreshes the display during a turbo run.
+  javax.swing.Timer outputTimer;       // Puts new output on the screen in chunks.
+  MarieRepaintScheduler repaints = new MarieRepaintScheduler();  // Draws the changes
+                                       // made by a running program, a frame at a time.
+  MarieGovernor governor = new MarieGovernor(DEFAULT_SPEED);  // Paces Run at the
+                                       // speed the user chose;
+  MarieRunner    runner;               // The thread that runs the program.
   boolean outputWithLinefeed = true;   // Determines whether characters output will have
                                        // linefeeds supplied.  User can change this.
   static  String  statusMessage = null;
-  static  Vector   outputStream = new Vector();  // Holds output so we can reformat.
-  int              machineState = 0xDEAD;        // Machine state.
 
   boolean errorFound = false;   // Non-fatal error flag, e.g. invalid  user input.
-  boolean fatalError = false;   // Fatal error flag, e.g., invalid branch address.
-  int      errorCode = 0;
   JPanel simulatorPane;
 
   JMenuBar       controlBar = new JMenuBar();  // Container for the menu as follows:
@@ -153,18 +170,35 @@ public class MarieSim extends JFrame {
   JMenuItem    editFileItem = new JMenuItem();    //       | edit program
   MarieEditor   marieEditor;                      //       |  (program editor frame)
   JMenuItem  reloadFileItem = new JMenuItem();    //       | reload program
+  JMenuItem  saveCheckpoint = new JMenuItem();    //       | save machine state
+  JMenuItem  loadCheckpoint = new JMenuItem();    //       | restore machine state
+  JMenuItem     recordTrace = new JMenuItem();    //       | start/stop trace file
+  JMenuItem     replayTrace = new JMenuItem();    //       | play back trace file
   JMenuItem    exitFileItem = new JMenuItem();    //       | quit
 
   JMenu             runMenu = new JMenu();        // "Run" menu
   JMenuItem      runRunItem = new JMenuItem();    //       | run loaded program
+  JMenuItem    turboRunItem = new JMenuItem();    //       | run at full speed
   JMenu         stepRunMenu = new JMenu();        //       | set stepping mode:
   JMenuItem       stepRunOn = new JMenuItem();    //          | on
   JMenuItem      stepRunOff = new JMenuItem();    //          | off
-  JMenuItem        setDelay = new JMenuItem();    //       | set instruction delay
-  DelayFrame     delayFrame;                      //       |  (frame to enter delay)
+  JMenuItem        setSpeed = new JMenuItem();    //       | set instructions/second
+  JMenuItem    setFrameRate = new JMenuItem();    //       | set display frame rate
+  JMenu           inputMenu = new JMenu();        //       | where INPUT values come from:
+  JMenuItem      inputTyped = new JMenuItem();    //          | typed when asked for
+  JMenuItem     inputQueued = new JMenuItem();    //          | a list queued in advance
+  JMenuItem       inputFile = new JMenuItem();    //          | a file
+  JMenuItem    inputConsole = new JMenuItem();    //          | standard input
+  JMenuItem reverseStepItem = new JMenuItem();    //       | undo one instruction
+  JMenuItem reverseContItem = new JMenuItem();    //       | undo to a breakpoint
+  JMenuItem     historyItem = new JMenuItem();    //       | set undo history size
+  JMenuItem     devicesItem = new JMenuItem();    //       | attach/detach devices
+  JMenuItem      banksItem = new JMenuItem();     //       | set banked memory
+  SpeedFrame     speedFrame;                      //       |  (frame to enter speed)
   JMenuItem     restartItem = new JMenuItem();    //       | restart from beginning
   JMenuItem       resetItem = new JMenuItem();    //       | reset the simulator
   JMenuItem         getDump = new JMenuItem();    //       | request core dump
+  JMenuItem     profileItem = new JMenuItem();    //       | show hot-spot report
   CoreDumpFrame   dumpFrame;                      //       |  (core dump param frame)
   TextFileViewer dumpViewer;                      //       |  (core dump frame)
 
@@ -174,6 +208,9 @@ public class MarieSim extends JFrame {
   JMenu       breakpointMenu = new JMenu();       // "Breakpont" menu
   JMenuItem        runToItem = new JMenuItem();   //       | run to next breakpoint
   JMenuItem clearBPointsItem = new JMenuItem();   //       | remove all breakpoints
+  JMenuItem   conditionItem = new JMenuItem();    //       | conditional breakpoint
+  JMenuItem       watchItem = new JMenuItem();    //       | watch writes to a word
+  JMenuItem  clearWatchItem = new JMenuItem();    //       | remove all watchpoints
 
   JButton        showSymbols = new JButton();     // Symbol table display button
   TextFileViewer symbolTable;                     //       |  (symbol table frame)
@@ -191,10 +228,12 @@ public class MarieSim extends JFrame {
   JTable      programTable;                       // Program monitor table.
   ProgramTableModel    ptm = new ProgramTableModel();  // Program monitor table control.
   int      programFocusRow = 0;           // Current instruction pointer in monitor.
-  Hashtable codeReference                 // codeReference provides correspondence
-            = new Hashtable(16, (float) 0.75);   // between monitor table and
-                                          // instruction addresses.
-                                          // Initial capacity 16, load factor 0.75.
+  int[]     codeReference                 // codeReference gives the monitor table
+            = MarieProgram.rowIndex(null);  // row of each instruction address,
+                                          // or NO_ROW if there is none.
+  int[]        rowAddress = new int[0];   // Address of the instruction on each row.
+  Hashtable<String,Integer> symbols            // Addresses of program labels, for
+                  = new Hashtable<String,Integer>();   // breakpoint conditions.
 
   JPanel  registersPanel = new JPanel();      // Container for individual register panels.
 
@@ -234,39 +273,56 @@ public class MarieSim extends JFrame {
                                         "OUTPUT", TitledBorder.CENTER, TitledBorder.BELOW_TOP);
   Register           regOUTPUT = new Register(OUTPUT);
   JScrollPane outputScrollPane = new JScrollPane();            // Scrollpane for output display
-  JTextArea         outputArea = new JTextArea();              // Text content of output
+  OutputView        outputView = new OutputView();            // View of the core's output
   JComboBox      outputModeBox = new JComboBox(base);          // Output display mode control
   JComboBox   outputControlBox = new JComboBox(outputControl); // Linefeed modes & print control.
 
   JScrollPane memoryPane = new JScrollPane();   // Scrollpane for memory display
-  Object[][] memoryArray = new Object[256][17]; // Memory contents.
+  MemoryTableModel memoryModel = new MemoryTableModel();   // Memory contents.
   JTable     memoryTable;                       // Table for memory contents display.
   int    memoryFocusCell = 0;                   // Current memory location in table.
+  int    memoryScrollCell = 0;                  // Memory location to scroll into view.
 
   JTextField    msgField = new JTextField(); //   Status message field contents.
   JPanel     bottomPanel = new JPanel();     // Container for memory array table and
                                              //    message window.
-  class DelayFrame extends JFrame {
+  class SpeedFrame extends JFrame {
 /******************************************************************************************
-*   This class displays a slider in a frame to allow the user to change the value of the  *
-*   delay between consecutive instruction executions.                                     *
-*      Side effect:  The value of the class variable "delay" may be changed, but not      *
-*                    to a value smaller than MINIMUM_DELAY.                               *
-*   Whether or not a change is made to the delay value, this method dispatches a window-  *
+*   This class displays a slider in a frame to allow the user to change the number of     *
+*   instructions run per second, from 1 up to as many as the machine can manage.  The     *
+*   slider's scale is logarithmic:  each ten steps multiply the speed by ten, and the     *
+*   last step (SLIDER_MAX) is unlimited.                                                  *
+*      Side effect:  The rate of the governor may be changed.                             *
+*   Whether or not a change is made to the speed, this method dispatches a window-        *
 *   closing event, which is monitored by the invoking method and triggers the             *
 *   nullification of the pointer to this frame.                                           *
 ******************************************************************************************/
-    JPanel       buttons = new JPanel();
-    JLabel   sliderLabel =
-                         new JLabel("Select instruction execution delay in milliseconds.");
-    JTextField   msDelay = new JTextField();
-    JLabel    blankLabel = new JLabel();      // Spacer
-    JButton   okayButton = new JButton("Okay");
-    JButton cancelButton = new JButton("Cancel");
-    int      sliderDelay = delay;
-    DelayFrame() {                                         // Frame constructor
-      super("Set Delay");
-      JPanel delayPane = (JPanel) this.getContentPane();   // Set frame characteristics.
+    static final long serialVersionUID = 1L;
+    static final int SLIDER_MAX = 70;
+    JPanel        buttons = new JPanel();
+    JLabel    sliderLabel =
+                          new JLabel("Select instructions executed per second.");
+    JTextField speedField = new JTextField();
+    JLabel     blankLabel = new JLabel();      // Spacer
+    JButton    okayButton = new JButton("Okay");
+    JButton  cancelButton = new JButton("Cancel");
+    long      sliderSpeed = governor.getRate();
+
+    long speedAt(int position) {
+      if (position >= SLIDER_MAX)
+        return MarieGovernor.UNLIMITED;
+      return Math.round(Math.pow(10, position / 10.0));
+    } // speedAt()
+
+    int positionOf(long speed) {
+      if (speed == MarieGovernor.UNLIMITED)
+        return SLIDER_MAX;
+      return Math.min(SLIDER_MAX - 1, (int) Math.round(10 * Math.log10(speed)));
+    } // positionOf()
+
+    SpeedFrame() {                                         // Frame constructor
+      super("Set Speed");
+      JPanel speedPane = (JPanel) this.getContentPane();   // Set frame characteristics.
       setSize(new Dimension(400, 200));
       addWindowListener(new WindowAdapter() {
           public void windowClosing(WindowEvent e) {
@@ -274,54 +330,61 @@ public class MarieSim extends JFrame {
                return;
           } // windowClosing()
       }); // Listener
-      delayPane.setPreferredSize(new Dimension(350, 150));
-      delayPane.setLayout(new FlowLayout());
+      speedPane.setPreferredSize(new Dimension(350, 150));
+      speedPane.setLayout(new FlowLayout());
       setIconImage(Toolkit.getDefaultToolkit()
                              .createImage(MarieSim.class.getResource("M.gif")));
-      setStatusMessage(" Execution delay set at "
-                             +delay+" milliseconds.");      // Message in parent frame.
+      setStatusMessage(" Speed set at "+speedText(sliderSpeed)
+                             +" instructions per second.");  // Message in parent frame.
       sliderLabel.setPreferredSize(new Dimension(300, 50)); // Slider instructions.
       sliderLabel.setForeground(Color.black);
-      JSlider milliseconds = new JSlider(JSlider.HORIZONTAL, 0, 3000, delay);
-      milliseconds.setMajorTickSpacing(1000);               // Set the scale on the slider.
-      milliseconds.setMinorTickSpacing(100);
-      milliseconds.setPaintTicks(true);
-      milliseconds.setPaintLabels(true);
-      milliseconds.setBorder(BorderFactory.createEmptyBorder(0,0,10,0));
-      milliseconds.setPreferredSize(new Dimension(325, 50));
-      milliseconds.addChangeListener(new ChangeListener() {
+      JSlider speedSlider = new JSlider(JSlider.HORIZONTAL, 0, SLIDER_MAX,
+                                        positionOf(sliderSpeed));
+      Hashtable<Integer,JLabel> labels                      // Set the slider's scale.
+                  = new Hashtable<Integer,JLabel>();
+      labels.put(Integer.valueOf(0), new JLabel("1"));
+      labels.put(Integer.valueOf(20), new JLabel("100"));
+      labels.put(Integer.valueOf(40), new JLabel("10K"));
+      labels.put(Integer.valueOf(60), new JLabel("1M"));
+      labels.put(Integer.valueOf(SLIDER_MAX), new JLabel("Max"));
+      speedSlider.setLabelTable(labels);
+      speedSlider.setMajorTickSpacing(10);
+      speedSlider.setPaintTicks(true);
+      speedSlider.setPaintLabels(true);
+      speedSlider.setBorder(BorderFactory.createEmptyBorder(0,0,10,0));
+      speedSlider.setPreferredSize(new Dimension(325, 50));
+      speedSlider.addChangeListener(new ChangeListener() {
         public void stateChanged(ChangeEvent e) {           // Anonymous inner class
           JSlider source = (JSlider)e.getSource();          // for getting slider value.
           if (!source.getValueIsAdjusting()) {
-             sliderDelay = (int)source.getValue();
-             msDelay.setText(" "+sliderDelay);
-             msDelay.postActionEvent();
+             sliderSpeed = speedAt(source.getValue());
+             speedField.setText(" "+speedText(sliderSpeed));
+             speedField.postActionEvent();
           }
         } // stateChanged()
       }); // Listener
-      msDelay.setPreferredSize(new Dimension(57, 30));
-      msDelay.setBorder(BorderFactory.createCompoundBorder(
+      speedField.setPreferredSize(new Dimension(90, 30));
+      speedField.setBorder(BorderFactory.createCompoundBorder(
                             BorderFactory.createLineBorder(new Color(145, 145, 210), 2),
                             BorderFactory.createLoweredBevelBorder()));
-      msDelay.setFont(new Font("Monospaced", 0, 14));
-      msDelay.setText(" "+delay);
-      msDelay.setEditable(false);
-      blankLabel.setPreferredSize(new Dimension(30, 35));
+      speedField.setFont(new Font("Monospaced", 0, 14));
+      speedField.setText(" "+speedText(sliderSpeed));
+      speedField.setEditable(false);
+      blankLabel.setPreferredSize(new Dimension(10, 35));
       okayButton.setMaximumSize(new Dimension(80, 35));     // Populate the button pane.
       okayButton.setMinimumSize(new Dimension(80, 35));
       okayButton.setPreferredSize(new Dimension(80, 35));
       JRootPane root = getRootPane();
       root.setDefaultButton(okayButton);
       okayButton.addActionListener(new ActionListener() {    // On the okay button,
-        public void actionPerformed(ActionEvent e) {         // set the delay
-            if (sliderDelay < MINIMUM_DELAY)                 // according to the
-              sliderDelay = MINIMUM_DELAY;                   // slider value and
-            delay = sliderDelay;                             // dispatch a window-
-            setStatusMessage(" Execution delay set at "      // closing event.
-                                    +delay+" milliseconds.");    // Note: minimum delay
-            WindowEvent we = new WindowEvent(DelayFrame.this,    // is a constant.
+        public void actionPerformed(ActionEvent e) {         // set the speed
+            governor.setRate(sliderSpeed);                   // according to the
+            setStatusMessage(" Speed set at "                // slider value and
+                             +speedText(sliderSpeed)         // dispatch a window-
+                             +" instructions per second.");  // closing event.
+            WindowEvent we = new WindowEvent(SpeedFrame.this,
                                        WindowEvent.WINDOW_CLOSING);
-            DelayFrame.this.dispatchEvent(we);
+            SpeedFrame.this.dispatchEvent(we);
         }
       });  // Listener
       cancelButton.setMaximumSize(new Dimension(80, 35));
@@ -329,23 +392,23 @@ public class MarieSim extends JFrame {
       cancelButton.setPreferredSize(new Dimension(80, 35));
       cancelButton.addActionListener(new ActionListener() {    // If we're canceled, just
         public void actionPerformed(ActionEvent e) {           // dispatch a window-
-             WindowEvent we = new WindowEvent(DelayFrame.this, // closing event.
+             WindowEvent we = new WindowEvent(SpeedFrame.this, // closing event.
                                        WindowEvent.WINDOW_CLOSING);
-             DelayFrame.this.dispatchEvent(we);
+             SpeedFrame.this.dispatchEvent(we);
         }
       }); // Listener
       buttons.setPreferredSize(new Dimension(300, 75));
-      buttons.add(msDelay);
+      buttons.add(speedField);
       buttons.add(blankLabel);
       buttons.add(okayButton);                              // Put the buttons in the
       buttons.add(cancelButton);                            // button panel.
-      delayPane.add(sliderLabel);                           // Add label, slider
-      delayPane.add(milliseconds);                          // and buttons to the main
-      delayPane.add(buttons);                               // frame.
+      speedPane.add(sliderLabel);                           // Add label, slider
+      speedPane.add(speedSlider);                           // and buttons to the main
+      speedPane.add(buttons);                               // frame.
       setLocation(200, 75);
       show();
-    } // DelayFrame()
-  } // DelayFrame
+    } // SpeedFrame()
+  } // SpeedFrame
 
 
   class CoreDumpFrame extends JFrame {
@@ -626,6 +689,8 @@ public class MarieSim extends JFrame {
       public String getColumnName(int col) {
         return headers[col]; }
       public Object getValueAt(int row, int col) {
+        if (col == 0)                         // Breakpoint checkboxes show the
+          return Boolean.valueOf(isBreakpoint(row));   // core's breakpoint set.
         return programArray[row][col];
       }
 
@@ -636,8 +701,13 @@ public class MarieSim extends JFrame {
           return false;
       }
       public void setValueAt(Object value, int row, int col) {
-        programArray[row][col] = value;       // Only one column is editable,
-        fireTableDataChanged();               // set by isCellEditable method.
+        if ((col == 0) && (row < rowAddress.length) && (rowAddress[row] >= 0)) {
+          if (((Boolean) value).booleanValue())        // Only one column is editable,
+            core.setBreakpoint(rowAddress[row], null); // set by isCellEditable method.
+          else
+            core.clearBreakpoint(rowAddress[row]);
+        }
+        fireTableDataChanged();
       }
       public Class getColumnClass(int c) {    // This method is used to provide
         return getValueAt(0, c).getClass();   // the default cell editor.  I.e.,
@@ -671,8 +741,8 @@ public class MarieSim extends JFrame {
       if ((whichOne >= AC) && (whichOne <= OUTPUT))     // Make sure we have a valid
         designation = whichOne;                         // designation.
       else {
-        fatalError = true;
-        errorCode = 6;
+        core.fatalError = true;
+        core.errorCode = 6;
       }
       setValue(0);                                      // Initialize its value and
       mode = HEX;                                       // default the mode to hex.
@@ -740,8 +810,8 @@ public class MarieSim extends JFrame {
           setValue(value);                           // put it in the register.
         }
         else {                                       // Did not convert okay.
-          fatalError = true;                         // Fatal error.
-          errorCode = 7;
+          core.fatalError = true;                    // Fatal error.
+          core.errorCode = 7;
         }
     } // setValue()
 
@@ -760,6 +830,210 @@ public class MarieSim extends JFrame {
   } // Register
 
 
+  class OutputView extends JComponent implements Scrollable {
+/******************************************************************************************
+*   The output area.  Rather than holding the program's output as text, it is a view of   *
+*   the MarieCore's output buffer:  it keeps only the position in the buffer at which     *
+*   each line starts, and when it is painted it formats just the lines in sight, in the   *
+*   current mode of the output register.  Changing the mode or the linefeed setting       *
+*   rebuilds the line index (an array of ints) and repaints, so it takes no longer after  *
+*   a million values of output than after ten.                                            *
+*                                                                                         *
+*   A line ends wherever formatOutput() would write a linefeed, or after LINE_LIMIT       *
+*   values.  The index is extended as output arrives (see flushOutput()); outputShown is  *
+*   the number of values it covers.  The caller holds the lock on the core while the      *
+*   index is built.                                                                       *
+******************************************************************************************/
+    static final long serialVersionUID = 1L;
+    static final int LINE_LIMIT = 256;        // Values on one line, at most.
+    static final int INSET      = 4;          // Blank border, in pixels.
+    int[]   lineStart = new int[256];         // Index in the output of each line's first
+    int     lines = 0;                        // value, and the number of lines.
+    int     widest = 0;                       // Characters in the longest line.
+    int     lastChars = 0;                    // Characters and values in the last line.
+    int     lastValues = 0;
+    boolean lineEnded = true;                 // Whether the next value starts a line.
+
+    OutputView() {
+      setFont(new Font("Monospaced", 0, 12));
+      setBackground(Color.white);
+      setForeground(Color.black);
+      setOpaque(true);
+    } // OutputView()
+
+    void rebuild() {
+      lines = 0;
+      widest = 0;
+      lineEnded = true;
+      outputShown = 0;
+      extend();
+    } // rebuild()
+
+    void extend() {
+      int count = core.getOutputCount();
+      for (; outputShown < count; outputShown++) {
+        int value = core.getOutput(outputShown);
+        if (lineEnded) {
+          if (lines == lineStart.length) {
+            int[] bigger = new int[2 * lineStart.length];
+            System.arraycopy(lineStart, 0, bigger, 0, lines);
+            lineStart = bigger;
+          }
+          lineStart[lines++] = outputShown;
+          lastChars = 0;
+          lastValues = 0;
+        }
+        lastChars += valueWidth(value);
+        widest = Math.max(widest, lastChars);
+        lineEnded = (++lastValues == LINE_LIMIT) || endsLine(value);
+      } // for
+      revalidate();
+      repaint();
+    } // extend()
+
+    int valueWidth(int value) {               // Characters formatValue() will write.
+      if (regOUTPUT.mode == HEX)
+        return 4;
+      if (regOUTPUT.mode != DEC)
+        return 1;
+      int n = (value < 0) ? 2 : 1;
+      for (int v = Math.abs((short) value); v >= 10; v /= 10)
+        n++;
+      return n;
+    } // valueWidth()
+
+    void appendLine(StringBuffer text, int line) {
+      int end = (line + 1 < lines) ? lineStart[line + 1] : outputShown;
+      for (int i = lineStart[line]; i < end; i++)
+        formatValue(text, core.getOutput(i));
+    } // appendLine()
+
+    String getText() {
+      StringBuffer text = new StringBuffer();
+      for (int line = 0; line < lines; line++) {
+        appendLine(text, line);
+        text.append(linefeed);
+      }
+      return text.toString();
+    } // getText()
+
+    public Dimension getPreferredSize() {
+      FontMetrics fm = getFontMetrics(getFont());
+      return new Dimension(2 * INSET + widest * fm.charWidth('0'),
+                           2 * INSET + lines * fm.getHeight());
+    } // getPreferredSize()
+
+    public void paintComponent(Graphics g) {
+      Rectangle clip = g.getClipBounds();
+      g.setColor(getBackground());
+      g.fillRect(clip.x, clip.y, clip.width, clip.height);
+      g.setColor(getForeground());
+      g.setFont(getFont());
+      FontMetrics fm = g.getFontMetrics();
+      int height = fm.getHeight();
+      int first = Math.max(0, (clip.y - INSET) / height);
+      int last = Math.min(lines - 1, (clip.y + clip.height - INSET) / height);
+      StringBuffer text = new StringBuffer();
+      for (int line = first; line <= last; line++) {   // Only the lines in sight.
+        text.setLength(0);
+        appendLine(text, line);
+        if ((text.length() > 0) && (text.charAt(text.length() - 1) == (char) 13))
+          text.setLength(text.length() - 1);          // The CR ending an ASCII line.
+        g.drawString(text.toString(), INSET, INSET + line * height + fm.getAscent());
+      }
+    } // paintComponent()
+
+    void scrollToEnd() {
+      scrollRectToVisible(new Rectangle(0, getHeight() - 1, 1, 1));
+    } // scrollToEnd()
+
+    public Dimension getPreferredScrollableViewportSize() {
+      return getPreferredSize();
+    }
+    public int getScrollableUnitIncrement(Rectangle visible, int orientation, int dir) {
+      FontMetrics fm = getFontMetrics(getFont());
+      return (orientation == SwingConstants.VERTICAL) ? fm.getHeight()
+                                                      : fm.charWidth('0');
+    }
+    public int getScrollableBlockIncrement(Rectangle visible, int orientation, int dir) {
+      return (orientation == SwingConstants.VERTICAL) ? visible.height : visible.width;
+    }
+    public boolean getScrollableTracksViewportWidth() {      // Fill the viewport when
+      return (getParent() instanceof JViewport)              // the output is smaller.
+             && (getParent().getWidth() > getPreferredSize().width);
+    }
+    public boolean getScrollableTracksViewportHeight() {
+      return (getParent() instanceof JViewport)
+             && (getParent().getHeight() > getPreferredSize().height);
+    }
+  } // OutputView
+
+
+  class MemoryTableModel extends AbstractTableModel {
+/******************************************************************************************
+*   The memory monitor's table model.  Nothing is stored here:  each cell is formatted    *
+*   from the MarieCore's memory when the table paints it, so there is nothing to rebuild  *
+*   when the machine is reset or a program is loaded.                                     *
+*                                                                                         *
+*   Rows are marked as changed (by memoryChanged(), by moving the highlighted cell, or    *
+*   by showMemory() after memory has changed behind our back) and fireChanges() then      *
+*   tells the table about just those rows.  shownMemory holds the values the table was    *
+*   last told about.  Rows may be marked from the thread running the program, but         *
+*   fireChanges() is only called on the event dispatching thread (see drawMemory()).      *
+******************************************************************************************/
+    static final long serialVersionUID = 1L;
+    String headers[] =  { " ", "+0", "+1", "+2", "+3", "+4", "+5", "+6", "+7",
+                               "+8", "+9", "+A", "+B", "+C", "+D", "+E", "+F" };
+    boolean[] dirty = new boolean[256];       // Rows changed since the table was told.
+    boolean   anyDirty = false;
+
+    public int getColumnCount()                { return headers.length; }
+    public int getRowCount()                   { return 256;  }
+    public String getColumnName(int col)       { return headers[col];   }
+    public boolean isCellEditable(int rowIndex, int columnIndex) { return false; }
+    public Class getColumnClass(int c)         { return String.class; }
+
+    public Object getValueAt(int row, int col) {
+      if (col == 0)
+        return "  "+to3CharHexStr(row * 16);
+      return " "+to4CharHexStr(core.memory[row * 16 + col - 1]);
+    } // getValueAt()
+
+    synchronized void changed(int addr) {
+      dirty[(addr & MAX_MARIE_ADDR) / 16] = true;
+      anyDirty = true;
+    } // changed()
+
+    void showMemory() {
+      for (int addr = 0; addr <= MAX_MARIE_ADDR; addr++)
+        if (core.memory[addr] != shownMemory[addr]) {
+          shownMemory[addr] = core.memory[addr];
+          changed(addr);
+        }
+      fireChanges();
+    } // showMemory()
+
+    void fireChanges() {
+      boolean[] rows;
+      synchronized (this) {
+        if (!anyDirty)
+          return;
+        rows = dirty.clone();
+        Arrays.fill(dirty, false);
+        anyDirty = false;
+      }
+      for (int row = 0; row < rows.length; row++)   // One event per run of changed rows.
+        if (rows[row]) {
+          int last = row;
+          while ((last + 1 < rows.length) && rows[last + 1])
+            last++;
+          fireTableRowsUpdated(row, last);
+          row = last;
+        }
+    } // fireChanges()
+  } // MemoryTableModel
+
+
   public MarieSim() {
 /******************************************************************************************
 *  This is the constructor for the GUI simulator.  Components are defined and populated   *
@@ -771,6 +1045,31 @@ public class MarieSim extends JFrame {
     setTitle("MARIE Simulator");
     enableEvents(AWTEvent.WINDOW_EVENT_MASK);
     simulatorPane = (JPanel) this.getContentPane();
+    coreListener = new MarieCoreListener() {     // Follow memory writes and output
+      public void memoryChanged(int address, int value) {   // made by the program.
+        MarieSim.this.memoryChanged(address, value);
+      }
+      public void outputProduced(int value) {
+        output(value);
+      }
+    }; // Listener
+    core.setListener(coreListener);
+    runner = new MarieRunner(core, governor, new MarieRunnerListener() {
+      public void snapshotTaken(MarieSnapshot s) {     // Both on the runner's thread.
+        showMachine(s);
+      }
+      public void runEnded(final MarieSnapshot s) {
+        if (!turbo)
+          showMachine(s);
+        SwingUtilities.invokeLater(new Runnable() {
+          public void run() {
+            MarieSim.this.runEnded(s);
+          }
+        });
+      }
+    }); // Listener
+    core.setHistory(history);
+    core.setProfile(profile);
     simulatorPane.setLayout(new FlowLayout());
     simulatorPane.setBackground(simulatorBackground);
     simulatorPane.setBorder(BorderFactory.createLineBorder(Color.black));
@@ -807,6 +1106,41 @@ public class MarieSim extends JFrame {
             loadProgram();
          }
     }); // Listener
+    saveCheckpoint.setText("Save Checkpoint");     // Save the whole machine so that
+    saveCheckpoint.setMnemonic('S');               // we can come back to this point.
+    saveCheckpoint.setEnabled(false);
+    saveCheckpoint.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+            saveCheckpoint();
+         }
+    }); // Listener
+    loadCheckpoint.setText("Restore Checkpoint");  // Put the machine back as it was
+    loadCheckpoint.setMnemonic('R');               // when the checkpoint was saved.
+    loadCheckpoint.setEnabled(false);
+    loadCheckpoint.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+            restoreCheckpoint();
+         }
+    }); // Listener
+    recordTrace.setText("Record Trace");           // Write every instruction run to
+    recordTrace.setMnemonic('T');                  // a trace file, or stop doing so.
+    recordTrace.setEnabled(false);
+    recordTrace.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+            if (core.getTracer() == null)
+              startTrace();
+            else
+              stopTrace();
+         }
+    }); // Listener
+    replayTrace.setText("Replay Trace");           // Show a recorded run.
+    replayTrace.setMnemonic('P');
+    replayTrace.setEnabled(false);
+    replayTrace.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+            replayTrace();
+         }
+    }); // Listener
     exitFileItem.setText("Exit");                  // Quit the program
     exitFileItem.setMnemonic('X');
     exitFileItem.addActionListener(new ActionListener() {
@@ -818,6 +1152,12 @@ public class MarieSim extends JFrame {
     fileMenu.add(editFileItem);
     fileMenu.add(reloadFileItem);
     fileMenu.addSeparator();
+    fileMenu.add(saveCheckpoint);
+    fileMenu.add(loadCheckpoint);
+    fileMenu.addSeparator();
+    fileMenu.add(recordTrace);
+    fileMenu.add(replayTrace);
+    fileMenu.addSeparator();
     fileMenu.add(exitFileItem);
 
     runMenu.setText("Run");                        // "Run" menu
@@ -828,23 +1168,76 @@ public class MarieSim extends JFrame {
     runRunItem.setEnabled(false);
     runRunItem.addActionListener(new ActionListener() {
          public void actionPerformed(ActionEvent e) {
+            if (runnerBusy())                      // The runner owns the machine
+              return;                              // until it is done.
             restartItem.setEnabled(true);
-            if (machineState != MARIE_BLOCKED_ON_INPUT) {
+            if (core.machineState != MARIE_BLOCKED_ON_INPUT) {
               stepping = false;
               step.setEnabled(false);
               stepRunOff.setEnabled(false);
               stepRunOn.setEnabled(true);
               repaint();
               runStop.setEnabled(true);
-              if ((machineState == MARIE_HALTED_NORMAL) ||
-                  (machineState == MARIE_PAUSED) ||
-                  (machineState == MARIE_HALTED_ABNORMAL))  {
+              if ((core.machineState == MARIE_HALTED_NORMAL) ||
+                  (core.machineState == MARIE_PAUSED) ||
+                  (core.machineState == MARIE_HALTED_ABNORMAL))  {
                 restart();
               }
               runProgram();
             }
          }
     }); // Listener
+    turboRunItem.setText("Turbo Run");             // Run without delays, refreshing
+    turboRunItem.setMnemonic('T');                 // the display periodically.
+    turboRunItem.setEnabled(false);
+    turboRunItem.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+            if (runnerBusy())                      // The runner owns the machine
+              return;                              // until it is done.
+            restartItem.setEnabled(true);
+            if (core.machineState != MARIE_BLOCKED_ON_INPUT) {
+              stepping = false;
+              step.setEnabled(false);
+              stepRunOff.setEnabled(false);
+              stepRunOn.setEnabled(true);
+              runStop.setEnabled(true);
+              if (core.machineState != MARIE_RUNNING)
+                restart();
+              runTurbo();
+            }
+         }
+    }); // Listener
+    snapshotTimer = new javax.swing.Timer(SNAPSHOT_RATE, new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+            showSnapshot();
+         }
+    }); // Listener
+    outputTimer = new javax.swing.Timer(OUTPUT_RATE, new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+            flushOutput();
+         }
+    }); // Listener
+    outputTimer.setRepeats(false);
+    repaints.setAction(SHOW_REGISTERS, new Runnable() {
+         public void run() {
+            drawRegisters();
+         }
+    }); // Runnable
+    repaints.setAction(SHOW_PROGRAM, new Runnable() {
+         public void run() {
+            drawProgramCursor();
+         }
+    }); // Runnable
+    repaints.setAction(SHOW_MEMORY, new Runnable() {
+         public void run() {
+            drawMemory();
+         }
+    }); // Runnable
+    repaints.setAction(SHOW_SPEED, new Runnable() {
+         public void run() {
+            drawSpeed();
+         }
+    }); // Runnable
     stepRunMenu.setText("Set Stepping mode");     // Set whether to step through program
     stepRunMenu.setMnemonic('S');                 // execution.
     stepRunOn.setText("On");                      // Set stepping on.
@@ -871,12 +1264,96 @@ public class MarieSim extends JFrame {
          }
     }); // Listener
 
-    setDelay.setText("Set Delay");                    // Set delay between program
-    setDelay.setEnabled(true);                        // instruction execution steps.
-    setDelay.setMnemonic('D');
-    setDelay.addActionListener(new ActionListener() {
+    setSpeed.setText("Set Speed");                    // Set instructions run per
+    setSpeed.setEnabled(true);                        // second.
+    setSpeed.setMnemonic('P');
+    setSpeed.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           displaySpeedFrame();
+         }
+    }); // Listener
+
+    setFrameRate.setText("Set Frame Rate");           // How often the display is
+    setFrameRate.setMnemonic('A');                    // brought up to date.
+    setFrameRate.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           setFrameRate();
+         }
+    }); // Listener
+
+    inputMenu.setText("Input");                       // Where INPUT instructions get
+    inputMenu.setMnemonic('I');                       // their values.
+    inputTyped.setText("Type When Asked");
+    inputTyped.setMnemonic('T');
+    inputTyped.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           setInputSource(null);
+           setStatusMessage(" INPUT values will be typed into the input register.");
+         }
+    }); // Listener
+    inputQueued.setText("Queue Values...");
+    inputQueued.setMnemonic('Q');
+    inputQueued.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           queueInput();
+         }
+    }); // Listener
+    inputFile.setText("Read From File...");
+    inputFile.setMnemonic('F');
+    inputFile.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           inputFromFile();
+         }
+    }); // Listener
+    inputConsole.setText("Read From Console");
+    inputConsole.setMnemonic('C');
+    inputConsole.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           if ((consoleInput == null) || (consoleInput.radix != inputRadix()))
+             consoleInput = new MarieStreamInput(new InputStreamReader(System.in),
+                                                 inputRadix());
+           setInputSource(consoleInput);
+           setStatusMessage(" INPUT values will be read from the console.");
+         }
+    }); // Listener
+
+    reverseStepItem.setText("Reverse Step");          // Undo the last instruction.
+    reverseStepItem.setEnabled(false);
+    reverseStepItem.setMnemonic('V');
+    reverseStepItem.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           runBackward(false);
+         }
+    }); // Listener
+
+    reverseContItem.setText("Reverse Continue");      // Undo instructions back to a
+    reverseContItem.setEnabled(false);                // breakpoint.
+    reverseContItem.setMnemonic('C');
+    reverseContItem.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           runBackward(true);
+         }
+    }); // Listener
+
+    historyItem.setText("Set History Size");          // Memory used to hold the undo
+    historyItem.setMnemonic('H');                     // history.
+    historyItem.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           setHistorySize();
+         }
+    }); // Listener
+    devicesItem.setText("Attach Devices...");         // Timer, console, etc. mapped
+    devicesItem.setMnemonic('D');                     // into memory.
+    devicesItem.addActionListener(new ActionListener() {
          public void actionPerformed(ActionEvent e) {
-           displayDelayFrame();
+           attachDevices();
+         }
+    }); // Listener
+    banksItem.setText("Banked Memory...");            // Extra memory seen through a
+    banksItem.setMnemonic('K');                       // window at 0800.
+    banksItem.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           setBankedMemory();
          }
     }); // Listener
 
@@ -904,16 +1381,39 @@ public class MarieSim extends JFrame {
             displayCoreDump();
          }
     }); // Listener
+    profileItem.setText("Profile");                 // Shows where the program has
+    profileItem.setEnabled(false);                  // spent its time.
+    profileItem.setMnemonic('O');
+    profileItem.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+            displayProfile();
+         }
+    }); // Listener
 
     runMenu.add(runRunItem);                       // Build the "run" menu from
+    runMenu.add(turboRunItem);
     stepRunMenu.add(stepRunOn);                    // components defined above.
     stepRunMenu.add(stepRunOff);
     runMenu.add(stepRunMenu);
-    runMenu.add(setDelay);
+    runMenu.add(setSpeed);
+    runMenu.add(setFrameRate);
+    inputMenu.add(inputTyped);
+    inputMenu.add(inputQueued);
+    inputMenu.add(inputFile);
+    inputMenu.add(inputConsole);
+    runMenu.add(inputMenu);
+    runMenu.addSeparator();
+    runMenu.add(reverseStepItem);
+    runMenu.add(reverseContItem);
+    runMenu.add(historyItem);
+    runMenu.addSeparator();
+    runMenu.add(devicesItem);
+    runMenu.add(banksItem);
     runMenu.addSeparator();
     runMenu.add(restartItem);
     runMenu.add(resetItem);
     runMenu.add(getDump);
+    runMenu.add(profileItem);
 
     runStop.setText("Stop");                      // Add the "stop" button.
     runStop.setMnemonic('S');
@@ -924,8 +1424,8 @@ public class MarieSim extends JFrame {
     runStop.addActionListener(new ActionListener() {
       public void actionPerformed(ActionEvent e) {
            runStop.setEnabled(false);
-           machineState = MARIE_HALTED_BY_USER;
-           setStatusMessage(" Halted at user request.");
+           runner.stop();                          // Even a wait for input is ended
+           setStatusMessage(" Halted at user request.");   // by the runner.
       }
     }); // Listener
 
@@ -939,10 +1439,11 @@ public class MarieSim extends JFrame {
     step.addActionListener(new ActionListener() {
       public void actionPerformed(ActionEvent e) {
           restartItem.setEnabled(true);
-          if ((machineState != MARIE_BLOCKED_ON_INPUT) && (!fatalError)) {
-            setStatusMessage(" Press [Step] to continue.");
-            fetchNext();
-            execute();
+          if ((core.machineState != MARIE_BLOCKED_ON_INPUT) && (!core.fatalError)) {
+            if (!runnerBusy()) {
+              setStatusMessage(" Press [Step] to continue.");
+              startRunner(MarieRunner.STEP);
+            }
           }
       }
     }); // Listener
@@ -957,11 +1458,10 @@ public class MarieSim extends JFrame {
     runToItem.addActionListener(new ActionListener() {
          public void actionPerformed(ActionEvent e) {
            restartItem.setEnabled(true);
-           if ((machineState != MARIE_BLOCKED_ON_INPUT) && (!fatalError)) {
+           if ((core.machineState != MARIE_BLOCKED_ON_INPUT) && (!core.fatalError)) {
              runStop.setEnabled(true);
              controlBar.repaint();
              runToBreakpoint();
-             runStop.setEnabled(false);
            }
          }
     }); // Listener
@@ -974,8 +1474,37 @@ public class MarieSim extends JFrame {
          }
     }); // Listener
 
+    conditionItem.setText("Set Conditional Breakpoint...");
+    conditionItem.setMnemonic('S');
+    conditionItem.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           setConditionalPoint(false);
+         }
+    }); // Listener
+
+    watchItem.setText("Set Watchpoint...");
+    watchItem.setMnemonic('W');
+    watchItem.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           setConditionalPoint(true);
+         }
+    }); // Listener
+
+    clearWatchItem.setText("Clear Watchpoints");
+    clearWatchItem.setMnemonic('L');
+    clearWatchItem.addActionListener(new ActionListener() {
+         public void actionPerformed(ActionEvent e) {
+           core.clearWatchpoints();
+           setStatusMessage(" Watchpoints cleared.");
+         }
+    }); // Listener
+
     breakpointMenu.add(runToItem);               // Populate breakpoint menu.
+    breakpointMenu.add(conditionItem);
     breakpointMenu.add(clearBPointsItem);
+    breakpointMenu.addSeparator();
+    breakpointMenu.add(watchItem);
+    breakpointMenu.add(clearWatchItem);
 
     showSymbols.setText("Symbol Map");           // Symbol table button
     showSymbols.setMnemonic('M');
@@ -1240,9 +1769,7 @@ public class MarieSim extends JFrame {
     outputScrollPane.setBorder(BorderFactory.createLoweredBevelBorder());
     outputScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
     outputScrollPane.setPreferredSize(new Dimension(158, 166));
-    outputArea.setFont(new Font("Monospaced", 0, 12));
-    outputArea.setBorder(BorderFactory.createLineBorder(Color.white, 4));
-    outputScrollPane.getViewport().add(outputArea, null);
+    outputScrollPane.getViewport().add(outputView, null);
     outputModeBox.setPreferredSize(new Dimension(60, 22));
     outputModeBox.setBackground(registerForeground);
     outputModeBox.setFont(new Font("Dialog", 0, 11));
@@ -1267,12 +1794,16 @@ public class MarieSim extends JFrame {
         int i = outputControlBox.getSelectedIndex();
         switch (i) {
           case 1: outputWithLinefeed = true;
+                  reformatOutput();
                   break;
           case 2: outputWithLinefeed = false;
+                  reformatOutput();
                   break;
-          case 3: outputArea.setText("");                    // Clear the output display as
-                  outputStream = new Vector();               // well as the Vector that
-                  outputControlBox.setSelectedIndex(0);      // holds the output contents.
+          case 3: outputControlBox.setSelectedIndex(0);      // Clear the output display
+                  synchronized (core) {                      // as well as the core's
+                    core.clearOutput();                      // buffer of output.
+                    outputView.rebuild();
+                  }
                   break;
           case 4: printOutput();
          default: break;
@@ -1461,7 +1992,7 @@ public class MarieSim extends JFrame {
     codeLineCount = 12;
     programArray  = new Object[12][6];        // Load program instruction monitor table
     for (int i = 0; i < 12; i++) {            // with blanks.
-      programArray[i][0] = new Boolean(false);
+      programArray[i][0] = Boolean.FALSE;
       programArray[i][1] = "  ";
       programArray[i][2] = "  ";
       programArray[i][3] = "  ";
@@ -1489,14 +2020,15 @@ public class MarieSim extends JFrame {
 *  Much of the code in this method was derived from Eckstein, Loy and Wood's fine book,   *
 *  *Java Swing* O'Reilly 1998.                                                            *
 ******************************************************************************************/
+    final Font memoryFont = new Font("Monospaced", 0, 11);
     class MemoryTableCellRenderer extends JLabel
                                     implements TableCellRenderer {
      public Component getTableCellRendererComponent(
                                    JTable table, Object value, boolean isSelected,
                                    boolean hasFocus, int row, int column)          {
        setText((String) value);
-       setFont(new Font("Monospaced", 0, 11));
-       setOpaque(true);
+       setFont(memoryFont);                                // Shared, not made anew for
+       setOpaque(true);                                    // every cell painted.
        setBackground(Color.white);
        setForeground(Color.black);
        setBorder(new EmptyBorder(0, 0, 0, 0));
@@ -1522,24 +2054,7 @@ public class MarieSim extends JFrame {
     } // getTableCellRendererComponent()
   } // RowHeaderTableCellRenderer
 
-    TableModel tm = new AbstractTableModel () {
-      String headers[] =  { " ", "+0", "+1", "+2", "+3", "+4", "+5", "+6", "+7",
-                                 "+8", "+9", "+A", "+B", "+C", "+D", "+E", "+F" };
-      public int getColumnCount()                { return headers.length; }
-      public int getRowCount()                   { return 256;  }
-      public String getColumnName(int col)       { return headers[col];   }
-      public Object getValueAt(int row, int col) { return memoryArray[row][col];   }
-      public boolean isCellEditable(int rowIndex, int columnIndex) { return false; }
-
-      public void setValueAt(Object value, int row, int col) {
-        memoryArray[row][col] = value;        // Only one column is editable,
-        fireTableDataChanged();               // set by isCellEditable method.
-      }
-      public Class getColumnClass(int c) {    // This method is used to provide
-        return getValueAt(0, c).getClass();   // the default cell editor.  I.e.,
-      }                                       // Booleans display as checkboxes.
-
-    }; // TableModel
+    TableModel tm = memoryModel;
 
     TableColumnModel cm = new DefaultTableColumnModel() {
       boolean first = true;                               // This is the column model
@@ -1612,11 +2127,6 @@ public class MarieSim extends JFrame {
     jv1.setPreferredSize(memoryTable.getMaximumSize());
     memoryTable.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
 
-    for (int i = 0; i < 4095; i+= 16)  {                // Populate memory with zeros
-      Arrays.fill(memoryArray[i / 16], " 0000");        // and provide address labels.
-      memoryArray[i / 16][0] = "  "+to3CharHexStr(i);
-    }
-
     JScrollPane jsp = new JScrollPane(memoryTable);
     jsp.setRowHeader(jv);
     return jsp;
@@ -1678,33 +2188,33 @@ public class MarieSim extends JFrame {
      }
   } // displayEditorFrame()
 
-  void displayDelayFrame() {
+  void displaySpeedFrame() {
 /******************************************************************************************
 *  As with the editor frame, if we have previously created an instance of the frame       *
-*  that accepts the delay parameter, we will make it visible.  If the frame has not       *
-*  been instantiated yet, or if it was disposed of, an exception is thrown and we         *
-*  create another instance.                                                               *
+*  that accepts the speed, we will make it visible.  If the frame has not been            *
+*  instantiated yet, or if it was disposed of, an exception is thrown and we create       *
+*  another instance.                                                                      *
 *                                                                                         *
 *  As with the editor, we add a window listener so that we can completely destroy         *
 *  the frame object after the JFrame is closed.                                           *
 ******************************************************************************************/
      try {
-           delayFrame.show();
-           delayFrame.requestFocus();
+           speedFrame.show();
+           speedFrame.requestFocus();
      }
      catch (Exception e) {
-           delayFrame = new DelayFrame();
-           delayFrame.addWindowListener(new WindowAdapter() {
+           speedFrame = new SpeedFrame();
+           speedFrame.addWindowListener(new WindowAdapter() {
               public void windowClosing(WindowEvent e) {
-                   delayFrame = null;
+                   speedFrame = null;
               } // windowClosing()
            }); // Listener
      }
-  } //displayDelayFrame()
+  } //displaySpeedFrame()
 
   void displayHelpAboutFrame() {
 /******************************************************************************************
-*  This method works the same way as displayDelayFrame().  See explanation above.         *
+*  This method works the same way as displaySpeedFrame().  See explanation above.         *
 ******************************************************************************************/
      try {
            helpAboutFrame.show();
@@ -1720,9 +2230,221 @@ public class MarieSim extends JFrame {
      }
   } //displayHelpAboutFrame()
 
+  void saveCheckpoint() {
+/******************************************************************************************
+*  Saves the whole machine (see MarieCheckpoint) in a CKP_TYPE file named after the       *
+*  program, so that the run can be picked up from this point as often as we like.         *
+******************************************************************************************/
+    if (((core.machineState == MARIE_RUNNING) && (!stepping)) || turbo) {
+      setStatusMessage(" Stop the program before saving a checkpoint.");
+      return;
+    }
+    try {
+      long start = System.nanoTime();
+      synchronized (core) {
+        MarieCheckpoint.write(core, mexFile+CKP_TYPE);
+      }
+      long micros = (System.nanoTime() - start) / 1000;
+      setStatusMessage(" Checkpoint saved to "+mexFile+CKP_TYPE+" ("+micros+" us).");
+    }
+    catch (IOException e) {
+      setStatusMessage(" Error!  Cannot save checkpoint: "+e.getMessage());
+    } // catch
+  } // saveCheckpoint()
+
+
+  void restoreCheckpoint() {
+/******************************************************************************************
+*  Restores the machine from the program's checkpoint file and redraws everything the     *
+*  checkpoint may have changed:  registers, all of memory, the output, the breakpoints    *
+*  and the program cursor.  The checkpoint should have been saved from the program now    *
+*  loaded, since the program monitor is not part of the checkpoint.                       *
+******************************************************************************************/
+    if (((core.machineState == MARIE_RUNNING) && (!stepping)) || turbo) {
+      setStatusMessage(" Stop the program before restoring a checkpoint.");
+      return;
+    }
+    long micros;
+    try {
+      long start = System.nanoTime();
+      synchronized (core) {
+        MarieCheckpoint.read(core, mexFile+CKP_TYPE);
+      }
+      micros = (System.nanoTime() - start) / 1000;
+    }
+    catch (IOException e) {
+      setStatusMessage(" Error!  Cannot restore checkpoint: "+e.getMessage());
+      return;
+    } // catch
+    memoryModel.showMemory();
+    regINPUT.setEditable(false);
+    inputPanel.setBackground(registerForeground);
+    inputModeBox.setBackground(registerForeground);
+    regINPUT.setValue(core.input);
+    regOUTPUT.setValue(core.output);
+    showRegisters();
+    reformatOutput();                            // Redisplay the output.
+    if (codeReference[core.pc] != MarieProgram.NO_ROW) {   // Move the cursor.
+      programFocusRow = codeReference[core.pc];
+      Rectangle rect = programTable.getCellRect(programFocusRow, 5, false);
+      programTable.scrollRectToVisible(rect);
+    }
+    programTable.repaint();
+    restartItem.setEnabled(true);
+    step.setEnabled(stepping);
+    setStatusMessage(" Checkpoint restored from "+mexFile+CKP_TYPE+" ("+micros+" us).");
+    if ((core.machineState == MARIE_HALTED_NORMAL)
+         || (core.machineState == MARIE_HALTED_ABNORMAL))
+      halt();
+    else if (core.machineState == MARIE_BLOCKED_ON_INPUT)
+      input();
+  } // restoreCheckpoint()
+
+
+  void startTrace() {
+/******************************************************************************************
+*  Starts recording every instruction the machine runs in a TRACE_TYPE file named after   *
+*  the program.  Replay Trace starts from the program as loaded, so a trace that is to    *
+*  be replayed should be started before the program is first run.                         *
+******************************************************************************************/
+    String traceFile = mexFile+MarieTraceWriter.TRACE_TYPE;
+    try {
+      MarieTraceWriter tracer = new MarieTraceWriter(traceFile, true);
+      synchronized (core) {
+        core.setTracer(tracer);
+      }
+      recordTrace.setText("Stop Recording");
+      setStatusMessage(" Recording trace to "+traceFile+".");
+    }
+    catch (IOException e) {
+      setStatusMessage(" Error!  Cannot record trace: "+e.getMessage());
+    } // catch
+  } // startTrace()
+
+
+  void stopTrace() {
+/******************************************************************************************
+*  Stops recording the trace, if we are, and closes the trace file.                       *
+******************************************************************************************/
+    MarieTraceWriter tracer;
+    synchronized (core) {
+      tracer = core.getTracer();
+      core.setTracer(null);
+    }
+    recordTrace.setText("Record Trace");
+    if (tracer == null)
+      return;
+    try {
+      tracer.close();
+      setStatusMessage(" Trace of "+tracer.getInstructionCount()+" instructions saved to "
+                       +mexFile+MarieTraceWriter.TRACE_TYPE+".");
+    }
+    catch (IOException e) {
+      setStatusMessage(" Error!  Trace is incomplete: "+e.getMessage());
+    } // catch
+  } // stopTrace()
+
+
+  void replayTrace() {
+/******************************************************************************************
+*  Plays back the program's trace file.  The program is reloaded (keeping the             *
+*  breakpoints) and the runner applies the trace to it at full speed, with the display    *
+*  refreshed by snapshotTimer just as in a turbo run.  Replay pauses after a breakpoint   *
+*  instruction, so a long run can be skipped through up to the point of interest and      *
+*  then stepped or run from there in the ordinary way.  Being a runner command, a replay  *
+*  is stopped like any other run, and nothing else can run the machine until it ends.     *
+******************************************************************************************/
+    if (((core.machineState == MARIE_RUNNING) && (!stepping)) || turbo
+         || runner.isBusy()) {
+      setStatusMessage(" Stop the program before replaying a trace.");
+      return;
+    }
+    stopTrace();                                   // Finish the file before reading it.
+    final MarieTraceReader reader;
+    try {
+      reader = new MarieTraceReader(mexFile+MarieTraceWriter.TRACE_TYPE);
+    }
+    catch (IOException e) {
+      setStatusMessage(" Error!  Cannot replay trace: "+e.getMessage());
+      return;
+    } // catch
+    BitSet breaks = (BitSet) core.breakpoints.clone();   // The reload clears them.
+    MarieCondition[] conditions = new MarieCondition[MarieCore.MEMORY_SIZE];
+    for (int a = breaks.nextSetBit(0); a >= 0; a = breaks.nextSetBit(a + 1))
+      conditions[a] = core.getBreakpointCondition(a);
+    loadProgram();
+    if (core.machineState != MARIE_HALTED_NORMAL) {      // The reload failed.
+      try {
+        reader.close();
+      }
+      catch (IOException e) {
+      } // catch
+      return;
+    }
+    for (int a = breaks.nextSetBit(0); a >= 0; a = breaks.nextSetBit(a + 1))
+      core.setBreakpoint(a, conditions[a]);
+    restart();
+    setStatusMessage(" Replaying trace.");
+    breakpointOn = false;
+    turbo = true;
+    replaying = reader;
+    restartItem.setEnabled(true);
+    runStop.setEnabled(true);
+    core.setListener(null);
+    snapshotTimer.start();
+    if (runner.replay(reader))
+      return;
+    snapshotTimer.stop();                          // Beaten to the runner after all.
+    core.setListener(coreListener);
+    replaying = null;
+    turbo = false;
+    runStop.setEnabled(false);
+    try {
+      reader.close();
+    }
+    catch (IOException e) {
+    } // catch
+    setStatusMessage(" The program is already running.");
+  } // replayTrace()
+
+
+  void endReplay() {
+/******************************************************************************************
+*  Called when the runner finishes a replay.  If the trace ran out, the machine is left   *
+*  paused where the recording ended (or halted, if the program halted there).             *
+******************************************************************************************/
+    String message;
+    if (runner.getReplayError() != null)
+      message = " Error!  Replay stopped: "+runner.getReplayError().getMessage();
+    else if (core.machineState == MARIE_PAUSED)
+      message = " Replay stopped for breakpoint after "+replaying.getInstructionCount()
+                +" instructions.";
+    else if (core.machineState == MARIE_RUNNING)
+      message = " Replayed "+replaying.getInstructionCount()+" instructions.";
+    else
+      message = " Replay halted at user request.";
+    replaying = null;
+    snapshotTimer.stop();
+    showSnapshot();
+    core.setListener(coreListener);
+    turbo = false;
+    runStop.setEnabled(false);
+    if (core.machineState == MARIE_RUNNING) {
+      if (core.instructionCode == MarieCore.HALT) {    // The recorded run ended there.
+        halt();
+        setStatusMessage(message);
+        return;
+      }
+      core.machineState = MARIE_PAUSED;
+    }
+    step.setEnabled(stepping);
+    setStatusMessage(message);
+  } // endReplay()
+
+
   void displayCoreDump() {
 /******************************************************************************************
-*  This method works the same way as displayDelayFrame().  See explanation above.         *
+*  This method works the same way as displaySpeedFrame().  See explanation above.         *
 ******************************************************************************************/
      try {
            dumpViewer.show();
@@ -1746,7 +2468,7 @@ public class MarieSim extends JFrame {
 
   void displaySymbolTable() {
 /******************************************************************************************
-*  This method works the same way as displayDelayFrame().  See explanation above.         *
+*  This method works the same way as displaySpeedFrame().  See explanation above.         *
 ******************************************************************************************/
      try {
            symbolTable.show();
@@ -1768,7 +2490,7 @@ public class MarieSim extends JFrame {
 
   void displayHelpFrame() {
 /******************************************************************************************
-*  This method works the same way as displayDelayFrame().  See explanation above.         *
+*  This method works the same way as displaySpeedFrame().  See explanation above.         *
 ******************************************************************************************/
      try {
            helpViewer.show();
@@ -1797,6 +2519,7 @@ public class MarieSim extends JFrame {
 ******************************************************************************************/
    BufferedWriter tempFile = null;
    String formFeed      = "\014";
+   flushOutput();                                        // Show any output still waiting.
    try {                                                 // Create the temporary output.
      tempFile = new BufferedWriter( new FileWriter("msim.tmp") );
    } // try
@@ -1805,7 +2528,7 @@ public class MarieSim extends JFrame {
    return;
    } // catch
    try {
-     tempFile.write(outputArea.getText());             // Capture the text in the
+     tempFile.write(outputView.getText());             // Capture the text in the
      tempFile.write(formFeed);                          // trace JTextArea.
      tempFile.close();
      }
@@ -2030,7 +2753,7 @@ public class MarieSim extends JFrame {
     for ( ; i <= MAX_MARIE_ADDR; i++) {                // Note:  If we get a value out of
       if (column == 0)                                 //   range for the ending address, we
         dumpFile.write(" "+to3CharHexStr(i)+":  ");    //   stop at the max address anyway.
-     dumpFile.write((memoryArray[i / 16][i % 16 + 1]).toString()+"  ");
+     dumpFile.write(" "+to4CharHexStr(core.memory[i])+"  ");
       if (i == end) {
         dumpFile.write(linefeed);
         return;
@@ -2091,6 +2814,33 @@ public class MarieSim extends JFrame {
     dumpViewer.show();
   } // produceCoreDump()
 
+  void displayProfile() {
+/******************************************************************************************
+*  Writes the hot-spot report for the run so far (see MarieProfile) to a PRF_TYPE file    *
+*  and displays it in a viewer, as we do for a core dump.  The counts start over each     *
+*  time the program is restarted.                                                         *
+******************************************************************************************/
+    String report;
+    synchronized (core) {                             // Wait for a turbo batch to finish.
+      report = profile.report(programLines, MAX_MARIE_ADDR + 1);
+    }
+    try {
+      BufferedWriter profileFile = new BufferedWriter(new FileWriter(mexFile+PRF_TYPE));
+      profileFile.write("Profile for "+mexFile+MEX_TYPE+"           "
+                        +new Date()+linefeed+linefeed);
+      profileFile.write(report.replaceAll("\n", linefeed));
+      profileFile.close();
+    }
+    catch (IOException e) {
+      setStatusMessage(" Error!  Cannot create profile file: "+e.getMessage());
+      return;
+    } // catch
+    TextFileViewer profileViewer = new TextFileViewer("Profile", mexFile+PRF_TYPE, false);
+    profileViewer.setSize(760, 400);
+    profileViewer.setLocation(100, 40);
+    profileViewer.show();
+  } // displayProfile()
+
 /* ------------------------------------------------------------------------------------- */
 /* -- General output methods.                                                         -- */
 /* ------------------------------------------------------------------------------------- */
@@ -2107,33 +2857,65 @@ public class MarieSim extends JFrame {
 
   void reformatOutput() {
 /******************************************************************************************
-*    Takes the contents of the Vector that holds output (in integer form) and translates  *
-*    to the current rendering mode (HEX, DEC or ASCII) state of the OUTPUT register.      *
-*    Note:  We could have fed the contents of the Vector back through the OUTPUT register *
-*           but fewer method invocations are required using a more direct approach.       *
-******************************************************************************************/
-     Enumeration e = outputStream.elements();
-     Integer value;
-     outputArea.setText("");
-     while (e.hasMoreElements()) {                             // Reformat the entire
-       value = (Integer) e.nextElement();                      // contents of the output
-       switch (regOUTPUT.mode) {                               // Vector.
-          case HEX: outputArea.append(to4CharHexStr(value.intValue()));   // Use the current OUTPUT
-                    break;                                     // register mode.
-          case DEC: outputArea.append(value.toString());
-                    break;
-          default:  outputArea.append(""+ (char) (value.intValue() % 128));
-       } // switch
-       if (outputWithLinefeed)                                 // And check linefeed
-         outputArea.append(linefeed);                          // preference as well.
-       else
-         if ((value.intValue() == 13) && (regOUTPUT.mode == ASCII))
-            outputArea.append(linefeed);
-     } // while
-     outputArea.repaint();
+*    Shows everything the program has output (held in integer form by the MarieCore) in   *
+*    the current rendering mode (HEX, DEC or ASCII) of the OUTPUT register and with the   *
+*    current linefeed setting.  Only the output view's line index is rebuilt; the text    *
+*    itself is formatted as it is painted.                                                *
+******************************************************************************************/
+     synchronized (core) {
+       outputView.rebuild();
+     }
   } // reformatOutput()
 
 
+  void formatValue(StringBuffer text, int value) {
+/******************************************************************************************
+*    Appends one output value to text, rendered in the OUTPUT register's current mode.    *
+******************************************************************************************/
+     switch (regOUTPUT.mode) {
+        case HEX: text.append(to4CharHexStr(value));
+                  break;
+        case DEC: text.append((short) value);
+                  break;
+        default:  text.append((char) (value % 128));
+     } // switch
+  } // formatValue()
+
+
+  boolean endsLine(int value) {
+/******************************************************************************************
+*    Tells whether a linefeed follows value:  after every value if the user wants         *
+*    linefeeds, otherwise only after a carriage return (13) shown as ASCII.               *
+******************************************************************************************/
+     return outputWithLinefeed || ((value == 13) && (regOUTPUT.mode == ASCII));
+  } // endsLine()
+
+
+  void flushOutput() {
+/******************************************************************************************
+*    Puts any output the program has produced since the last flush on the screen.  The    *
+*    output view is not extended an instruction at a time:  output() just starts          *
+*    outputTimer, and when it fires (on the event dispatching thread) everything waiting  *
+*    in the core's output buffer is added to the view's line index in one go and the end  *
+*    of the output is scrolled into sight.                                                *
+******************************************************************************************/
+     int shown = outputShown;
+     synchronized (core) {
+       if (outputShown > core.getOutputCount())     // Output was cleared or taken back.
+         outputView.rebuild();
+       else
+         outputView.extend();
+     }
+     if (outputShown == shown)
+       return;
+     SwingUtilities.invokeLater(new Runnable() {    // Once the view has been resized.
+       public void run() {
+         outputView.scrollToEnd();
+       }
+     });
+  } // flushOutput()
+
+
 /* ------------------------------------------------------------------------------------- */
 /* -- Machine loading and reset methods.                                              -- */
 /* ------------------------------------------------------------------------------------- */
@@ -2191,11 +2973,11 @@ public class MarieSim extends JFrame {
 *  If we have found a valid file, the first thing we do is clear any remnants from a      *
 *  previously-loaded program.  Then we load the codelines into a Vector from which        *
 *  an enumeration will be used to load the program instruction array (programArray)       *
-*  and the memoryArray.  We load into a Vector prior to loading the data structures       *
+*  and the core's memory.  We load into a Vector prior to loading the data structures     *
 *  so that we can find out how big to make the programArray.  (This is created new        *
 *  for each program loaded.)                                                              *
 *                                                                                         *
-*  Program line numbers are loaded into a HashTable that provides a correspondence        *
+*  Program line numbers are loaded into an int table that provides a correspondence       *
 *  between the memory address of the program statement and the location of that           *
 *  statement in the program monitor table.  We retrieve these addresses during the        *
 *  fetch cycle.                                                                           *
@@ -2216,9 +2998,18 @@ public class MarieSim extends JFrame {
       setStatusMessage(" No file to load.  Use File+Load menu picks.");
       return;
     }
+    stopTrace();
     reloadFileItem.setEnabled(false);
+    saveCheckpoint.setEnabled(false);
+    loadCheckpoint.setEnabled(false);
+    recordTrace.setEnabled(false);
+    replayTrace.setEnabled(false);
     runRunItem.setEnabled(false);              // Set menu buttons and options
+    turboRunItem.setEnabled(false);
+    reverseStepItem.setEnabled(false);
+    reverseContItem.setEnabled(false);
     getDump.setEnabled(false);                 // to assume errors.
+    profileItem.setEnabled(false);
     breakpointMenu.setEnabled(false);
     showSymbols.setEnabled(false);
     try {                                      // Try to open the input.
@@ -2242,7 +3033,7 @@ public class MarieSim extends JFrame {
     marieReset();                              // Clear the simulator, including
     if (codeLineCount >=0)                     // any program loaded.
       for (int i = 0; i < codeLineCount; i++) {
-        programArray[i][0] = new Boolean(false);
+        programArray[i][0] = Boolean.FALSE;
         programArray[i][1] = "  ";
         programArray[i][2] = "  ";
         programArray[i][3] = "  ";
@@ -2295,29 +3086,37 @@ public class MarieSim extends JFrame {
       return;                                  // to caller.
     int addr = 0;
     programArray  = new Object[codeLineCount][6];    // Prepare program-specific data
-    codeReference.clear();                           // structures.
+    codeReference = MarieProgram.rowIndex(codeVector);   // structures.
+    programLines = new AssembledCodeLine[codeVector.size()];
+    codeVector.copyInto(programLines);
+    rowAddress = new int[codeLineCount];
+    Arrays.fill(rowAddress, -1);
+    symbols.clear();
     Enumeration e = codeVector.elements();
     int lineCount = 0;
 
     while (e.hasMoreElements()) {                    // Load data structures.
       aCodeLine = (AssembledCodeLine) e.nextElement();
-      programArray[lineCount][0] = new Boolean(false);      // Load the monitor table...
+      programArray[lineCount][0] = Boolean.FALSE;             // Load the monitor table...
       programArray[lineCount][1] = "  "+aCodeLine.lineNo;
       programArray[lineCount][2] = " "+aCodeLine.stmtLabel;
       programArray[lineCount][3] = aCodeLine.mnemonic;
       programArray[lineCount][4] = aCodeLine.operandToken;
       programArray[lineCount][5] = " "+aCodeLine.hexCode+aCodeLine.operand;
-      codeReference.put(aCodeLine.lineNo, new Integer(lineCount));
       lineCount++;
       try {
         addr = Integer.parseInt(aCodeLine.lineNo, 16);      // ... and load memory.
+        rowAddress[lineCount - 1] = addr;
+        if (aCodeLine.stmtLabel.trim().length() > 0)
+          symbols.put(aCodeLine.stmtLabel.trim(), Integer.valueOf(addr));
+        core.loadWord(addr, Integer.parseInt(aCodeLine.hexCode+aCodeLine.operand, 16));
       }
       catch (NumberFormatException exception) {
         continue;
       } // catch
-        memoryArray[addr / 16][addr % 16 + 1] = " "+aCodeLine.hexCode+aCodeLine.operand;
     } // while();
     ptm.fireTableStructureChanged();
+    memoryModel.showMemory();
     String aString = (String) programArray[0][1];
     try {                                                  // Get memory cell of
           addr = Integer.parseInt(aString.trim(), 16);     // first instruction.
@@ -2330,8 +3129,9 @@ public class MarieSim extends JFrame {
     Rectangle rect = memoryTable
                        .getCellRect((memoryRow), memoryCol, false);
     memoryTable.scrollRectToVisible(rect);
-    regPC.setValue(addr);                                  // Set PC to first address
-    regPC.postActionEvent();                               // of program.
+    core.pc = (short) addr;                                // Set PC to first address
+    regPC.setValue(core.pc);                               // of program.
+    regPC.postActionEvent();
     rect = programTable.getCellRect(0, 2, false);
     programFocusRow = 0;                                  // Highlight and make visible the
     programTable.scrollRectToVisible(rect);               // first program instruction.
@@ -2339,8 +3139,16 @@ public class MarieSim extends JFrame {
     memoryPane.repaint();
     setStatusMessage(" "+mexPath+fileSeparator+mexFile+MEX_TYPE+" loaded.");
     reloadFileItem.setEnabled(true);
+    saveCheckpoint.setEnabled(true);
+    loadCheckpoint.setEnabled(true);
+    recordTrace.setEnabled(true);
+    replayTrace.setEnabled(true);
     runRunItem.setEnabled(true);                          // Set menu buttons and options
+    turboRunItem.setEnabled(true);
+    reverseStepItem.setEnabled(true);
+    reverseContItem.setEnabled(true);
     getDump.setEnabled(true);                             // accordingly.
+    profileItem.setEnabled(true);
     breakpointMenu.setEnabled(true);
     breakpointOn = false;
     step.setEnabled(true);
@@ -2349,7 +3157,7 @@ public class MarieSim extends JFrame {
     checkForMap();
     if (stepping)
        step.setEnabled(true);
-    machineState = MARIE_HALTED_NORMAL;
+    core.machineState = MARIE_HALTED_NORMAL;
   } // loadProgram()
 
 
@@ -2374,11 +3182,10 @@ public class MarieSim extends JFrame {
 *   and program counter to their states after the program was initially loaded.  We       *
 *   preserve user settings (e.g., "step mode") as they have been set by the user.         *
 ******************************************************************************************/
-     if ((machineState == MARIE_UNINITIALIZED) ||
-          (machineState == MARIE_NO_PROGRAM_LOADED))
+     if ((core.machineState == MARIE_UNINITIALIZED) ||
+          (core.machineState == MARIE_NO_PROGRAM_LOADED))
         return;
-     fatalError = false;
-     errorCode = 0;
+     turbo = false;
      regINPUT.setEditable(false);
      regINPUT.repaint();
      if (stepping) {
@@ -2388,11 +3195,11 @@ public class MarieSim extends JFrame {
      else {
         setStatusMessage("  Press [Run] to start.");
      }
-     regPC.setValue(((String) programArray[0][1]).trim()); // Set PC to first address of program loaded.
+     core.restart(Integer.parseInt(((String) programArray[0][1]).trim(), 16));
+     regPC.setValue(core.pc);                    // Set PC to first address of program loaded.
      Rectangle rect = programTable.getCellRect(0, 2, false);
      programFocusRow = 0;
      programTable.scrollRectToVisible(rect);
-     machineState = MARIE_RUNNING;
      programTable.repaint();
   } // restart()
 
@@ -2402,6 +3209,8 @@ public class MarieSim extends JFrame {
 *  This method has the effect of pressing the reset button on a physical machine: It      *
 *  clears everything.                                                                     *
 ******************************************************************************************/
+    stopTrace();
+    core.reset();                               // Clear the machine itself.
     regAC.setValue(0);                          // Reset all registers to 0.
     regAC.postActionEvent();
     regIR.setValue(0);
@@ -2415,16 +3224,12 @@ public class MarieSim extends JFrame {
     regINPUT.setValue(0);
     regINPUT.setEditable(false);
     regOUTPUT.setValue(0);
-    outputArea.setText("");
-    outputArea.setText("");                    // Clear the output display and the
-    outputStream = new Vector();               // output Vector.
-    for (int i = 0; i < 4095; i+= 16)  {       // Initialize memory.
-      Arrays.fill(memoryArray[i / 16], " 0000");
-      memoryArray[i / 16][0] = "  "+to3CharHexStr(i);
-    }
+    outputView.rebuild();                      // Clear the output display (the core's
+                                               // output was cleared above).
+    memoryModel.showMemory();                  // Memory was zeroed by the core.
     if (codeLineCount >=0)                     // If we already loaded a program, clear it.
       for (int i = 0; i < codeLineCount; i++) {
-        programArray[i][0] = new Boolean(false);
+        programArray[i][0] = Boolean.FALSE;
         programArray[i][1] = "  ";
         programArray[i][2] = "  ";
         programArray[i][3] = "  ";
@@ -2432,11 +3237,20 @@ public class MarieSim extends JFrame {
         programArray[i][5] = "  ";
       }
     programFocusRow = 0;
+    memoryModel.changed(memoryFocusCell);
     memoryFocusCell = 0;
-    machineState = MARIE_NO_PROGRAM_LOADED;
+    memoryModel.changed(memoryFocusCell);
+    memoryModel.fireChanges();
     runRunItem.setEnabled(false);            // Nothing to run...
+    turboRunItem.setEnabled(false);
+    reverseStepItem.setEnabled(false);
+    reverseContItem.setEnabled(false);
     restartItem.setEnabled(false);           // Nothing to restart...
     reloadFileItem.setEnabled(false);        // Nothing to reload...
+    saveCheckpoint.setEnabled(false);        // ... or checkpoint.
+    loadCheckpoint.setEnabled(false);
+    recordTrace.setEnabled(false);
+    replayTrace.setEnabled(false);
     showSymbols.setEnabled(false);           // No symbol table...
     setStatusMessage(" ");
     breakpointOn = false;
@@ -2446,210 +3260,158 @@ public class MarieSim extends JFrame {
 /* --                                                                                 -- */
 /* --  Marie operational methods.   (MARIE Microcode.)                                -- */
 /* --                                                                                 -- */
-  void fetchNext() {
+  void showMachine(MarieSnapshot s) {
 /******************************************************************************************
-*   This method performs the "fetch" part of the "fetch-execute" cycle.                   *
-*                                                                                         *
-*      Side effects: IR contains instruction,                                             *
-*                    MAR contains operand address (if any)                                *
-*                    MBR contains operand (if any)                                        *
-*                    fatalError set if invalid opcode in instruction                      *
-*                                     or invalid operand address.                         *
-*                    Machine state set to MARIE_RUNNING.                                  *
-******************************************************************************************/
-    String aString;                  // These local variables make the code
-    int  memoryRow, memoryCol;       // cleaner and easier to read.
-    if (fatalError)  {                           // Stop if there has been an error.
-      halt();
+*   Marks for the next frame what a snapshot published by the runner shows has changed:   *
+*   the registers, the program cursor (on the instruction last run) and the highlight on  *
+*   the memory cell its operand came from.  Called on the runner's thread, so we only     *
+*   note where things are; drawRegisters() and the methods after it do the drawing.       *
+******************************************************************************************/
+    showRegisters();
+    repaints.mark(SHOW_SPEED);
+    if (s.lastAddress < 0)                       // Nothing run yet.
       return;
+    int row = codeReference[s.lastAddress];      // Move the cursor.
+    if (row != MarieProgram.NO_ROW) {
+      programFocusRow = row;
+      repaints.mark(SHOW_PROGRAM);
     }
-    regMAR.setValue(regPC.getValue());           // Set MAR to address of next instruction.
-    regMAR.postActionEvent();                    // Note: This part happens too fast to be
-    int addr = regMAR.getValue();                // seen on the screen, but we do it this
-    memoryRow = addr / 16;                       // way because it's how the fetch-execute
-    memoryCol = addr % 16 + 1;                   // process works.
-    try {                                                             // Pull instruction
-      regIR.setValue((" "+(String) memoryArray[memoryRow][memoryCol]).trim()); // from memory
-      regIR.postActionEvent();                                        // into IR.
-    }
-    catch (ArrayIndexOutOfBoundsException e) {
-             errorCode = 3;
-             fatalError = true;
-             return;
-    } // catch
-    aString = regPC.toString().trim();           // Move the cursor.
-    if (codeReference.containsKey(aString)) {
-      programFocusRow =((Integer) codeReference.get(aString)).intValue();
-      Rectangle rect = programTable.getCellRect(programFocusRow, 5, false);
-      programTable.scrollRectToVisible(rect);
+    if ((!s.fatalError) && (MarieCore.operandReqd[s.instructionCode])) {
+      int addr = s.mar;                          // Show the operand's cell.
+      memoryModel.changed(memoryFocusCell);      // Move the highlight.
+      memoryFocusCell = addr;
+      memoryModel.changed(memoryFocusCell);
+      memoryScrollCell = addr;
+      repaints.mark(SHOW_MEMORY);
+    } // if operand
+  } // showMachine()
+
+
+  void runEnded(MarieSnapshot s) {
+/******************************************************************************************
+*   Called on the event dispatching thread when the runner finishes a command, with the   *
+*   snapshot of the machine it left.  Whatever stopped the machine is dealt with here:    *
+*   INPUT asks the user for a value, HALT reports the exit status and a pause says what   *
+*   caused it.  A turbo run is wound up by endTurbo().                                    *
+******************************************************************************************/
+    if (replaying != null) {
+      endReplay();
+      return;
     }
-    aString = regIR.toString().trim();
-    try {
-       instructionCode = Integer.parseInt(aString.substring(0,1), 16);
-       if (instructionCode >= operandReqd.length)  // Make sure we have a valid hexcode.
-         throw new NumberFormatException();        // This double-checks the operandReqd
-    }                                              // array as well!
-    catch (NumberFormatException e) {
-      fatalError = true;
-      errorCode = 1;
+    if (turbo) {
+      endTurbo();
       return;
     }
-    if (operandReqd[instructionCode]) {            // If instruction needs one,
-      regMAR.setValue(regIR.toString().trim().substring(1,4));  // load the operand into MBR
-      regMAR.postActionEvent();                    // using MAR value.
-      addr = regMAR.getValue();
-      memoryRow = addr / 16;
-      memoryCol = addr % 16 + 1;
-      memoryFocusCell = addr;
-      try {
-        Rectangle rect = memoryTable.getCellRect(memoryRow, memoryCol, false);
-        memoryTable.scrollRectToVisible(rect);
-        regMBR.setValue((" "+memoryArray[memoryRow][memoryCol]).trim());
-        if (fatalError)
-          return;
-        regMBR.postActionEvent();
+    repaints.flush();                            // Show where it stopped.
+    if (s.machineState == MARIE_BLOCKED_ON_INPUT)
+      input();
+    else if ((s.machineState == MARIE_HALTED_NORMAL)
+              || (s.machineState == MARIE_HALTED_ABNORMAL))
+      halt();
+    else if (s.machineState == MARIE_PAUSED) {
+      runStop.setEnabled(false);
+      if (breakpointOn && (s.lastAddress >= 0) && core.breakpoints.get(s.lastAddress))
+        setStatusMessage(" Stopped for breakpoint.");
+      else                                       // A watchpoint was triggered.
+        setStatusMessage(" Stopped for watchpoint at "+to3CharHexStr(s.watchAddress)+".");
+    }
+    else if (s.machineState == MARIE_HALTED_BY_USER) {
+      runStop.setEnabled(false);
+      if (regINPUT.isEditable()) {               // Stopped while waiting for input.
+        regINPUT.setEditable(false);
+        inputPanel.setBackground(registerForeground);
+        inputModeBox.setBackground(registerForeground);
+        regINPUT.repaint();
       }
-      catch (ArrayIndexOutOfBoundsException e) {
-             errorCode = 3;
-             fatalError = true;
-             return;
-      } // catch
-    } // if operand
-    regPC.setValue(regPC.getValue()+1);            // Increment PC.
-    if (regPC.getValue() > MAX_MARIE_ADDR) {
-       errorCode = 8;
-       fatalError = true;
     }
-    if (fatalError)
-      return;
-    regPC.postActionEvent();
-    errorFound = false;                            // Reset error flag.
-    machineState = MARIE_RUNNING;
-    programTable.repaint();
-    memoryTable.repaint();
-  } // fetchNext()
+  } // runEnded()
 
-  void execute () {
+
+  void showRegisters() {
 /******************************************************************************************
-*   This method is the mainline of the "execute" part of the "fetch-execute" cycle.       *
+*   Has the register displays brought up to date at the next frame.  Safe to call from    *
+*   the thread running the program.                                                       *
 ******************************************************************************************/
-    switch (instructionCode) {
-       case  0: jnS();
-                break;
-       case  1: load();
-                break;
-       case  2: store();
-                break;
-       case  3: add();
-                break;
-       case  4: subt();
-                break;
-       case  5: input();
-                break;
-       case  6: output();
-                break;
-       case  7: halt();
-                break;
-       case  8: skipCond();
-                break;
-       case  9: jump();
-                break;
-       case 10: clear();
-                break;
-       case 11: addI();
-                break;
-       case 12: jumpI();
-                break;
-      default:
-        fatalError = true;
-        errorCode = 1;
-    } // switch
-  } // execute()
+    repaints.mark(SHOW_REGISTERS);
+  } // showRegisters()
 
 
-  void jnS() {
+  void drawRegisters() {
 /******************************************************************************************
-*   Jump and Store: Store PC at address [MAR] and set PC (jump) to address [MAR]+1.       *
-*   (This instruction can be used to create subroutines in MARIE assembly language.)      *
+*   Copies the registers from the runner's latest snapshot into the register displays,    *
+*   and asks the runner for a fresh snapshot for the next frame if it is still running.   *
+*   This and the methods that follow are run by our MarieRepaintScheduler on the event    *
+*   dispatching thread, at most once a frame however often the program marks them.        *
 ******************************************************************************************/
-     int addr = regMAR.getValue();
-     int memoryRow = addr / 16;
-     int memoryCol = addr % 16 + 1;
-     try {
-       memoryArray[memoryRow][memoryCol] = " "+to4CharHexStr(regPC.getValue());
-       regPC.setValue(regMAR.getValue()+1);
-       regPC.postActionEvent();
-     }
-     catch (ArrayIndexOutOfBoundsException e) {
-             errorCode = 3;
-             fatalError = true;
-     }
-   } // jnS()
+    MarieSnapshot s = runner.getSnapshot();
+    if (runner.isBusy())
+      runner.requestSnapshot();
+    if (s != null)
+      drawRegisters(s);
+  } // drawRegisters()
+
+
+  void drawRegisters(MarieSnapshot s) {
+    regAC.setValue(s.ac);
+    regIR.setValue(s.ir);
+    regMAR.setValue(s.mar);
+    regMBR.setValue(s.mbr);
+    regPC.setValue(s.pc);
+    if (!regINPUT.isEditable())                  // Not while the user is typing into it.
+      regINPUT.setValue(s.input);
+    regOUTPUT.setValue(s.output);
+  } // drawRegisters()
+
+
+  void drawProgramCursor() {
+    Rectangle rect = programTable.getCellRect(programFocusRow, 5, false);
+    programTable.scrollRectToVisible(rect);
+    programTable.repaint();
+  } // drawProgramCursor()
 
 
-  void load() {
-/******************************************************************************************
-*   Copies the operand from the MBR to the AC.  (The MBR is loaded during                 *
-*   instruction fetch.)                                                                   *
-******************************************************************************************/
-     regAC.setValue(regMBR.getValue());
-     regAC.postActionEvent();
-   } // load()
+  void drawMemory() {
+    Rectangle rect = memoryTable.getCellRect(memoryScrollCell / 16,
+                                             memoryScrollCell % 16 + 1, false);
+    memoryTable.scrollRectToVisible(rect);
+    memoryModel.fireChanges();                   // Just the rows that changed.
+  } // drawMemory()
 
 
-  void store() {
-/******************************************************************************************
-*   Store whatever is in the accumulator to the address specified in the MAR              *
-*   by first moving it to the MBR.                                                        *
-*   We have to make sure that the value is stored as a 4-char hex string, no              *
-*   matter what the current rendering/mode of the MBR, so we don't just use the           *
-*   current rendering, which could be in any radix mode.                                  *
-******************************************************************************************/
-     int memoryRow, memoryCol;
-     regMBR.setValue(regAC.getValue());
-     if (fatalError)
-       return;
-     int addr = regMAR.getValue();
-     memoryRow = addr / 16;
-     memoryCol = addr % 16 + 1;
-     try {
-       memoryArray[memoryRow][memoryCol] = " "+to4CharHexStr(regMBR.getValue());
-       Rectangle rect = memoryTable.getCellRect(memoryRow, memoryCol, false);
-       memoryTable.scrollRectToVisible(rect);
-       regMBR.postActionEvent();
-     }
-     catch (ArrayIndexOutOfBoundsException e) {
-             errorCode = 3;
-             fatalError = true;
-     }
-   } // store()
+  void drawSpeed() {
+    if ((core.machineState == MARIE_RUNNING) && (!turbo) && (!stepping))
+      setStatusMessage(" Running at "+speedText(governor.getAchievedRate())
+                       +" instructions per second.");
+  } // drawSpeed()
 
 
-  void add() {
+  String speedText(long speed) {
 /******************************************************************************************
-*   Adds the value in the MBR to the AC.  (The MBR is loaded during instruction fetch.)   *
+*   Returns a speed in instructions per second as text, "Max" meaning unlimited.          *
 ******************************************************************************************/
-     regAC.setValue(regAC.getValue() + regMBR.getValue());
-     regAC.postActionEvent();
-   } // add()
+    return (speed == MarieGovernor.UNLIMITED) ? "Max" : Long.toString(speed);
+  } // speedText()
 
 
-  void subt() {
+  void memoryChanged(int addr, int value) {
 /******************************************************************************************
-*   Subtracts the value in the MBR from the AC.                                           *
+*   Called by the MarieCore when a STORE or JNS instruction has written to memory.  The   *
+*   cell's row is redisplayed and the cell scrolled into view at the next frame.          *
 ******************************************************************************************/
-     regAC.setValue(regAC.getValue() - regMBR.getValue());
-     regAC.postActionEvent();
-   } // subt()
+    shownMemory[addr] = value;
+    memoryModel.changed(addr);
+    memoryScrollCell = addr;
+    repaints.mark(SHOW_MEMORY);
+  } // memoryChanged()
 
 
   void input() {
 /******************************************************************************************
 *   This method is called twice to effect one input.  The first time through, the         *
-*   machine state is set to BLOCKED_ON_INPUT and the input register is enabled.  The      *
-*   second time through, the input is moved to the accumulator and the register is        *
-*   closed to additional input.  The second entry into this method is triggered by        *
-*   an action event on the INPUT register.                                                *
+*   MarieCore has blocked on the INPUT instruction and the input register is enabled.     *
+*   The second time through, the input is passed to the core, which completes the         *
+*   instruction, and the register is closed to additional input.  The second entry into   *
+*   this method is triggered by an action event on the INPUT register.                    *
 *                                                                                         *
 *   After the second pass, we need to resume processing after the blocking call.  If      *
 *   the machineState is MARIE_RUNNING, we just call the runProgram() method again         *
@@ -2657,9 +3419,10 @@ public class MarieSim extends JFrame {
 *   simulator is being run in "step" mode, we send a completion message and return        *
 *   to the caller.                                                                        *
 ******************************************************************************************/
-     if (machineState == MARIE_RUNNING) {       // First time through???
+     if (core.machineState != MARIE_BLOCKED_ON_INPUT)
+       return;
+     if (!regINPUT.isEditable()) {               // First time through???
        setStatusMessage(" Waiting for input.");
-       machineState = MARIE_BLOCKED_ON_INPUT;      // Block further execution.
        regINPUT.setText("");
        inputPanel.setBackground(Color.pink);
        inputModeBox.setBackground(Color.pink);
@@ -2667,29 +3430,27 @@ public class MarieSim extends JFrame {
        regINPUT.repaint();
        regINPUT.requestFocus();
      }
-     else if (machineState == MARIE_BLOCKED_ON_INPUT) {  // Second time through???
+     else {                                        // Second time through???
        regINPUT.setValue(regINPUT.getText());
        regINPUT.setEditable(false);              // "Close" the register to input
        runStop.requestFocus();                   // until needed again.
        inputPanel.setBackground(registerForeground);
        inputModeBox.setBackground(registerForeground);
        regINPUT.repaint();
-       if (fatalError) {
-         halt();
-         return;
-       }
-       regAC.setValue(regINPUT.getValue());
-       if (fatalError) {
+       if (core.fatalError) {
          halt();
          return;
        }
+       core.supplyInput(regINPUT.getValue());    // Completes the INPUT instruction.
+       regAC.setValue(core.ac);
        regAC.repaint();
-       machineState = MARIE_RUNNING;             // Reset the machine state.
        if (stepping)                             // Proceed with next instruction
          setStatusMessage(" Press [Step] to continue.");        // or step.
        else {
          setStatusMessage(" ");
-         if (breakpointOn)
+         if (turbo)
+           runTurbo();
+         else if (breakpointOn)
            runToBreakpoint();
          else
            runProgram();
@@ -2698,247 +3459,478 @@ public class MarieSim extends JFrame {
    } // input()
 
 
-  void output() {
+  void output(int value) {
 /******************************************************************************************
-*   Copies the value in the AC to the output register and concatenates the value to       *
-*   the text output vector.  Note:  The output appearance is controlled by the radix      *
-*   mode of the output register.                                                          *
+*   Called by the MarieCore when the program executes an OUTPUT instruction.  The output  *
+*   register is redrawn at the next frame.  The core keeps the value in its output        *
+*   buffer, and flushOutput() puts it in the output area when outputTimer next fires.     *
+*   Note:  The output appearance is controlled by the radix mode of the output register.  *
 ******************************************************************************************/
-     regOUTPUT.setValue(regAC.getValue());
-     outputStream.addElement(new Integer(regOUTPUT.getValue()));
-     if (regOUTPUT.toString() != null)
-       outputArea.append(regOUTPUT.toString().trim());
-     if (outputWithLinefeed)
-       outputArea.append(linefeed);
-     else
-       if ((regOUTPUT.getValue() == 13) && (regOUTPUT.mode == ASCII))
-          outputArea.append(linefeed);
-     Document d = outputArea.getDocument();
-     outputArea.select(d.getLength(), d.getLength());
+     repaints.mark(SHOW_REGISTERS);
+     if (!outputTimer.isRunning())
+       outputTimer.start();
    } // output()
 
 
   void halt() {
 /******************************************************************************************
-*   Changes the machine state from (probably) RUNNING to HALTED using the fatalError      *
-*   boolean to determine which one is which.  The statusMessage is also loaded with       *
-*   a string from the errorMessage array so that it can be displayed.                     *
+*   Halts the MarieCore, which changes the machine state from (probably) RUNNING to       *
+*   HALTED using the fatalError boolean to determine which one is which.  The             *
+*   statusMessage is also loaded with a string from the errorMessage array so that it     *
+*   can be displayed.                                                                     *
 ******************************************************************************************/
-    // Get exit status.
-    int exit_status = regIR.getValue() & 0x0fff;
+    core.halt();
+    int exit_status = core.exitStatus();
 
     step.setEnabled(false);
     runStop.setEnabled(false);
-    if (fatalError) {
-       machineState = MARIE_HALTED_ABNORMAL;
-       if (errorCode < errorMsgs.length)
-         setStatusMessage(" Machine halted abnormally.  Error: "+errorMsgs[errorCode] + ". Exit status: " + exit_status);
+    if (core.fatalError) {
+       if (core.errorCode < errorMsgs.length)
+         setStatusMessage(" Machine halted abnormally.  Error: "+errorMsgs[core.errorCode] + ". Exit status: " + exit_status);
        else
          setStatusMessage(" Machine halted abnormally. Exit status: " + exit_status);
     }
     else {
-       machineState = MARIE_HALTED_NORMAL;
        setStatusMessage(" Machine halted normally. Exit status: " + exit_status);
     }
    } // halt()
 
-  void skipCond() {
+
+/* --                                                                                 -- */
+/* --  Marie execution control methods.                                               -- */
+/* --                                                                                 -- */
+  void runToBreakpoint() {
+/******************************************************************************************
+*   If we have a runnable program loaded, we have the runner run instructions until it    *
+*   comes to a breakpoint or the program terminates.  A program paused at a breakpoint    *
+*   resumes from it:  the runner checks for a breakpoint after running each instruction,  *
+*   so the one we are paused on does not stop us again.                                   *
+******************************************************************************************/
+   if ((core.machineState == MARIE_UNINITIALIZED) ||
+        (core.machineState == MARIE_NO_PROGRAM_LOADED) || runnerBusy())
+     return;
+   if ((core.machineState == MARIE_HALTED_NORMAL) ||
+        (core.machineState == MARIE_HALTED_ABNORMAL))
+     restart();
+   core.fatalError = false;
+   validate();                           // Reset fatal errors.
+   breakpointOn = true;
+   turbo = false;
+   core.machineState = MARIE_RUNNING;
+   startRunner(MarieRunner.RUN_TO_BREAKPOINT);
+  } // runToBreakpoint()
+
+
+  boolean runnerBusy() {
 /******************************************************************************************
-*   This instruction will skip over the instruction at PC+1 based on the value in the     *
-*   instruction's lower 12 bits.                                                          *
+*   Tells whether the runner is still busy with a command, in which case the user has     *
+*   got in ahead of it and is told so.  Nothing may touch the machine until it is done.   *
 ******************************************************************************************/
-     /*
-     Original implementation:
+    if (!runner.isBusy())
+      return false;
+    setStatusMessage(" The program is already running.");
+    return true;
+  } // runnerBusy()
 
-     int cond = regIR.getValue();
-     cond = cond & 0x0C00;   // Strip the opcode from the instruction.
-     cond = cond >> 10;      // Shift the conditional to the low-order bits.
 
-     if (cond == 3) {        // Check valid values for condition 0, 1, & 2.
-      fatalError = true;
-      errorCode = 2;
+  void startRunner(int mode) {
+/******************************************************************************************
+*   Hands the machine to the runner, which runs it in the given mode (see MarieRunner)    *
+*   and calls runEnded() when it stops.                                                   *
+******************************************************************************************/
+    errorFound = false;
+    runner.requestSnapshot();
+    if (!runner.start(mode))
+      setStatusMessage(" The program is already running.");
+  } // startRunner()
+
+
+  boolean isBreakpoint(int row) {
+/******************************************************************************************
+*   Tells whether the instruction on the given row of the program monitor is marked as    *
+*   a breakpoint.                                                                         *
+******************************************************************************************/
+    return (row < rowAddress.length) && (rowAddress[row] >= 0)
+           && core.breakpoints.get(rowAddress[row]);
+  } // isBreakpoint()
+
+
+  void setConditionalPoint(boolean watch) {
+/******************************************************************************************
+*   Asks the user for a breakpoint (or, if watch is true, a watchpoint) in the form       *
+*                                                                                         *
+*          <label or address> [if <condition>]       e.g.,   Loop if AC > 100             *
+*                                                                                         *
+*   and gives it to the core.  See MarieCondition for the conditions we understand.       *
+******************************************************************************************/
+    String prompt = watch ? "Pause after writes to (label or address [if condition]):"
+                          : "Pause after running (label or address [if condition]):";
+    String reply = JOptionPane.showInputDialog(this, prompt,
+                          watch ? "Set Watchpoint" : "Set Conditional Breakpoint",
+                          JOptionPane.QUESTION_MESSAGE);
+    if ((reply == null) || (reply.trim().length() == 0))
       return;
-     }
-     int accumulator = regAC.getValue();
-     if (((accumulator < 0) && (cond == 0))        // Skip if accumulator negative.
-          ||((accumulator == 0) && (cond == 1))    // Skip if accumulator zero.
-          ||((accumulator > 0) && (cond == 2))) {  // Skip if accumulator positive.
-       regPC.setValue(regPC.getValue()+1);
-       if (fatalError)
-         return;
-       regPC.postActionEvent();
-     }
-     */
-
-     /*
-     New implementation:
-     First 2 bits of address portion of instruction are still used to store the comparison operator.
-     Other 10 bits are used to store an operand which will be compared to the value in the AC.
-     */
-     int instruction = regIR.getValue();
-     int comparisonOperator = (instruction & 0x0c00) >> 10;
-
-     // Check that instruction contains valid comparison operator
-     if (comparisonOperator == 3) {
-     	fatalError = true;
-      	errorCode = 2;
-      	return;
-     }
+    String where = reply.trim();
+    String condition = null;
+    int ifAt = where.toLowerCase().indexOf(" if ");
+    if (ifAt > 0) {
+      condition = where.substring(ifAt + 4);
+      where = where.substring(0, ifAt);
+    }
+    try {
+      int addr = MarieCondition.parseAddress(where, symbols);
+      MarieCondition c = (condition == null) ? null : MarieCondition.parse(condition, symbols);
+      if (watch)
+        core.setWatchpoint(addr, c);
+      else
+        core.setBreakpoint(addr, c);
+      setStatusMessage(" "+(watch ? "Watchpoint" : "Breakpoint")+" set at "
+                       +to3CharHexStr(addr)+((c == null) ? "." : " if "+c+"."));
+    }
+    catch (IllegalArgumentException e) {
+      setStatusMessage(" "+e.getMessage());
+    } // catch
+    programTable.repaint();
+  } // setConditionalPoint()
 
-     int accumulatorValue = regAC.getValue();
-     int operand = instruction & 0x03ff;
-
-     switch (comparisonOperator) {
-     	case 0:
-		if (accumulatorValue < operand)
-			regPC.setValue(regPC.getValue() + 1);
-		break;
-	case 1:
-		if (accumulatorValue == operand)
-			regPC.setValue(regPC.getValue() + 1);
-		break;
-	case 2:
-		if (accumulatorValue > operand)
-			regPC.setValue(regPC.getValue() + 1);
-		break;
-     }
 
-     if (fatalError)
-     	return;
+  void runBackward(boolean toBreakpoint) {
+/******************************************************************************************
+*   Undoes the last instruction run or, if toBreakpoint is true, undoes instructions      *
+*   until the next one to run is at a breakpoint (or one undone wrote to a watchpoint).   *
+*   The core puts back the memory it restores through its listener, so all we have to     *
+*   do is bring the registers, the output and the program cursor up to date.  The         *
+*   machine is left paused; [Step] or Run to Breakpoint carries on forward from there.    *
+******************************************************************************************/
+    if (runner.isBusy() || turbo) {
+      setStatusMessage(" Stop the program before running it backwards.");
+      return;
+    }
+    if (history == null) {
+      setStatusMessage(" History is turned off.  See Run | Set History Size.");
+      return;
+    }
+    if (regINPUT.isEditable()) {                 // Undoing an INPUT we are waiting on.
+      regINPUT.setEditable(false);
+      inputPanel.setBackground(registerForeground);
+      inputModeBox.setBackground(registerForeground);
+      regINPUT.repaint();
+    }
+    long undone;
+    synchronized (core) {
+      if (toBreakpoint)
+        undone = core.runBackward(Long.MAX_VALUE);
+      else
+        undone = core.stepBack() ? 1 : 0;
+    }
+    if (undone == 0) {
+      setStatusMessage(" No more history to run back through.");
+      return;
+    }
+    showRegisters();
+    if (outputShown > core.getOutputCount())          // Take back undone output.
+      reformatOutput();
+    if (codeReference[core.pc] != MarieProgram.NO_ROW) {   // Move the cursor.
+      programFocusRow = codeReference[core.pc];
+      Rectangle rect = programTable.getCellRect(programFocusRow, 5, false);
+      programTable.scrollRectToVisible(rect);
+    }
+    step.setEnabled(stepping);
+    programTable.repaint();
+    memoryModel.showMemory();                         // Redisplay memory written back.
+    if (toBreakpoint && core.breakpoints.get(core.pc))
+      setStatusMessage(" Ran back "+undone+" instruction(s) to breakpoint.");
+    else
+      setStatusMessage(" Ran back "+undone+" instruction(s); "
+                       +history.size()+" more in history.");
+  } // runBackward()
+
 
-     regPC.postActionEvent();
-   } // skipCond()
+  int inputRadix() {
+/******************************************************************************************
+*   Returns the radix in which to read INPUT values from a file or the console:  that     *
+*   of the input register's mode, or MarieStreamInput.CHARACTERS in ASCII mode.           *
+******************************************************************************************/
+    if (regINPUT.mode == ASCII)
+      return MarieStreamInput.CHARACTERS;
+    return (regINPUT.mode == HEX) ? 16 : 10;
+  } // inputRadix()
 
 
-  void jump() {
+  void setInputSource(MarieInputSource source) {
 /******************************************************************************************
-*   Move the value in the instruction's lower 12 bits to the PC (which always             *
-*   contains the memory address of the next instruction to execute).                      *
+*   Makes INPUT instructions take their values from source (see MarieInputSource), or     *
+*   ask for them in the input register if source is null.  With a source attached, a      *
+*   running program does not stop for INPUT until the source runs dry.  A file that was   *
+*   being read is closed.                                                                 *
 ******************************************************************************************/
-     int addr = regIR.getValue();
-     addr = addr & 0x0FFF;        // Strip the opcode from the instruction,
-     regPC.setValue(addr);        // leaving the address.
-     if (fatalError)
-       return;
-     regPC.postActionEvent();
-   } // jump()
+    if ((inputStream != null) && (inputStream != source) && (inputStream != consoleInput))
+      try {
+        inputStream.close();
+      }
+      catch (IOException e) {
+      } // catch
+    inputStream = (source instanceof MarieStreamInput) ? (MarieStreamInput) source : null;
+    if (source != inputQueue)
+      inputQueue.clear();
+    synchronized (core) {
+      core.setInputSource(source);
+    }
+  } // setInputSource()
 
 
-  void clear() {
+  void queueInput() {
 /******************************************************************************************
-*   Clears the accumulator.                                                               *
+*   Asks for values to be queued for INPUT, written as the input register's mode          *
+*   requires and separated by blanks or commas.  In ASCII mode, each character typed is   *
+*   a value.  The values are added to any still in the queue.                             *
 ******************************************************************************************/
-     regAC.setValue(0);
-     regAC.postActionEvent();
-   } // clear()
+    String reply = JOptionPane.showInputDialog(this,
+                          "Values for INPUT, as the input register's mode requires:",
+                          "Queue Input", JOptionPane.QUESTION_MESSAGE);
+    if (reply == null)
+      return;
+    Vector<Integer> values = new Vector<Integer>();
+    if (regINPUT.mode == ASCII)
+      for (int i = 0; i < reply.length(); i++)
+        values.add(Integer.valueOf(reply.charAt(i) % 128));
+    else {
+      StringTokenizer st = new StringTokenizer(reply, ", \t");
+      while (st.hasMoreTokens()) {
+        String token = st.nextToken();
+        int value = stringToInt(regINPUT.mode, token);
+        if (errorFound) {
+          errorFound = false;
+          setStatusMessage(" Not a valid input value: "+token);
+          return;
+        }
+        values.add(Integer.valueOf(value));
+      }
+    } // else
+    if (core.getInputSource() != inputQueue)
+      setInputSource(inputQueue);
+    for (int i = 0; i < values.size(); i++)
+      inputQueue.add(values.elementAt(i).intValue());
+    setStatusMessage(" "+inputQueue.size()+" value(s) queued for INPUT.");
+  } // queueInput()
 
 
-  void addI() {
+  void inputFromFile() {
 /******************************************************************************************
-*   addI adds to the accumulator the value that is found in memory at the location        *
-*   pointed to by the memory address in the MBR. So to get the augend, we need to         *
-*   get the address of the augend and put it in the MAR, and then pull the                *
-*   augend into the MBR so it can be added using the add() instruction.                   *
+*   Makes INPUT read its values from a file chosen by the user, in the input register's   *
+*   radix (see MarieStreamInput).                                                         *
 ******************************************************************************************/
-     regMAR.setValue(regMBR.getValue());
-     if (fatalError) {
-       return;
-     }
-     int addr = regMAR.getValue();
-     int memoryRow = addr / 16;
-     int memoryCol = addr % 16 + 1;
-     try {
-           regMBR.setValue(" "+memoryArray[memoryRow][memoryCol]);
-           regMAR.postActionEvent();
-           regMBR.postActionEvent();
-           add();
-     }
-     catch (ArrayIndexOutOfBoundsException e) {
-             errorCode = 3;
-             fatalError = true;
-             return;
-     }
-   } // addI()
+    JFileChooser chooser = new JFileChooser(System.getProperty("user.dir"));
+    if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+      return;
+    String fileName = chooser.getSelectedFile().getPath();
+    try {
+      setInputSource(new MarieStreamInput(fileName, inputRadix()));
+      setStatusMessage(" INPUT values will be read from "+fileName+".");
+    }
+    catch (IOException e) {
+      setStatusMessage(" Cannot read "+fileName+": "+e.getMessage());
+    } // catch
+  } // inputFromFile()
 
 
-  void jumpI() {
+  void setHistorySize() {
 /******************************************************************************************
-*   Similar to ADDI, the address of the address to jump to can be found at the            *
-*   address to which the MBR is pointing.  After the fetch cycle, the MBR                 *
-*   contains the address to jump to.  Notice that unlike the JUMP instruction,            *
-*   this instruction takes a memory operand.                                              *
+*   Asks for the number of megabytes to keep for the undo history.  Zero turns history    *
+*   off, which lets Turbo Run translate hot code again.                                   *
 ******************************************************************************************/
-     regPC.setValue(regMBR.getValue());
-     if (fatalError)
-       return;
-     regPC.postActionEvent();
-   } // jumpI()
+    String current = (history == null) ? "0" : ""+(history.getLimit() / (1024 * 1024));
+    String reply = (String) JOptionPane.showInputDialog(this,
+                          "Megabytes of history for reverse execution (0 = off):",
+                          "Set History Size", JOptionPane.QUESTION_MESSAGE,
+                          null, null, current);
+    if (reply == null)
+      return;
+    int megabytes;
+    try {
+      megabytes = Integer.parseInt(reply.trim());
+    }
+    catch (NumberFormatException e) {
+      megabytes = -1;
+    } // catch
+    if ((megabytes < 0) || (megabytes > 1024)) {
+      setStatusMessage(" History size must be 0 to 1024 megabytes.");
+      return;
+    }
+    synchronized (core) {
+      history = (megabytes == 0) ? null : new MarieHistory(megabytes * 1024L * 1024L);
+      core.setHistory(history);
+    }
+    setStatusMessage(" History size set to "+megabytes+" MB.");
+  } // setHistorySize()
 
 
-/* --                                                                                 -- */
-/* --  Marie execution control methods.                                               -- */
-/* --                                                                                 -- */
-  void runToBreakpoint() {
+  void attachDevices() {
 /******************************************************************************************
-*   If we have a runnable program loaded, we will run instructions until we encounter a   *
-*   breakpoint or the program terminates.  The tricky part is to capture the condition    *
-*   where we have just resumed from a previous breakpoint condition.  This method sets    *
-*   a boolean variable, "resumed," to toggle past the first instruction executed after    *
-*   a previous breakpoint pause.                                                          *
+*   Detaches the devices if they are attached.  Otherwise maps the standard devices into  *
+*   the top of memory (see MarieBus), with block storage backed by a file if the user     *
+*   chooses one.  The console reads the same input source as INPUT and writes to the      *
+*   output pane.  Banked memory, if there is any, stays where it is.                      *
 ******************************************************************************************/
-     Runnable runIt = new Runnable() {         // Create a thread in which to run.
-       int lastStatementRun;                   // Hold the value of the PC for the
-       Boolean isBreakpoint;                   // instruction we will run.
-       String aString;
-       public void run() {
-         machineState = MARIE_RUNNING;
-         while ((machineState == MARIE_RUNNING) && (!fatalError)) {
-           runStop.setEnabled(true);
-           aString = regPC.toString().trim();           // Move the cursor.
-           if (codeReference.containsKey(aString)) {
-             lastStatementRun =((Integer) codeReference.get(aString)).intValue();
-           }
-           fetchNext();
-           try {                              // Give the user a chance to abort and also
-             Thread.sleep(delay);             // a chance to see what's happening.
-           }
-           catch (InterruptedException e) {
-           }
-           if (!fatalError) {
-             execute();
-           }
-           isBreakpoint = (Boolean) programArray[lastStatementRun][0];
-           if ((machineState == MARIE_RUNNING)
-               && (isBreakpoint.booleanValue()))  {    // Check for a breakpoint.
-             machineState = MARIE_PAUSED;              // If we find one, pause.
-             setStatusMessage(" Stopped for breakpoint.");
-           }
-           repaint();
-         } // while
-       } // run()
-     }; // runIt
-   if ((machineState == MARIE_UNINITIALIZED) ||
-        (machineState == MARIE_NO_PROGRAM_LOADED))
-     return;
-   if ((machineState == MARIE_HALTED_NORMAL) ||
-        (machineState == MARIE_HALTED_ABNORMAL))
-     restart();
-   fatalError = false;
-   validate();                           // Reset fatal errors.
-   breakpointOn = true;
-   Thread runThread = new Thread(runIt);         // Run this in a thread.
-   runThread.start();                            // Fire it off.
-   if (fatalError)                               // Stop on errors.
-     halt();
-  } // runToBreakpoint()
+    if (runnerBusy())
+      return;
+    if (devicesOn) {
+      devicesOn = false;
+      storageFile = null;
+      try {
+        installBus();
+      }
+      catch (IOException e) {                    // Nothing to open.
+      } // catch
+      devicesItem.setText("Attach Devices...");
+      setStatusMessage(" Devices detached.");
+      return;
+    }
+    String storage = null;
+    JFileChooser chooser = new JFileChooser(System.getProperty("user.dir"));
+    chooser.setDialogTitle("Disk File (Cancel for No Disk)");
+    if (chooser.showDialog(this, "Attach") == JFileChooser.APPROVE_OPTION)
+      storage = chooser.getSelectedFile().getPath();
+    devicesOn = true;
+    storageFile = storage;
+    try {
+      installBus();
+    }
+    catch (IOException e) {
+      devicesOn = false;
+      storageFile = null;
+      setStatusMessage(" Cannot open "+storage+": "+e.getMessage());
+      return;
+    } // catch
+    devicesItem.setText("Detach Devices");
+    setStatusMessage(" Devices attached at 0FF0 to 0FFF"
+                     +((storage == null) ? "." : ", with disk "+storage+"."));
+  } // attachDevices()
+
+
+  void setBankedMemory() {
+/******************************************************************************************
+*   Asks how many banks of extra memory the machine should have (see MarieBankedMemory),  *
+*   and for a data image to load into them, and maps them in with the bank-select         *
+*   register at 07FF and the window at 0800 to 0BFF.  No banks takes them away.  The      *
+*   contents of the old banks are lost either way.                                        *
+******************************************************************************************/
+    if (runnerBusy())
+      return;
+    String reply = (String) JOptionPane.showInputDialog(this,
+                          "Banks of "+MarieBankedMemory.BANK_SIZE+" words (0 for none, up to "
+                          +MarieBankedMemory.MAX_BANKS+"):",
+                          "Banked Memory", JOptionPane.QUESTION_MESSAGE, null, null,
+                          ""+((banked == null) ? 0 : banked.getBanks()));
+    if (reply == null)
+      return;
+    int banks;
+    try {
+      banks = Integer.parseInt(reply.trim());
+    }
+    catch (NumberFormatException e) {
+      setStatusMessage(" Not a number: "+reply.trim());
+      return;
+    } // catch
+    MarieBankedMemory memory = null;
+    String image = null;
+    if (banks != 0)
+      try {
+        memory = new MarieBankedMemory(banks);
+        JFileChooser chooser = new JFileChooser(System.getProperty("user.dir"));
+        chooser.setDialogTitle("Data Image (Cancel for Empty Banks)");
+        if (chooser.showDialog(this, "Load") == JFileChooser.APPROVE_OPTION) {
+          image = chooser.getSelectedFile().getPath();
+          memory.loadImage(image, 0);
+        }
+      }
+      catch (IllegalArgumentException e) {
+        setStatusMessage(" "+e.getMessage());
+        return;
+      }
+      catch (OutOfMemoryError e) {
+        setStatusMessage(" Not enough memory for "+banks+" banks.");
+        return;
+      }
+      catch (IOException e) {
+        setStatusMessage(" Cannot load "+image+": "+e.getMessage());
+        return;
+      } // catch
+    MarieBankedMemory old = banked;
+    banked = memory;
+    try {
+      installBus();
+    }
+    catch (IOException e) {                      // Only the disk can fail.
+      banked = old;
+      setStatusMessage(" Cannot open "+storageFile+": "+e.getMessage());
+      return;
+    } // catch
+    if (banks == 0)
+      setStatusMessage(" Banked memory removed.");
+    else
+      setStatusMessage(" "+banks+" banks mapped at 0800 to 0BFF, selected by 07FF"
+                       +((image == null) ? "." : ", loaded from "+image+"."));
+  } // setBankedMemory()
+
+
+  void installBus() throws IOException {
+/******************************************************************************************
+*   Gives the core a new bus with the devices and banked memory chosen, or no bus if      *
+*   neither is, and closes the old one.  Devices keep no state from the old bus:  the     *
+*   disk file is opened again and the bank selected goes back to 0.                       *
+******************************************************************************************/
+    MarieBus bus = null;
+    if (devicesOn)
+      bus = MarieBus.standard(core, storageFile);
+    if (banked != null) {
+      if (bus == null)
+        bus = new MarieBus(core);
+      bus.attach(banked, MarieBus.BANKED_BASE);
+    }
+    MarieBus old = core.getBus();
+    synchronized (core) {
+      core.setBus(bus);
+    }
+    if (old != null)
+      try {
+        old.close();
+      }
+      catch (IOException e) {
+      } // catch
+  } // installBus()
+
+
+  void setFrameRate() {
+/******************************************************************************************
+*   Asks how many times a second the display should be brought up to date while a         *
+*   program runs.  Fewer frames leave more time for running the program.                  *
+******************************************************************************************/
+    String reply = (String) JOptionPane.showInputDialog(this,
+                          "Display frames per second (1 to "
+                          +MarieRepaintScheduler.MAX_FRAME_RATE+"):",
+                          "Set Frame Rate", JOptionPane.QUESTION_MESSAGE,
+                          null, null, ""+repaints.getFrameRate());
+    if (reply == null)
+      return;
+    try {
+      repaints.setFrameRate(Integer.parseInt(reply.trim()));
+      setStatusMessage(" Frame rate set to "+repaints.getFrameRate()+" per second.");
+    }
+    catch (NumberFormatException e) {
+      setStatusMessage(" Not a number: "+reply.trim());
+    }
+    catch (IllegalArgumentException e) {
+      setStatusMessage(" "+e.getMessage());
+    } // catch
+  } // setFrameRate()
 
 
   void clearBreakPoints() {
 /******************************************************************************************
-*   Unconditionally removes all breakpoints from the programArray.                        *
+*   Unconditionally removes all breakpoints, with their conditions, from the core.        *
 ******************************************************************************************/
-    for (int i = 0; i < codeLineCount; i++)
-      programArray[i][0] = new Boolean(false);
+    core.clearBreakpoints();
     programTable.repaint();
     breakpointOn = false;
 } // clearBreakPoints()
@@ -2946,42 +3938,85 @@ public class MarieSim extends JFrame {
 
   void runProgram() {
 /******************************************************************************************
-*   This method creates a thread that repeatedly invokes the fetch-execute cycle of the   *
-*   simulator until a the program stops or a fatal error is encountered.  Before this     *
-*   method starts, the [Stop] button on the simulator is enabled so that the thread can   *
-*   be interrupted.                                                                       *
+*   This method has the runner repeatedly invoke the fetch-execute cycle until the        *
+*   program stops or a fatal error is encountered.  Before this method starts, the        *
+*   [Stop] button on the simulator is enabled so that the run can be interrupted.  The    *
+*   governor holds the runner to the speed the user chose, and the speed it achieves is   *
+*   shown in the status bar.                                                              *
 ******************************************************************************************/
-     Runnable runIt = new Runnable() {
-       public void run() {
-         while ((machineState == MARIE_RUNNING) && (!fatalError)) {
-           fetchNext();
-           try {                              // Give the user a chance to abort and also
-             Thread.sleep(delay);             // a chance to see what's happening.
-           }
-           catch (InterruptedException e) {
-           }
-           if (!fatalError) {
-             execute();
-           }
-         } // while
-         if (fatalError) {
-           halt();
-         }
-       } // run()
-     }; // runIt
-
-   try {                                  // Give the screen a chance to refresh itself
-         Thread.sleep(1000);              // before we start running.
-       }
-   catch (InterruptedException e) {
-       }
+   if (runnerBusy())
+     return;
    setStatusMessage(" ");
    breakpointOn = false;
-   Thread runThread = new Thread(runIt);
-   runThread.start();
+   turbo = false;
+   startRunner(MarieRunner.RUN);
   } // runProgram()
 
 
+  void runTurbo() {
+/******************************************************************************************
+*   Has the runner run the program at full speed.  It executes batches of                 *
+*   MarieRunner.BATCH instructions while holding the lock on the MarieCore, so the        *
+*   display can get at the machine between batches.  Rather than updating the screen      *
+*   after every instruction, we detach the core's listener and let snapshotTimer copy     *
+*   the machine onto the screen every SNAPSHOT_RATE milliseconds.  The run ends when      *
+*   the program halts, is stopped, or blocks for input, after which endTurbo() is run     *
+*   on the event dispatching thread.                                                      *
+******************************************************************************************/
+   if (runnerBusy())
+     return;
+   setStatusMessage(" Running in turbo mode.");
+   breakpointOn = false;
+   turbo = true;
+   core.setListener(null);                        // Display is updated by the timer,
+   core.setTranslating(true);                     // so hot code can be translated.
+   snapshotTimer.start();
+   startRunner(MarieRunner.TURBO);
+  } // runTurbo()
+
+
+  void showSnapshot() {
+/******************************************************************************************
+*   Brings the display up to date with the MarieCore during a turbo run.  The core is     *
+*   locked only long enough to copy out the registers, the memory cells that have         *
+*   changed since the last snapshot and any new output.                                   *
+******************************************************************************************/
+    int pc;
+    synchronized (core) {
+      drawRegisters(new MarieSnapshot(core, -1));
+      pc = core.pc;
+      memoryModel.showMemory();
+    }
+    flushOutput();
+    if (codeReference[pc] != MarieProgram.NO_ROW) {   // Move the cursor.
+      programFocusRow = codeReference[pc];
+      drawProgramCursor();
+    }
+  } // showSnapshot()
+
+
+  void endTurbo() {
+/******************************************************************************************
+*   Called when the turbo thread stops.  We take one last snapshot so that the display    *
+*   shows the final state of the machine, and reattach the listener.  If the program is   *
+*   waiting for input, we ask for it; turbo mode resumes once the input is entered.       *
+******************************************************************************************/
+    snapshotTimer.stop();
+    showSnapshot();
+    core.setListener(coreListener);
+    if (core.machineState == MARIE_BLOCKED_ON_INPUT) {
+      input();
+      return;
+    }
+    turbo = false;
+    if ((core.machineState == MARIE_HALTED_NORMAL)
+         || (core.machineState == MARIE_HALTED_ABNORMAL))
+      halt();
+    else if (core.machineState == MARIE_PAUSED)
+      setStatusMessage(" Stopped for watchpoint at "+to3CharHexStr(core.watchAddress)+".");
+  } // endTurbo()
+
+
   public static void main(String args[]) {
     MarieSim sim = new MarieSim();
     sim.show();
@@ -0,0 +1,49 @@
+// File:        MarieSnapshot.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public final class MarieSnapshot {
+/******************************************************************************************
+*  A MarieSnapshot is a copy of a MarieCore's registers and state taken at one moment.    *
+*  Snapshots never change once made, so one published by the thread running the machine   *
+*  (see MarieRunner) can be read by any other thread without locking.  Memory and the     *
+*  output buffer are not copied; they are too big to copy at every look.                  *
+******************************************************************************************/
+  public final short ac;
+  public final short ir;
+  public final short mar;
+  public final short mbr;
+  public final short pc;
+  public final short input;
+  public final short output;
+  public final int     machineState;
+  public final boolean fatalError;
+  public final int     errorCode;
+  public final int     instructionCode;        // Opcode of the last instruction fetched,
+  public final int     lastAddress;            // and its address (-1 if none has been).
+  public final long    instructionsRetired;
+  public final int     watchAddress;
+
+
+  public MarieSnapshot(MarieCore core, int lastAddress) {
+/******************************************************************************************
+*  Copies core, which must not be running on another thread while we do.                  *
+******************************************************************************************/
+    ac = core.ac;
+    ir = core.ir;
+    mar = core.mar;
+    mbr = core.mbr;
+    pc = core.pc;
+    input = core.input;
+    output = core.output;
+    machineState = core.machineState;
+    fatalError = core.fatalError;
+    errorCode = core.errorCode;
+    instructionCode = core.instructionCode;
+    this.lastAddress = lastAddress;
+    instructionsRetired = core.instructionsRetired;
+    watchAddress = core.watchAddress;
+  } // MarieSnapshot()
+} // MarieSnapshot
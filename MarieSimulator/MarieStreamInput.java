@@ -0,0 +1,123 @@
+// File:        MarieStreamInput.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+
+public class MarieStreamInput implements MarieInputSource {
+/******************************************************************************************
+*  A MarieStreamInput is a MarieInputSource that reads its values from a character        *
+*  stream, such as a file or standard input.  Values are read only as the program asks    *
+*  for them, so a program reading standard input waits for each line to be typed.         *
+*                                                                                         *
+*  Numbers are written in the radix given to the constructor (10 or 16) and separated     *
+*  by white space or commas.  With a radix of CHARACTERS, each character is a value       *
+*  instead, and each line ends with a carriage return (13), which is what the simulator   *
+*  shows as the end of a line of ASCII output.                                            *
+*                                                                                         *
+*  The source runs dry at the end of the stream or at the first word that is not a        *
+*  number, after which getError() describes what went wrong, if anything did.             *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int CHARACTERS = 0;      // Radix meaning "one value per character".
+  static final int CR = 13;
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  Reader  in;
+  int     radix;
+  boolean haveValue = false;                   // Whether value has been read ahead.
+  int     value;
+  boolean ended = false;                       // Stream is exhausted (or unreadable).
+  String  error = null;
+
+
+  public MarieStreamInput(Reader in, int radix) {
+    this.in = new BufferedReader(in);
+    this.radix = radix;
+  } // MarieStreamInput()
+
+
+  public MarieStreamInput(String fileName, int radix) throws IOException {
+    this(new FileReader(fileName), radix);
+  } // MarieStreamInput()
+
+
+  public String getError() {
+    return error;
+  } // getError()
+
+
+  public synchronized boolean hasInput() {
+    if ((!haveValue) && (!ended))
+      readValue();
+    return haveValue;
+  } // hasInput()
+
+
+  public synchronized int nextInput() {
+/******************************************************************************************
+*  Takes the next value.  Throws a java.util.NoSuchElementException if there is none.     *
+******************************************************************************************/
+    if (!hasInput())
+      throw new java.util.NoSuchElementException("No more input.");
+    haveValue = false;
+    return value;
+  } // nextInput()
+
+
+  void readValue() {
+/******************************************************************************************
+*  Reads the next value ahead, or sets ended if there is none.                            *
+******************************************************************************************/
+    try {
+      int c = in.read();
+      if (radix == CHARACTERS) {
+        if (c == '\r') {                       // "\r\n" or "\r" also ends a line.
+          in.mark(1);
+          if (in.read() != '\n')
+            in.reset();
+          c = '\n';
+        }
+        if (c < 0)
+          ended = true;
+        else {
+          value = (c == '\n') ? CR : c;
+          haveValue = true;
+        }
+        return;
+      }
+      while ((c >= 0) && ((Character.isWhitespace((char) c)) || (c == ',')))
+        c = in.read();
+      if (c < 0) {
+        ended = true;
+        return;
+      }
+      StringBuffer word = new StringBuffer();
+      while ((c >= 0) && (!Character.isWhitespace((char) c)) && (c != ',')) {
+        word.append((char) c);
+        c = in.read();
+      }
+      try {
+        value = (short) Integer.parseInt(word.toString(), radix);
+        haveValue = true;
+      }
+      catch (NumberFormatException e) {
+        error = "Not a number: " + word;
+        ended = true;
+      } // catch
+    }
+    catch (IOException e) {
+      error = e.getMessage();
+      ended = true;
+    } // catch
+  } // readValue()
+
+
+  public void close() throws IOException {
+    in.close();
+  } // close()
+} // MarieStreamInput
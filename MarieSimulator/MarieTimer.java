@@ -0,0 +1,91 @@
+// File:        MarieTimer.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public class MarieTimer implements MarieDevice {
+/******************************************************************************************
+*  A MarieTimer is an interval timer on a MarieBus.  It has two registers:                *
+*                                                                                         *
+*       PERIOD (0)   Storing n (taken as unsigned) makes the timer expire every n cycles  *
+*                    from now on; storing 0 stops it.  Loading gives the period.          *
+*       COUNT  (1)   Loading gives the number of times the timer has expired since COUNT  *
+*                    was last loaded, and sets it back to 0.  Storing sets it.            *
+*                                                                                         *
+*  A cycle is one instruction retired (see MarieBus), so a program can time itself        *
+*  exactly, and the count saturates at 32767 rather than wrapping.  Each expiry also      *
+*  raises the timer's interrupt line, if it was given one, so a program can be            *
+*  interrupted every PERIOD instructions instead of loading COUNT.                        *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int PERIOD = 0;               // Register numbers.
+  public static final int COUNT  = 1;
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  MarieBus bus;
+  int      line;                                    // Interrupt line, or -1 for none.
+  int      period = 0;                              // Cycles between expiries, or 0.
+  int      count = 0;                               // Expiries not yet read.
+  long     due = MarieBus.NEVER;                    // Cycle of the next expiry.
+
+
+  public MarieTimer(int line) {
+    this.line = line;
+  } // MarieTimer()
+
+
+  public int getSize() {
+    return 2;
+  } // getSize()
+
+
+  public void attach(MarieBus bus) {
+    this.bus = bus;
+  } // attach()
+
+
+  public int read(int register) {
+    if (register == PERIOD)
+      return period;
+    int n = count;
+    count = 0;
+    return n;
+  } // read()
+
+
+  public void write(int register, int value) {
+    if (register == COUNT) {
+      count = value;
+      return;
+    }
+    period = value & 0xFFFF;
+    if (period == 0)
+      due = MarieBus.NEVER;
+    else {
+      due = bus.now() + period;
+      bus.schedule(this, due);
+    }
+  } // write()
+
+
+  public void tick(long time) {
+    if (time != due)                                // Period has changed since.
+      return;
+    if (count < Short.MAX_VALUE)
+      count++;
+    bus.raise(line);
+    due += period;
+    bus.schedule(this, due);
+  } // tick()
+
+
+  public void reset() {
+    period = 0;
+    count = 0;
+    due = MarieBus.NEVER;
+  } // reset()
+} // MarieTimer
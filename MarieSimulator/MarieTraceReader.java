@@ -0,0 +1,199 @@
+// File:        MarieTraceReader.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.zip.*;
+
+public class MarieTraceReader {
+/******************************************************************************************
+*  A MarieTraceReader plays back a trace written by MarieTraceWriter, one instruction     *
+*  at a time.  After each successful call to next(), the public fields describe the       *
+*  instruction just read; applyTo() makes a MarieCore look as it did right after that     *
+*  instruction ran, so a simulator can show a recorded run on its own display.  A record  *
+*  with the INTERRUPT flag is for an interrupt taken before the next instruction.         *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  FileChannel channel;
+  boolean     compressed;
+  ByteBuffer  block = ByteBuffer.allocate(MarieTraceWriter.BLOCK_RECORDS
+                                          * MarieTraceWriter.RECORD_SIZE);
+  short[]     columns = new short[MarieTraceWriter.FIELDS * MarieTraceWriter.BLOCK_RECORDS];
+  int         held = 0;                        // Records in the current block...
+  int         taken = 0;                       // ... and how many have been read.
+  byte[]      packed = new byte[0];
+  Inflater    inflater = null;
+  long        records = 0;                     // Records read so far, and how many
+  long        interrupts = 0;                  // of them were for interrupts.
+
+  public int   address;                        // Address of the instruction.
+  public int   flags;                          // MarieTraceWriter.WROTE_MEMORY, etc.
+  public short pc, ir, ac, mar, mbr;           // Registers after it ran.
+  public int   writeAddress;                   // Word written, if WROTE_MEMORY is set.
+  public short writeValue;
+
+
+  public MarieTraceReader(String fileName) throws IOException {
+/******************************************************************************************
+*  Opens the named trace file.  Throws an IOException if it is not a trace.               *
+******************************************************************************************/
+    channel = new FileInputStream(fileName).getChannel();
+    ByteBuffer header = ByteBuffer.allocate(10);
+    if ((!readFully(header)) || (header.getInt() != MarieTraceWriter.MAGIC)
+         || (header.getShort() != MarieTraceWriter.VERSION)) {
+      channel.close();
+      throw new IOException(fileName+" is not a MARIE trace.");
+    }
+    compressed = ((header.getShort() & MarieTraceWriter.COMPRESSED) != 0);
+    if (header.getShort() != MarieTraceWriter.RECORD_SIZE) {
+      channel.close();
+      throw new IOException(fileName+" has records of an unknown size.");
+    }
+    if (compressed)
+      inflater = new Inflater();
+  } // MarieTraceReader()
+
+
+  boolean readFully(ByteBuffer buf) throws IOException {
+    while (buf.hasRemaining())
+      if (channel.read(buf) < 0)
+        return false;
+    buf.flip();
+    return true;
+  } // readFully()
+
+
+  public long getRecordCount() {
+    return records;
+  } // getRecordCount()
+
+
+  public long getInstructionCount() {
+    return records - interrupts;
+  } // getInstructionCount()
+
+
+  public boolean isInterrupt() {
+    return (flags & MarieTraceWriter.INTERRUPT) != 0;
+  } // isInterrupt()
+
+
+  public boolean next() throws IOException {
+/******************************************************************************************
+*  Reads the next record.  Returns false at the end of the trace.                         *
+******************************************************************************************/
+    if (taken == held)
+      if (!readBlock())
+        return false;
+    int r = taken++;
+    int first = columns[r] & 0xFFFF;
+    address = first & 0x0FFF;
+    flags = first & 0xF000;
+    pc = columns[r + held];
+    ir = columns[r + 2 * held];
+    ac = columns[r + 3 * held];
+    mar = columns[r + 4 * held];
+    mbr = columns[r + 5 * held];
+    writeAddress = columns[r + 6 * held] & 0x0FFF;
+    writeValue = columns[r + 7 * held];
+    records++;
+    if (isInterrupt())
+      interrupts++;
+    return true;
+  } // next()
+
+
+  boolean readBlock() throws IOException {
+/******************************************************************************************
+*  Reads the next block into columns.  Within a block the fields of each record are       *
+*  held many records apart (see MarieTraceWriter).                                        *
+******************************************************************************************/
+    ByteBuffer lengths = ByteBuffer.allocate(8);
+    if (!readFully(lengths))
+      return false;
+    int length = lengths.getInt();
+    int stored = lengths.getInt();
+    if ((length <= 0) || (length > block.capacity())
+         || (length % MarieTraceWriter.RECORD_SIZE != 0) || (stored <= 0))
+      throw new IOException("Trace is damaged.");
+    block.clear();
+    if (!compressed) {
+      block.limit(length);
+      if (!readFully(block))
+        throw new IOException("Trace is damaged.");
+      return unpack(length);
+    }
+    if (packed.length < stored)
+      packed = new byte[stored];
+    if (!readFully(ByteBuffer.wrap(packed, 0, stored)))
+      throw new IOException("Trace is damaged.");
+    inflater.reset();
+    inflater.setInput(packed, 0, stored);
+    try {
+      int n = 0;
+      while ((n < length) && (!inflater.finished()))
+        n += inflater.inflate(block.array(), n, length - n);
+      if (n != length)
+        throw new IOException("Trace is damaged.");
+    }
+    catch (DataFormatException e) {
+      throw new IOException("Trace is damaged.");
+    } // catch
+    block.limit(length);
+    return unpack(length);
+  } // readBlock()
+
+
+  boolean unpack(int length) {
+    held = length / MarieTraceWriter.RECORD_SIZE;
+    taken = 0;
+    block.asShortBuffer().get(columns, 0, held * MarieTraceWriter.FIELDS);
+    return true;
+  } // unpack()
+
+
+  public void applyTo(MarieCore core) {
+/******************************************************************************************
+*  Makes core look as it did right after the instruction (or interrupt) just read.  The   *
+*  memory write and any output go through the core, so its listener sees them.  The       *
+*  core's history, breakpoints, watchpoints and pending interrupts are not involved.      *
+******************************************************************************************/
+    core.pc = pc;
+    core.ir = ir;
+    core.ac = ac;
+    core.mar = mar;
+    core.mbr = mbr;
+    core.instructionCode = (ir >> 12) & 0x0F;
+    if (isInterrupt())
+      core.interruptsEnabled = false;
+    else if (core.instructionCode == MarieCore.IRET)
+      core.interruptsEnabled = true;
+    else if (core.instructionCode == MarieCore.EI)
+      core.interruptsEnabled = ((ir & 0x0FFF) != 0);
+    if ((flags & MarieTraceWriter.READ_INPUT) != 0)
+      core.input = ac;
+    if ((flags & MarieTraceWriter.WROTE_MEMORY) != 0) {
+      core.loadWord(writeAddress, writeValue);
+      if (core.listener != null)
+        core.listener.memoryChanged(writeAddress, core.memory[writeAddress]);
+    }
+    if ((flags & MarieTraceWriter.PUT_OUTPUT) != 0) {
+      core.output = ac;
+      core.appendOutput(ac);
+      if (core.listener != null)
+        core.listener.outputProduced(ac);
+    }
+  } // applyTo()
+
+
+  public void close() throws IOException {
+    channel.close();
+    if (inflater != null)
+      inflater.end();
+  } // close()
+} // MarieTraceReader
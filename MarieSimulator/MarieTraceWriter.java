@@ -0,0 +1,210 @@
+// File:        MarieTraceWriter.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.zip.*;
+
+public class MarieTraceWriter {
+/******************************************************************************************
+*  A MarieTraceWriter records every instruction a MarieCore runs in a binary trace file   *
+*  that MarieTraceReader can play back later.  Attach one with MarieCore.setTracer().     *
+*                                                                                         *
+*  The file begins with a header (int MAGIC, short VERSION, short flags, short            *
+*  RECORD_SIZE) followed by blocks of up to BLOCK_RECORDS records.  Each block is an      *
+*  int giving the length of its records, an int giving the number of bytes stored, and    *
+*  then the records themselves, compressed with a Deflater if the COMPRESSED flag is      *
+*  set.  Each record is eight big-endian shorts describing one instruction after it ran:  *
+*                                                                                         *
+*      address of instruction (12 bits) + flags (4 bits), PC, IR, AC, MAR, MBR,           *
+*      address written (if WROTE_MEMORY), value written                                   *
+*                                                                                         *
+*  An interrupt taken before an instruction gets a record of its own, flagged INTERRUPT,  *
+*  giving the address of the instruction interrupted, the registers after the jump to     *
+*  the handler and the return address written, just as the history keeps one.             *
+*                                                                                         *
+*  A block stores its records field by field rather than record by record:  all of the    *
+*  addresses, then all of the PCs, and so on.  The values of one field change little      *
+*  from one instruction to the next, so a block laid out this way deflates about three    *
+*  times smaller, and three times faster, than one laid out record by record.             *
+*                                                                                         *
+*  Records are collected in memory and written a block at a time through a FileChannel    *
+*  so that tracing keeps up with a full-speed run.  If a write fails, tracing stops and   *
+*  the exception is thrown by close().                                                    *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final String TRACE_TYPE  = ".mtr";     // File extension for traces.
+  public static final int    MAGIC       = 0x4D545243; // "MTRC"
+  public static final short  VERSION     = 2;
+  public static final short  COMPRESSED  = 1;          // Header flag.
+  public static final int    RECORD_SIZE = 16;         // Bytes.
+  public static final int    BLOCK_RECORDS = 4096;
+  static final int FIELDS = RECORD_SIZE / 2;           // Shorts per record.
+
+  public static final int WROTE_MEMORY = 0x1000;       // Record flags, kept in the top
+  public static final int PUT_OUTPUT   = 0x2000;       // four bits of the address of
+  public static final int READ_INPUT   = 0x4000;       // the instruction.
+  public static final int INTERRUPT    = 0x8000;
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  FileChannel channel;
+  short[]     columns = new short[FIELDS * BLOCK_RECORDS];   // Field f of record r is
+  int         held = 0;                                     // at f * BLOCK_RECORDS + r.
+  ByteBuffer  block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_SIZE);
+  Deflater    deflater = null;                 // Null unless compressing.
+  byte[]      packed;                          // Compressed block.
+  IOException failure = null;                  // First write error, if any.
+  long        records = 0;                     // Records written, and how many of
+  long        interrupts = 0;                  // them were for interrupts.
+
+  int instructionAddress;                      // What we know so far about the
+  int flags;                                   // instruction being run.
+  int writeAddress;
+  int writeValue;
+
+
+  public MarieTraceWriter(String fileName, boolean compress) throws IOException {
+/******************************************************************************************
+*  Creates (or replaces) the named trace file.                                            *
+******************************************************************************************/
+    channel = new FileOutputStream(fileName).getChannel();
+    ByteBuffer header = ByteBuffer.allocate(10);
+    header.putInt(MAGIC).putShort(VERSION).putShort(compress ? COMPRESSED : 0);
+    header.putShort((short) RECORD_SIZE);
+    header.flip();
+    channel.write(header);
+    if (compress) {
+      deflater = new Deflater(Deflater.BEST_SPEED);
+      packed = new byte[block.capacity() + block.capacity() / 8 + 64];
+    }
+  } // MarieTraceWriter()
+
+
+  public long getRecordCount() {
+    return records;
+  } // getRecordCount()
+
+
+  public long getInstructionCount() {
+    return records - interrupts;
+  } // getInstructionCount()
+
+
+  void begin(int address) {
+    instructionAddress = address;
+    flags = 0;
+  } // begin()
+
+
+  void wroteMemory(int address, int value) {
+    flags |= WROTE_MEMORY;
+    writeAddress = address;
+    writeValue = value;
+  } // wroteMemory()
+
+
+  void putOutput() {
+    flags |= PUT_OUTPUT;
+  } // putOutput()
+
+
+  void readInput() {
+    flags |= READ_INPUT;
+  } // readInput()
+
+
+  void tookInterrupt(MarieCore core) {
+/******************************************************************************************
+*  Adds the record for the interrupt that core has just taken.  begin() was called with   *
+*  the address of the instruction interrupted, before the return address was written.     *
+******************************************************************************************/
+    flags |= INTERRUPT;
+    end(core);
+  } // tookInterrupt()
+
+
+  void end(MarieCore core) {
+/******************************************************************************************
+*  Adds the record for the instruction that core has just finished.                       *
+******************************************************************************************/
+    if (failure != null)
+      return;
+    int r = held;
+    columns[r]                     = (short) ((instructionAddress & 0x0FFF) | flags);
+    columns[r + BLOCK_RECORDS]     = core.pc;
+    columns[r + 2 * BLOCK_RECORDS] = core.ir;
+    columns[r + 3 * BLOCK_RECORDS] = core.ac;
+    columns[r + 4 * BLOCK_RECORDS] = core.mar;
+    columns[r + 5 * BLOCK_RECORDS] = core.mbr;
+    if ((flags & WROTE_MEMORY) != 0) {
+      columns[r + 6 * BLOCK_RECORDS] = (short) writeAddress;
+      columns[r + 7 * BLOCK_RECORDS] = (short) writeValue;
+    }
+    else {
+      columns[r + 6 * BLOCK_RECORDS] = 0;
+      columns[r + 7 * BLOCK_RECORDS] = 0;
+    }
+    records++;
+    if ((flags & INTERRUPT) != 0)
+      interrupts++;
+    if (++held == BLOCK_RECORDS)
+      writeBlock();
+  } // end()
+
+
+  void writeBlock() {
+/******************************************************************************************
+*  Writes the records collected so far as one block.                                      *
+******************************************************************************************/
+    if (held == 0)
+      return;
+    int length = held * RECORD_SIZE;
+    ShortBuffer fields = block.asShortBuffer();
+    for (int f = 0; f < FIELDS; f++)
+      fields.put(columns, f * BLOCK_RECORDS, held);
+    held = 0;
+    try {
+      ByteBuffer frame;
+      if (deflater == null)
+        frame = ByteBuffer.wrap(block.array(), 0, length);
+      else {
+        deflater.reset();
+        deflater.setInput(block.array(), 0, length);
+        deflater.finish();
+        int stored = 0;
+        while (!deflater.finished())
+          stored += deflater.deflate(packed, stored, packed.length - stored);
+        frame = ByteBuffer.wrap(packed, 0, stored);
+      }
+      ByteBuffer lengths = ByteBuffer.allocate(8);
+      lengths.putInt(length).putInt(frame.remaining());
+      lengths.flip();
+      while (lengths.hasRemaining())
+        channel.write(lengths);
+      while (frame.hasRemaining())
+        channel.write(frame);
+    }
+    catch (IOException e) {
+      failure = e;
+    } // catch
+  } // writeBlock()
+
+
+  public void close() throws IOException {
+/******************************************************************************************
+*  Writes any records still buffered and closes the file.                                 *
+******************************************************************************************/
+    writeBlock();
+    channel.close();
+    if (deflater != null)
+      deflater.end();
+    if (failure != null)
+      throw failure;
+  } // close()
+} // MarieTraceWriter
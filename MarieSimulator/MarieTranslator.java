@@ -0,0 +1,523 @@
+// File:        MarieTranslator.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+import java.io.*;
+import java.util.*;
+
+public class MarieTranslator {
+/******************************************************************************************
+*  MarieTranslator is the translation tier of the MarieCore.  While the core runs, it     *
+*  counts how many times execution arrives at each address.  When an address becomes      *
+*  "hot" (HOT_THRESHOLD arrivals) the straight-line run of instructions that starts       *
+*  there, its basic block, is compiled into a JVM class implementing MarieBlock.  From    *
+*  then on the core runs the whole block with one method call, and the JVM's own          *
+*  compiler is free to optimize it like any other Java code.                              *
+*                                                                                         *
+*  A block ends with the first JUMP, SKIPCOND, JUMPI or JNS, which are compiled as part   *
+*  of the block.  It ends just before a HALT, an INPUT, a TAS, an IRET, an EI or DI, an   *
+*  illegal instruction or an invalid SKIPCOND, which are always left to the interpreter   *
+*  (TAS needs the lock on memory, and the interpreter takes care of interrupts).  It also *
+*  ends after a STORE into its own words and before any word that one of its STOREs       *
+*  writes, so that no block ever runs code that it has itself modified.                   *
+*                                                                                         *
+*  Each compiled block records which words it covers.  When the program (or a loader)     *
+*  writes a covered word, every block covering it is thrown away and execution falls      *
+*  back to the interpreter until the address becomes hot again.  An address whose block   *
+*  is thrown away MAX_RECOMPILES times is left to the interpreter for good.               *
+*                                                                                         *
+*  The generated code performs the fetch-execute cycle of each instruction exactly as     *
+*  MarieCore.fetch() and MarieCore.execute() do, so registers, memory, output and the     *
+*  count of instructions retired are identical to the interpreter's after every block.    *
+*  It does keep AC, MBR, MAR and PC in local variables until the block ends, which is     *
+*  why the core uses blocks only when no listener is watching it.                         *
+*                                                                                         *
+*  Implementation Note:  Class files are produced by hand (see BlockWriter) in the Java   *
+*                        5 class file format, which needs no stack map frames, and are    *
+*                        defined through a private class loader, so no library or newer   *
+*                        JDK feature is required.                                         *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  public static final int HOT_THRESHOLD  = 50;   // Arrivals before a block is compiled.
+  public static final int MAX_BLOCK      = 64;   // Longest block, in instructions.
+  public static final int MAX_RECOMPILES = 8;    // Invalidations before we give up.
+
+  static final String CORE  = "MarieSimulator/MarieCore";
+  static final String BLOCK = "MarieSimulator/MarieBlock";
+/* --                                                                                 -- */
+/* --  Instance variables.                                                            -- */
+/* --                                                                                 -- */
+  MarieBlock[] blocks = new MarieBlock[MarieCore.MEMORY_SIZE];  // Compiled block, by entry.
+  int[]    blockLength = new int[MarieCore.MEMORY_SIZE];  // Instructions in the block.
+  int[]       blockEnd = new int[MarieCore.MEMORY_SIZE];  // Address of its last word.
+  int[]           hits = new int[MarieCore.MEMORY_SIZE];  // Arrivals at each address.
+  int[]     recompiles = new int[MarieCore.MEMORY_SIZE];  // Times block was thrown away.
+  int[]        covered = new int[MarieCore.MEMORY_SIZE];  // Blocks covering each word.
+  BlockLoader   loader = new BlockLoader(MarieTranslator.class.getClassLoader());
+  int    blocksDefined = 0;                  // Gives each class a unique name.
+
+
+  public void clear() {
+/******************************************************************************************
+*  Throws away every compiled block and all execution counts, as after a reset.           *
+******************************************************************************************/
+    Arrays.fill(blocks, null);
+    Arrays.fill(hits, 0);
+    Arrays.fill(recompiles, 0);
+    Arrays.fill(covered, 0);
+    loader = new BlockLoader(MarieTranslator.class.getClassLoader());
+  } // clear()
+
+
+  int runBlock(MarieCore core, long budget) {
+/******************************************************************************************
+*  Called by MarieCore.run() before each instruction.  If there is a compiled block at    *
+*  the PC that fits within the budget of instructions remaining, it is run and the        *
+*  number of instructions it executed is returned.  Otherwise we count the arrival,       *
+*  compiling a block if the address has just become hot, and return 0 so that the core    *
+*  interprets the instruction itself.                                                     *
+******************************************************************************************/
+    int addr = core.pc;
+    MarieBlock block = blocks[addr];
+    if (block == null) {
+      if (++hits[addr] != HOT_THRESHOLD)
+        return 0;
+      block = compile(core.memory, addr);
+      if (block == null)
+        return 0;
+    }
+    int length = blockLength[addr];
+    if (length > budget)
+      return 0;
+    block.run(core);
+    return length;
+  } // runBlock()
+
+
+  void invalidate(int address) {
+/******************************************************************************************
+*  Throws away every block that covers the word at address, which has just been written.  *
+*  Called by the core only when covered[address] is nonzero.                              *
+******************************************************************************************/
+    for (int entry = 0; entry <= address; entry++)
+      if ((blocks[entry] != null) && (blockEnd[entry] >= address)) {
+        for (int i = entry; i <= blockEnd[entry]; i++)
+          covered[i]--;
+        blocks[entry] = null;
+        if (++recompiles[entry] < MAX_RECOMPILES)
+          hits[entry] = 0;                       // Let it become hot again.
+      }
+  } // invalidate()
+
+
+  MarieBlock compile(int[] memory, int entry) {
+/******************************************************************************************
+*  Finds the basic block starting at entry and compiles it.  Returns null if there is no  *
+*  block there, i.e., the first instruction is one that only the interpreter can run.     *
+******************************************************************************************/
+    int addr = entry;
+    int limit = MarieCore.MAX_MARIE_ADDR;       // Words above limit are excluded.
+    int length = 0;
+    boolean done = false;
+    while ((!done) && (length < MAX_BLOCK) && (addr <= limit)) {
+      int word = memory[addr];
+      int op = (word >> 12) & 0x0F;
+      int operand = word & 0x0FFF;
+      if ((op >= MarieCore.operandReqd.length)
+           || (op == MarieCore.INPUT) || (op == MarieCore.HALT) || (op >= MarieCore.TAS)
+           || ((op == MarieCore.SKIPCOND) && (((word & 0x0c00) >> 10) == 3)))
+        break;                                   // Leave these to the interpreter.
+      length++;
+      switch (op) {
+        case MarieCore.JUMP:
+        case MarieCore.SKIPCOND:
+        case MarieCore.JUMPI:
+        case MarieCore.JNS:  done = true;
+                             break;
+        case MarieCore.STORE:
+                             if ((operand >= entry) && (operand <= addr))
+                               done = true;      // Modifies this block.
+                             else if ((operand > addr) && (operand - 1 < limit))
+                               limit = operand - 1;  // Modifies code ahead of us.
+                             break;
+        default:             break;
+      } // switch
+      if (addr == MarieCore.MAX_MARIE_ADDR)      // Blocks don't wrap around memory.
+        break;
+      addr++;
+    } // while
+    if (length == 0)
+      return null;
+    int end = entry + length - 1;
+    MarieBlock block;
+    try {
+      String name = "MarieSimulator.MarieBlock" + (blocksDefined++);
+      byte[] classFile = new BlockWriter(name.replace('.', '/'))
+                                           .assemble(memory, entry, length);
+      block = (MarieBlock) loader.define(name, classFile)
+                                   .getDeclaredConstructor().newInstance();
+    }
+    catch (Exception e) {                        // Should not happen, but if it does the
+      recompiles[entry] = MAX_RECOMPILES;        // interpreter can always run the code.
+      return null;
+    }
+    blocks[entry] = block;
+    blockLength[entry] = length;
+    blockEnd[entry] = end;
+    for (int i = entry; i <= end; i++)
+      covered[i]++;
+    return block;
+  } // compile()
+
+
+  static class BlockLoader extends ClassLoader {
+/******************************************************************************************
+*  Defines the classes produced by BlockWriter.  Everything else is found through the     *
+*  class loader that loaded the simulator.                                                *
+******************************************************************************************/
+    BlockLoader(ClassLoader parent) {
+      super(parent);
+    } // BlockLoader()
+
+    Class<?> define(String name, byte[] classFile) {
+      return defineClass(name, classFile, 0, classFile.length);
+    } // define()
+  } // BlockLoader
+
+
+  static class BlockWriter {
+/******************************************************************************************
+*  Produces the class file for one block:  a public final class implementing MarieBlock   *
+*  with a no-argument constructor and a run(MarieCore) method.  In run(), local           *
+*  variable 1 is the core and locals 2 through 5 hold AC, MBR, MAR and PC.  The           *
+*  constant pool is built as entries are referenced by the code.                          *
+******************************************************************************************/
+    static final int AC = 2, MBR = 3, MAR = 4, PC = 5;   // Local variable slots.
+
+    String className;
+    ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    DataOutputStream pool = new DataOutputStream(poolBytes);
+    Hashtable<String, Integer> poolIndex          // Constant pool entries by key.
+                               = new Hashtable<String, Integer>();
+    int poolCount = 1;                            // Next constant pool index.
+    byte[] code = new byte[1024];                 // Code of the method being written.
+    int codeLength = 0;
+
+    BlockWriter(String className) {
+      this.className = className;
+    } // BlockWriter()
+
+/* --                                                                                 -- */
+/* --  Constant pool.                                                                 -- */
+/* --                                                                                 -- */
+    int utf8(String s) throws IOException {
+      String key = "U" + s;
+      if (!poolIndex.containsKey(key)) {
+        pool.writeByte(1);
+        pool.writeUTF(s);
+        poolIndex.put(key, Integer.valueOf(poolCount++));
+      }
+      return poolIndex.get(key).intValue();
+    } // utf8()
+
+    int classRef(String name) throws IOException {
+      String key = "C" + name;
+      if (!poolIndex.containsKey(key)) {
+        int nameIndex = utf8(name);
+        pool.writeByte(7);
+        pool.writeShort(nameIndex);
+        poolIndex.put(key, Integer.valueOf(poolCount++));
+      }
+      return poolIndex.get(key).intValue();
+    } // classRef()
+
+    int memberRef(int tag, String owner, String name, String type) throws IOException {
+      String key = tag + owner + "." + name + ":" + type;
+      if (!poolIndex.containsKey(key)) {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int typeIndex = utf8(type);
+        pool.writeByte(12);                       // NameAndType
+        pool.writeShort(nameIndex);
+        pool.writeShort(typeIndex);
+        int nameAndType = poolCount++;
+        pool.writeByte(tag);                      // Fieldref (9) or Methodref (10)
+        pool.writeShort(ownerIndex);
+        pool.writeShort(nameAndType);
+        poolIndex.put(key, Integer.valueOf(poolCount++));
+      }
+      return poolIndex.get(key).intValue();
+    } // memberRef()
+
+/* --                                                                                 -- */
+/* --  Bytecode.                                                                      -- */
+/* --                                                                                 -- */
+    void emit(int b) {
+      if (codeLength == code.length) {
+        byte[] bigger = new byte[code.length * 2];
+        System.arraycopy(code, 0, bigger, 0, codeLength);
+        code = bigger;
+      }
+      code[codeLength++] = (byte) b;
+    } // emit()
+
+    void emitShort(int s) {
+      emit(s >> 8);
+      emit(s);
+    } // emitShort()
+
+    void pushInt(int v) {                         // Push a constant in short range.
+      if ((v >= -1) && (v <= 5))
+        emit(0x03 + v);                           // iconst_<v>
+      else if ((v >= -128) && (v <= 127)) {
+        emit(0x10);                               // bipush
+        emit(v);
+      }
+      else {
+        emit(0x11);                               // sipush
+        emitShort(v);
+      }
+    } // pushInt()
+
+    void load(int slot)  { emit(0x15); emit(slot); }   // iload
+    void store(int slot) { emit(0x36); emit(slot); }   // istore
+    void loadCore()      { emit(0x2b); }               // aload_1
+
+    void field(int opcode, String name, String type) throws IOException {
+      emit(opcode);                               // getfield (0xb4) or putfield (0xb5)
+      emitShort(memberRef(9, CORE, name, type));
+    } // field()
+
+    void call(String name, String type) throws IOException {
+      emit(0xb6);                                 // invokevirtual
+      emitShort(memberRef(10, CORE, name, type));
+    } // call()
+
+    void putRegister(String name, int slot) throws IOException {
+      loadCore();
+      load(slot);
+      field(0xb5, name, "S");
+    } // putRegister()
+
+    void readMemory(int addressSlot, int address) throws IOException {
+      loadCore();                                 // Leaves memory[address] on the
+      field(0xb4, "memory", "[I");                // stack, taking the address from
+      if (addressSlot > 0)                        // a local if addressSlot > 0.
+        load(addressSlot);
+      else
+        pushInt(address);
+      emit(0x2e);                                 // iaload
+    } // readMemory()
+
+/* --                                                                                 -- */
+/* --  Translation.                                                                   -- */
+/* --                                                                                 -- */
+    byte[] assemble(int[] memory, int entry, int length) throws IOException {
+/******************************************************************************************
+*  Translates the length instructions starting at entry and returns the class file.       *
+******************************************************************************************/
+      int thisClass  = classRef(className);
+      int superClass = classRef("java/lang/Object");
+      int interfaceClass = classRef(BLOCK);
+      int codeName = utf8("Code");
+                                                  // Constructor:  super();
+      int initName = utf8("<init>");
+      int initType = utf8("()V");
+      int objectInit = memberRef(10, "java/lang/Object", "<init>", "()V");
+      byte[] initCode = { 0x2a, (byte) 0xb7, (byte) (objectInit >> 8),
+                          (byte) objectInit, (byte) 0xb1 };
+                                                  // run(MarieCore):
+      int runName = utf8("run");
+      int runType = utf8("(L" + CORE + ";)V");
+      loadCore();                                 // Copy the registers we need
+      field(0xb4, "ac", "S");                     // into locals.
+      store(AC);
+      loadCore();
+      field(0xb4, "mbr", "S");
+      store(MBR);
+      int word = 0;
+      int op = 0;
+      for (int i = 0; i < length; i++)  {
+        int addr = entry + i;
+        word = (short) memory[addr];
+        op = (word >> 12) & 0x0F;
+        translate(addr, word, op, i == length - 1);
+      }
+      putRegister("ac", AC);                      // Store the registers back into
+      putRegister("mbr", MBR);                    // the core.
+      putRegister("mar", MAR);
+      putRegister("pc", PC);
+      loadCore();
+      pushInt(word);
+      field(0xb5, "ir", "S");
+      loadCore();
+      pushInt(op);
+      field(0xb5, "instructionCode", "I");
+      loadCore();                                 // instructionsRetired += length
+      emit(0x59);                                 // dup
+      field(0xb4, "instructionsRetired", "J");
+      pushInt(length);
+      emit(0x85);                                 // i2l
+      emit(0x61);                                 // ladd
+      field(0xb5, "instructionsRetired", "J");
+      emit(0xb1);                                 // return
+
+      ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(classBytes);
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);                          // Version 49.0 (Java 5)
+      out.writeShort(49);
+      pool.flush();
+      out.writeShort(poolCount);
+      poolBytes.writeTo(out);
+      out.writeShort(0x0031);                     // public final super
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(1);                          // Interfaces
+      out.writeShort(interfaceClass);
+      out.writeShort(0);                          // Fields
+      out.writeShort(2);                          // Methods
+      writeMethod(out, initName, initType, codeName, initCode, initCode.length, 1, 1);
+      writeMethod(out, runName, runType, codeName, code, codeLength, 6, 6);
+      out.writeShort(0);                          // Attributes
+      out.flush();
+      return classBytes.toByteArray();
+    } // assemble()
+
+    void writeMethod(DataOutputStream out, int name, int type, int codeName,
+                     byte[] body, int bodyLength, int maxStack, int maxLocals)
+                                                              throws IOException {
+      out.writeShort(0x0001);                     // public
+      out.writeShort(name);
+      out.writeShort(type);
+      out.writeShort(1);                          // One attribute:  Code.
+      out.writeShort(codeName);
+      out.writeInt(12 + bodyLength);
+      out.writeShort(maxStack);
+      out.writeShort(maxLocals);
+      out.writeInt(bodyLength);
+      out.write(body, 0, bodyLength);
+      out.writeShort(0);                          // Exception table
+      out.writeShort(0);                          // Code attributes
+    } // writeMethod()
+
+    void translate(int addr, int word, int op, boolean last) throws IOException {
+/******************************************************************************************
+*  Emits the code for the instruction word at addr:  first its fetch, which sets MAR      *
+*  (and MBR if the instruction takes an operand), then its execution.  The PC is only     *
+*  stored for the last instruction, since no other instruction's PC can be seen.          *
+******************************************************************************************/
+      int operand = word & 0x0FFF;
+      int nextPC = (addr + 1) & MarieCore.MAX_MARIE_ADDR;
+      if (MarieCore.operandReqd[op]) {            // MAR <- operand, MBR <- M[MAR]
+        pushInt(operand);
+        store(MAR);
+        readMemory(0, operand);
+        store(MBR);
+      }
+      else {                                      // MAR <- PC
+        pushInt(addr);
+        store(MAR);
+      }
+      switch (op) {
+        case MarieCore.JNS:      loadCore();      // M[MAR] <- PC, PC <- MAR + 1
+                                 pushInt(operand);
+                                 pushInt(nextPC);
+                                 call("writeMemory", "(II)V");
+                                 pushInt((operand + 1) & MarieCore.MAX_MARIE_ADDR);
+                                 store(PC);
+                                 return;
+        case MarieCore.LOAD:     load(MBR);
+                                 store(AC);
+                                 break;
+        case MarieCore.STORE:    load(AC);
+                                 store(MBR);
+                                 loadCore();
+                                 load(MAR);
+                                 load(MBR);
+                                 call("writeMemory", "(II)V");
+                                 break;
+        case MarieCore.ADD:      load(AC);
+                                 load(MBR);
+                                 emit(0x60);      // iadd
+                                 emit(0x93);      // i2s
+                                 store(AC);
+                                 break;
+        case MarieCore.SUBT:     load(AC);
+                                 load(MBR);
+                                 emit(0x64);      // isub
+                                 emit(0x93);      // i2s
+                                 store(AC);
+                                 break;
+        case MarieCore.OUTPUT:   loadCore();
+                                 load(AC);
+                                 call("putOutput", "(I)V");
+                                 break;
+        case MarieCore.SKIPCOND: skipCond(word, nextPC);
+                                 return;
+        case MarieCore.JUMP:     pushInt(operand);
+                                 store(PC);
+                                 return;
+        case MarieCore.CLEAR:    pushInt(0);
+                                 store(AC);
+                                 break;
+        case MarieCore.ADDI:     load(MBR);       // MAR <- MBR, MBR <- M[MAR]
+                                 pushInt(0x0FFF);
+                                 emit(0x7e);      // iand
+                                 store(MAR);
+                                 readMemory(MAR, 0);
+                                 store(MBR);
+                                 load(AC);
+                                 load(MBR);
+                                 emit(0x60);      // iadd
+                                 emit(0x93);      // i2s
+                                 store(AC);
+                                 break;
+        case MarieCore.JUMPI:    load(MBR);
+                                 pushInt(0x0FFF);
+                                 emit(0x7e);      // iand
+                                 store(PC);
+                                 return;
+      } // switch
+      if (last) {                                 // Fell off the end of the block.
+        pushInt(nextPC);
+        store(PC);
+      }
+    } // translate()
+
+    void skipCond(int word, int nextPC) {
+/******************************************************************************************
+*  PC <- PC + 2 if AC compares with the operand as the condition bits request, else       *
+*  PC <- PC + 1.  The block writer never sees the invalid condition 3.                    *
+******************************************************************************************/
+      int condition = (word & 0x0c00) >> 10;
+      load(AC);
+      pushInt(word & 0x03ff);
+      int branch = codeLength;                    // Branch to "no skip" if the
+      switch (condition) {                        // condition is false.
+        case 0:  emit(0xa2);                      // if_icmpge
+                 break;
+        case 1:  emit(0xa0);                      // if_icmpne
+                 break;
+        default: emit(0xa4);                      // if_icmple
+      } // switch
+      emitShort(0);
+      pushInt((nextPC + 1) & MarieCore.MAX_MARIE_ADDR);   // Skip.
+      store(PC);
+      int jump = codeLength;
+      emit(0xa7);                                 // goto
+      emitShort(0);
+      int noSkip = codeLength;
+      pushInt(nextPC);
+      store(PC);
+      int end = codeLength;
+      code[branch + 1] = (byte) ((noSkip - branch) >> 8);
+      code[branch + 2] = (byte) (noSkip - branch);
+      code[jump + 1] = (byte) ((end - jump) >> 8);
+      code[jump + 2] = (byte) (end - jump);
+    } // skipCond()
+  } // BlockWriter
+} // MarieTranslator
@@ -0,0 +1,487 @@
+// File:        MarieTests.java
+// JDK Version: 1.5
+// Date:        October 17, 2026
+// Notice:      This code may be freely used for noncommercial purposes.
+package MarieSimulator;
+
+public class MarieTests {
+/******************************************************************************************
+*  Regression tests for the machine.  Each test builds its programs word by word, so the  *
+*  tests need no files.  From the directory above MarieSimulator:                         *
+*                                                                                         *
+*     javac -d classes MarieSimulator/*.java tests/MarieSimulator/*.java                  *
+*     java -cp classes MarieSimulator.MarieTests                                          *
+*                                                                                         *
+*  Each failed check is reported, and the exit status is 1 if any failed.                 *
+******************************************************************************************/
+/* --                                                                                 -- */
+/* --  Class fields and attributes.                                                   -- */
+/* --                                                                                 -- */
+  static final int REPS  = 100;                    // Passes over the array by the sum
+  static final int SIZE  = 64;                     // program, and its length.
+  static final int ARRAY = 0x300;
+  static final int LOCKED_ITERATIONS = 5000;       // Times each core takes the lock.
+  static final int LOCKING_CORES     = 4;
+
+  static int checks   = 0;
+  static int failures = 0;
+
+
+  static int word(int opcode, int address) {
+    return (opcode << 12) | address;
+  } // word()
+
+
+  static void check(boolean ok, String what) {
+    checks++;
+    if (!ok) {
+      failures++;
+      System.out.println("FAILED: " + what);
+    }
+  } // check()
+
+
+  static void checkSameMachine(MarieCore copy, MarieCore core, String what) {
+    check((copy.ac == core.ac) && (copy.pc == core.pc) && (copy.ir == core.ir)
+          && (copy.mar == core.mar) && (copy.mbr == core.mbr),
+          what + " restores the registers");
+    check(copy.instructionsRetired == core.instructionsRetired,
+          what + " restores the instruction count");
+    check(java.util.Arrays.equals(copy.memory, core.memory), what + " restores memory");
+    check(java.util.Arrays.equals(copy.getOutput(), core.getOutput()),
+          what + " restores the output");
+  } // checkSameMachine()
+
+
+  static void checkSameFinish(MarieCore copy, MarieCore core, String what) {
+/******************************************************************************************
+*  Runs both machines to the end and checks that the copy finishes as the original does.  *
+******************************************************************************************/
+    core.run(Long.MAX_VALUE);
+    copy.run(Long.MAX_VALUE);
+    check((copy.machineState == MarieCore.MARIE_HALTED_NORMAL)
+          && (copy.machineState == core.machineState)
+          && (copy.instructionsRetired == core.instructionsRetired)
+          && java.util.Arrays.equals(copy.memory, core.memory)
+          && java.util.Arrays.equals(copy.getOutput(), core.getOutput()),
+          what + " finishes the run as the original does");
+  } // checkSameFinish()
+
+
+  static void loadSumProgram(MarieCore core) {
+/******************************************************************************************
+*  Loads a program that adds up an array of SIZE words REPS times, outputting the sum     *
+*  after each pass from a subroutine called with JNS.  The inner loop is hot enough to    *
+*  be translated.  It starts at 100.                                                      *
+******************************************************************************************/
+    core.reset();
+    int[] code = {
+      word(MarieCore.LOAD,     0x200),     // 100        Load  Reps
+      word(MarieCore.STORE,    0x201),     // 101        Store Rep
+      word(MarieCore.CLEAR,    0),         // 102 Pass,  Clear
+      word(MarieCore.STORE,    0x202),     // 103        Store Sum
+      word(MarieCore.LOAD,     0x203),     // 104        Load  First
+      word(MarieCore.STORE,    0x204),     // 105        Store Ptr
+      word(MarieCore.LOAD,     0x205),     // 106        Load  Size
+      word(MarieCore.STORE,    0x206),     // 107        Store Ctr
+      word(MarieCore.LOAD,     0x202),     // 108 Loop,  Load  Sum
+      word(MarieCore.ADDI,     0x204),     // 109        AddI  Ptr
+      word(MarieCore.STORE,    0x202),     // 10A        Store Sum
+      word(MarieCore.LOAD,     0x204),     // 10B        Load  Ptr
+      word(MarieCore.ADD,      0x207),     // 10C        Add   One
+      word(MarieCore.STORE,    0x204),     // 10D        Store Ptr
+      word(MarieCore.LOAD,     0x206),     // 10E        Load  Ctr
+      word(MarieCore.SUBT,     0x207),     // 10F        Subt  One
+      word(MarieCore.STORE,    0x206),     // 110        Store Ctr
+      word(MarieCore.SKIPCOND, 0x400),     // 111        Skipcond 400
+      word(MarieCore.JUMP,     0x108),     // 112        Jump  Loop
+      word(MarieCore.JNS,      0x120),     // 113        JnS   Show
+      word(MarieCore.LOAD,     0x201),     // 114        Load  Rep
+      word(MarieCore.SUBT,     0x207),     // 115        Subt  One
+      word(MarieCore.STORE,    0x201),     // 116        Store Rep
+      word(MarieCore.SKIPCOND, 0x400),     // 117        Skipcond 400
+      word(MarieCore.JUMP,     0x102),     // 118        Jump  Pass
+      word(MarieCore.HALT,     0)          // 119        Halt
+    };
+    for (int i = 0; i < code.length; i++)
+      core.loadWord(0x100 + i, code[i]);
+    core.loadWord(0x120, 0);                                   // Show,  Hex 0
+    core.loadWord(0x121, word(MarieCore.LOAD, 0x202));         //        Load  Sum
+    core.loadWord(0x122, word(MarieCore.OUTPUT, 0));           //        Output
+    core.loadWord(0x123, word(MarieCore.JUMPI, 0x120));        //        JumpI Show
+    core.loadWord(0x200, REPS);
+    core.loadWord(0x203, ARRAY);
+    core.loadWord(0x205, SIZE);
+    core.loadWord(0x207, 1);
+    for (int i = 0; i < SIZE; i++)
+      core.loadWord(ARRAY + i, i * 37 - 500);
+    core.restart(0x100);
+  } // loadSumProgram()
+
+
+  static void translatorMatchesInterpreter() {
+/******************************************************************************************
+*  Runs the sum program interpreted and translated, and checks that both leave the same   *
+*  registers, memory and output, and the right sum.                                       *
+******************************************************************************************/
+    MarieCore interpreted = new MarieCore();
+    MarieCore translated = new MarieCore();
+    translated.setTranslating(true);
+    loadSumProgram(interpreted);
+    loadSumProgram(translated);
+    interpreted.run(Long.MAX_VALUE);
+    translated.run(Long.MAX_VALUE);
+    int sum = 0;
+    for (int i = 0; i < SIZE; i++)
+      sum += i * 37 - 500;
+    check(interpreted.machineState == MarieCore.MARIE_HALTED_NORMAL,
+          "interpreted sum program halts normally");
+    check(translated.machineState == MarieCore.MARIE_HALTED_NORMAL,
+          "translated sum program halts normally");
+    check(interpreted.ac == 0, "interpreted AC is 0 at the end");
+    check(interpreted.memory[0x202] == (short) sum, "interpreter finds the sum");
+    check(translated.ac == interpreted.ac, "translated AC matches");
+    check(translated.pc == interpreted.pc, "translated PC matches");
+    check(translated.instructionsRetired == interpreted.instructionsRetired,
+          "translated instruction count matches");
+    check(java.util.Arrays.equals(translated.memory, interpreted.memory),
+          "translated memory matches");
+    int[] out = translated.getOutput();
+    check(java.util.Arrays.equals(out, interpreted.getOutput()),
+          "translated output matches");
+    check((out.length == REPS) && (out[REPS - 1] == (short) sum),
+          "translated output is the sum after every pass");
+  } // translatorMatchesInterpreter()
+
+
+  static void checkpointRoundTrip() throws java.io.IOException {
+/******************************************************************************************
+*  Saves a checkpoint partway through the sum program, restores it into another machine   *
+*  and checks that the two are the same and finish the same.                              *
+******************************************************************************************/
+    MarieCore core = new MarieCore();
+    loadSumProgram(core);
+    core.run(5000);
+    byte[] image = MarieCheckpoint.save(core);
+    MarieCore copy = new MarieCore();
+    copy.reset();
+    MarieCheckpoint.restore(copy, image);
+    checkSameMachine(copy, core, "checkpoint");
+    checkSameFinish(copy, core, "restored machine");
+
+    boolean refused = false;
+    try {
+      MarieCheckpoint.restore(copy, new byte[16]);
+    }
+    catch (java.io.IOException e) {
+      refused = true;
+    }
+    check(refused, "an image that is not a checkpoint is refused");
+  } // checkpointRoundTrip()
+
+
+  static void checkpointKeepsInterrupts() throws java.io.IOException {
+/******************************************************************************************
+*  Saves a checkpoint with interrupts enabled and a line pending, and checks that the     *
+*  restored machine takes the interrupt just as the original does.                        *
+******************************************************************************************/
+    MarieCore core = new MarieCore();
+    loadSumProgram(core);
+    core.loadWord(MarieCore.VECTORS + 3, 0x130);               // Line 3's handler just
+    core.loadWord(0x130, word(MarieCore.IRET, 0));             // returns.
+    core.run(5000);
+    core.interruptsEnabled = true;
+    core.raiseInterrupt(3);
+    byte[] image = MarieCheckpoint.save(core);
+    MarieCore copy = new MarieCore();
+    copy.reset();
+    MarieCheckpoint.restore(copy, image);
+    check(copy.interruptsEnabled && (copy.pendingInterrupts == (1 << 3)),
+          "checkpoint restores the interrupt state");
+    checkSameFinish(copy, core, "machine restored with an interrupt pending");
+  } // checkpointKeepsInterrupts()
+
+
+  static void undoAcrossInterrupt() {
+/******************************************************************************************
+*  Takes an interrupt with a history attached, steps back over it and checks that PC,     *
+*  the enable flag, the pending line and the return address word are as they were, then   *
+*  runs forward again.                                                                    *
+******************************************************************************************/
+    MarieCore core = new MarieCore();
+    loadInterruptProgram(core);
+    core.setHistory(new MarieHistory(1 << 20));
+    core.restart(0x10);
+    core.step();
+    core.step();
+    core.step();
+    core.raiseInterrupt(0);
+    core.step();                                               // Interrupt, then Load.
+    check((core.pc == 0x21) && (core.ac == 5) && !core.interruptsEnabled
+          && (core.pendingInterrupts == 0) && (core.memory[0] == 0x13),
+          "interrupt is taken before the next instruction");
+    check(core.stepBack(), "can step back over the interrupt");
+    check((core.pc == 0x13) && (core.ac == 1) && core.interruptsEnabled
+          && (core.pendingInterrupts == 1) && (core.memory[0] == 0x777)
+          && (core.instructionsRetired == 3),
+          "stepping back restores PC, AC, the enable flag, the pending line and word 0");
+    core.stepBack();
+    check((core.pc == 0x12) && (core.memory[0x33] == 0) && (core.instructionsRetired == 2),
+          "stepping back again undoes the store before the interrupt");
+    core.machineState = MarieCore.MARIE_RUNNING;
+    core.run(100);
+    check((core.machineState == MarieCore.MARIE_HALTED_NORMAL) && (core.ac == 6)
+          && (core.memory[0x32] == 5),
+          "running forward again takes the interrupt and halts");
+  } // undoAcrossInterrupt()
+
+
+  static void loadInterruptProgram(MarieCore core) {
+/******************************************************************************************
+*  Loads a program that enables interrupts and adds 1 to AC twice, with a handler for     *
+*  line 0 that stores 5.  Word 0 starts out holding 777, so that undoing or replaying     *
+*  the interrupt's write into it shows.                                                   *
+******************************************************************************************/
+    core.reset();
+    core.loadWord(MarieCore.RETURN_ADDRESS, 0x777);
+    core.loadWord(MarieCore.VECTORS, 0x20);                    // Line 0's handler.
+    core.loadWord(0x10, word(MarieCore.EI, 1));                // 10        EI
+    core.loadWord(0x11, word(MarieCore.ADD, 0x30));            // 11        Add   One
+    core.loadWord(0x12, word(MarieCore.STORE, 0x33));          // 12        Store Before
+    core.loadWord(0x13, word(MarieCore.ADD, 0x30));            // 13        Add   One
+    core.loadWord(0x14, word(MarieCore.HALT, 0));              // 14        Halt
+    core.loadWord(0x20, word(MarieCore.LOAD, 0x31));           // 20        Load  Five
+    core.loadWord(0x21, word(MarieCore.STORE, 0x32));          // 21        Store Seen
+    core.loadWord(0x22, word(MarieCore.IRET, 0));              // 22        IRet
+    core.loadWord(0x30, 1);
+    core.loadWord(0x31, 5);
+  } // loadInterruptProgram()
+
+
+  static void traceKeepsInterrupts() throws java.io.IOException {
+/******************************************************************************************
+*  Records a trace of a run that takes an interrupt, replays it into another machine and  *
+*  checks that the replay wrote the return address and ends where the run did.            *
+******************************************************************************************/
+    java.io.File file = java.io.File.createTempFile("marie", MarieTraceWriter.TRACE_TYPE);
+    file.deleteOnExit();
+    MarieCore core = new MarieCore();
+    loadInterruptProgram(core);
+    core.setTracer(new MarieTraceWriter(file.getPath(), true));
+    core.restart(0x10);
+    core.step();
+    core.step();
+    core.step();
+    core.raiseInterrupt(0);
+    core.run(100);
+    core.getTracer().close();
+
+    MarieCore copy = new MarieCore();
+    loadInterruptProgram(copy);
+    copy.restart(0x10);
+    copy.interruptsEnabled = true;
+    MarieTraceReader reader = new MarieTraceReader(file.getPath());
+    boolean sawInterrupt = false;
+    while (reader.next()) {
+      reader.applyTo(copy);
+      if (reader.isInterrupt()) {
+        sawInterrupt = true;
+        check((copy.memory[MarieCore.RETURN_ADDRESS] == 0x13) && !copy.interruptsEnabled,
+              "replayed interrupt writes the return address and disables interrupts");
+      }
+    }
+    reader.close();
+    check(sawInterrupt, "trace has a record for the interrupt");
+    check(reader.getInstructionCount() == core.instructionsRetired,
+          "trace counts instructions apart from the interrupt");
+    check((copy.pc == core.pc) && (copy.ac == core.ac) && copy.interruptsEnabled
+          && java.util.Arrays.equals(copy.memory, core.memory),
+          "replay ends with the registers and memory of the run");
+  } // traceKeepsInterrupts()
+
+
+  static MarieCore bankedCore(int banks) {
+    MarieCore core = new MarieCore();
+    MarieBus bus = new MarieBus(core);
+    bus.attach(new MarieBankedMemory(banks), MarieBus.BANKED_BASE);
+    core.setBus(bus);
+    core.reset();
+    return core;
+  } // bankedCore()
+
+
+  static void checkpointKeepsBanks() throws java.io.IOException {
+/******************************************************************************************
+*  Saves a checkpoint of a machine with banked memory and checks that the restored        *
+*  machine has the same bank selected and the same words in every bank, and that a        *
+*  machine with a different number of banks refuses the checkpoint.                       *
+******************************************************************************************/
+    MarieCore core = bankedCore(4);
+    loadSumProgram(core);
+    core.writeMemory(MarieBus.BANKED_BASE, 2);                 // Bank 2, word 5.
+    core.writeMemory(MarieBus.BANKED_BASE + 6, 1234);
+    core.writeMemory(MarieBus.BANKED_BASE, 3);                 // Bank 3, word 0.
+    core.writeMemory(MarieBus.BANKED_BASE + 1, -7);
+    core.writeMemory(MarieBus.BANKED_BASE, 2);
+    byte[] image = MarieCheckpoint.save(core);
+    MarieCore copy = bankedCore(4);
+    MarieCheckpoint.restore(copy, image);
+    check(copy.readData(MarieBus.BANKED_BASE) == 2,
+          "checkpoint restores the bank selected");
+    check(copy.readData(MarieBus.BANKED_BASE + 6) == 1234,
+          "checkpoint restores the selected bank's words");
+    copy.writeMemory(MarieBus.BANKED_BASE, 3);
+    check(copy.readData(MarieBus.BANKED_BASE + 1) == -7,
+          "checkpoint restores the other banks' words");
+
+    boolean refused = false;
+    try {
+      MarieCheckpoint.restore(bankedCore(2), image);
+    }
+    catch (java.io.IOException e) {
+      refused = true;
+    }
+    check(refused, "checkpoint with 4 banks is refused by a machine with 2");
+  } // checkpointKeepsBanks()
+
+
+  static void checkpointKeepsLockWords() throws java.io.IOException {
+/******************************************************************************************
+*  Saves a checkpoint after TAS has set a lock word and checks that the restored machine  *
+*  still treats the word as a lock.                                                       *
+******************************************************************************************/
+    MarieCore core = new MarieCore();
+    core.reset();
+    core.loadWord(0x10, word(MarieCore.TAS, 0x50));            // 10        TAS   Lock
+    core.loadWord(0x11, word(MarieCore.HALT, 0));              // 11        Halt
+    core.restart(0x10);
+    core.run(10);
+    byte[] image = MarieCheckpoint.save(core);
+    MarieCore copy = new MarieCore();
+    copy.reset();
+    MarieCheckpoint.restore(copy, image);
+    check(copy.lockWords.get(0x50) && copy.lockWords.equals(core.lockWords),
+          "checkpoint restores the lock words");
+    check(copy.memory[0x50] == 1, "checkpoint restores the lock taken");
+  } // checkpointKeepsLockWords()
+
+
+  static void tasUnderContention() {
+/******************************************************************************************
+*  Has LOCKING_CORES cores each add 1 to a shared count LOCKED_ITERATIONS times, taking   *
+*  a lock with TAS around each addition, and checks that no addition is lost.  Each core  *
+*  has its own copy of the loop, so that it counts its iterations in a word of its own.   *
+******************************************************************************************/
+    final int lock = 0x50, count = 0x51, one = 0x52, iterations = 0x53;
+    MarieMulticore machine = new MarieMulticore(LOCKING_CORES);
+    MarieCore core = machine.getCore(0);
+    core.reset();
+    machine.setTranslating(true);
+    core.loadWord(one, 1);
+    core.loadWord(iterations, LOCKED_ITERATIONS);
+    int at = 0x100;
+    for (int k = 0; k < LOCKING_CORES; k++) {                  // Send core k to its loop:
+      int loop = 0x200 + 0x20 * k;                            // at AC = 0, jump to it,
+      core.loadWord(at++, word(MarieCore.SKIPCOND, 0x400));    // else subtract 1 and try
+      core.loadWord(at++, word(MarieCore.JUMP, at + 1));       // the next.
+      core.loadWord(at++, word(MarieCore.JUMP, loop));
+      core.loadWord(at++, word(MarieCore.SUBT, one));
+    }
+    core.loadWord(at, word(MarieCore.HALT, 0));
+    for (int k = 0; k < LOCKING_CORES; k++) {
+      int loop = 0x200 + 0x20 * k, counter = 0x60 + k;
+      int[] code = {
+        word(MarieCore.LOAD,     iterations),      // +0        Load  Iterations
+        word(MarieCore.STORE,    counter),         // +1        Store Counter
+        word(MarieCore.TAS,      lock),            // +2 Take,  TAS   Lock
+        word(MarieCore.SKIPCOND, 0x400),           // +3        Skipcond 400
+        word(MarieCore.JUMP,     loop + 2),        // +4        Jump  Take
+        word(MarieCore.LOAD,     count),           // +5        Load  Count
+        word(MarieCore.ADD,      one),             // +6        Add   One
+        word(MarieCore.STORE,    count),           // +7        Store Count
+        word(MarieCore.CLEAR,    0),               // +8        Clear
+        word(MarieCore.STORE,    lock),            // +9        Store Lock
+        word(MarieCore.LOAD,     counter),         // +A        Load  Counter
+        word(MarieCore.SUBT,     one),             // +B        Subt  One
+        word(MarieCore.STORE,    counter),         // +C        Store Counter
+        word(MarieCore.SKIPCOND, 0x400),           // +D        Skipcond 400
+        word(MarieCore.JUMP,     loop + 2),        // +E        Jump  Take
+        word(MarieCore.HALT,     0)                // +F        Halt
+      };
+      for (int i = 0; i < code.length; i++)
+        core.loadWord(loop + i, code[i]);
+    }
+    machine.restart(0x100);
+    machine.run(Long.MAX_VALUE);
+    boolean halted = true;
+    for (int k = 0; k < LOCKING_CORES; k++)
+      halted &= (machine.getCore(k).machineState == MarieCore.MARIE_HALTED_NORMAL);
+    check(halted, "every locking core halts normally");
+    check(core.memory[count] == LOCKING_CORES * LOCKED_ITERATIONS,
+          "no addition under the TAS lock is lost (count is " + core.memory[count] + ")");
+    check(core.memory[lock] == 0, "the lock is free at the end");
+  } // tasUnderContention()
+
+
+  static MarieProgram program(int[] code) {
+    MarieProgram p = new MarieProgram();
+    p.addresses = new int[code.length];
+    p.words = code;
+    for (int i = 0; i < code.length; i++)
+      p.addresses[i] = 0x100 + i;
+    p.startAddress = 0x100;
+    return p;
+  } // program()
+
+
+  static void multicoreReload() {
+/******************************************************************************************
+*  Loads a program whose loop every core translates, runs it, then loads another program  *
+*  over it into the same MarieMulticore and checks that no core runs the old code.        *
+******************************************************************************************/
+    MarieMulticore machine = new MarieMulticore(2);
+    machine.setTranslating(true);
+    machine.load(program(new int[] {
+      word(MarieCore.CLEAR,    0),                 // 100        Clear
+      word(MarieCore.ADD,      0x108),             // 101 Loop,  Add   One
+      word(MarieCore.SUBT,     0x109),             // 102        Subt  Times
+      word(MarieCore.SKIPCOND, 0x400),             // 103        Skipcond 400
+      word(MarieCore.JUMP,     0x106),             // 104        Jump  More
+      word(MarieCore.HALT,     0),                 // 105        Halt
+      word(MarieCore.ADD,      0x109),             // 106 More,  Add   Times
+      word(MarieCore.JUMP,     0x101),             // 107        Jump  Loop
+      1,                                           // 108 One,   Dec   1
+      1000 }));                                    // 109 Times, Dec   1000
+    machine.run(Long.MAX_VALUE);
+    machine.load(program(new int[] {
+      word(MarieCore.LOAD,     0x104),             // 100        Load  Seven
+      word(MarieCore.ADD,      0x104),             // 101        Add   Seven
+      word(MarieCore.OUTPUT,   0),                 // 102        Output
+      word(MarieCore.HALT,     0),                 // 103        Halt
+      7 }));                                       // 104 Seven, Dec   7
+    machine.run(100000);                         // Old code would loop for ever.
+    boolean fresh = true;
+    for (int k = 0; k < machine.getCoreCount(); k++) {
+      int[] out = machine.getCore(k).getOutput();
+      fresh &= (machine.getCore(k).machineState == MarieCore.MARIE_HALTED_NORMAL)
+               && (out.length == 1) && (out[0] == 14);
+    }
+    check(fresh, "every core runs the program loaded last");
+  } // multicoreReload()
+
+
+  public static void main(String[] args) throws Exception {
+    translatorMatchesInterpreter();
+    checkpointRoundTrip();
+    checkpointKeepsInterrupts();
+    undoAcrossInterrupt();
+    traceKeepsInterrupts();
+    checkpointKeepsBanks();
+    checkpointKeepsLockWords();
+    tasUnderContention();
+    multicoreReload();
+    System.out.println(checks + " checks, " + failures + " failed.");
+    if (failures > 0)
+      System.exit(1);
+  } // main()
+} // MarieTests